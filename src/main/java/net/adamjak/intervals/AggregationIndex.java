@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Index to aggregate values of pairs whose intervals overlap given range.
+ * Mapped values of pairs are stored in balanced (AVL) tree sorted by start
+ * edge and every node keeps aggregated value of its subtree, so aggregation
+ * costs O(log n). Index is created by
+ * {@link IntervalsSeries#aggregationIndex(net.adamjak.intervals.Monoid, java.util.function.Function)}
+ * and the series updates it by all its changes (putValue, erase, insertNew
+ * ...), every put or remove of a pair costs O(log n). The tree is built at
+ * once (in linear time) only by the first aggregation and after operations
+ * which replace all pairs of series.
+ *
+ * <p>
+ * If index is weighted then value of interval that overlaps range only
+ * partially is weighted by the part of its length inside the range. Index is
+ * not thread safe.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values of series
+ * @param <R> type of aggregated values
+ */
+public final class AggregationIndex<T extends Comparable<T>, V, R> {
+
+    private final IntervalsSeries<T, V> series;
+    private final Monoid<R> monoid;
+    private final Function<? super V, ? extends R> mapper;
+    private final BiFunction<? super R, Double, ? extends R> weight;
+    private final Comparator<Interval<T>> comparator = Edges.startOrder();
+    private Node<T, R> root;
+    private boolean built = false;
+
+    AggregationIndex(IntervalsSeries<T, V> series, Monoid<R> monoid, Function<? super V, ? extends R> mapper, BiFunction<? super R, Double, ? extends R> weight) {
+        if (monoid == null) {
+            throw new ArgumentNullException("Monoid can not be null", "monoid");
+        }
+        if (mapper == null) {
+            throw new ArgumentNullException("Mapper can not be null", "mapper");
+        }
+        this.series = series;
+        this.monoid = monoid;
+        this.mapper = mapper;
+        this.weight = weight;
+    }
+
+    /**
+     * Return true if values of intervals that overlap range only partially are
+     * weighted.
+     *
+     * @return true if index is weighted
+     */
+    public boolean isWeighted() {
+        return weight != null;
+    }
+
+    /**
+     * Aggregate values of all pairs of series.
+     *
+     * @return aggregated value or identity element if series is empty
+     */
+    public R aggregate() {
+        return aggregate(new Interval<T>(null, null));
+    }
+
+    /**
+     * Aggregate values of pairs whose intervals overlap given range (edges are
+     * not included into overlap testing, the same as in
+     * {@code getOverlapedWith}). Values are combined in order of intervals.
+     *
+     * @param range range of aggregation
+     * @return aggregated value or identity element if no interval overlaps
+     * range
+     * @throws ArgumentNullException if range is null
+     * @throws UnsupportedOperationException if index is weighted and type of
+     * intervals edge does not support length computation
+     */
+    public R aggregate(Interval<T> range) {
+        if (range == null) {
+            throw new ArgumentNullException("Range can not be null", "range");
+        }
+        build();
+        Node<T, R> first = firstOverlap(range);
+        Node<T, R> last = lastOverlap(range);
+        if (first == null || last == null || comparator.compare(first.key, last.key) > 0) {
+            return monoid.identity();
+        }
+        if (weight == null) {
+            return between(first.key, true, last.key, true);
+        }
+        boolean firstInside = isInside(first.key, range);
+        if (first == last) {
+            return firstInside ? first.value : weighted(first, range);
+        }
+        boolean lastInside = isInside(last.key, range);
+        R output = firstInside ? monoid.identity() : weighted(first, range);
+        output = monoid.combine(output, between(first.key, firstInside, last.key, lastInside));
+        return monoid.combine(output, lastInside ? monoid.identity() : weighted(last, range));
+    }
+
+    /**
+     * Put pair into index, called by series when pair is put.
+     */
+    void put(Interval<T> interval, V value) {
+        if (built == false) {
+            return;
+        }
+        R mapped;
+        try {
+            mapped = mapper.apply(value);
+        } catch (RuntimeException ex) {
+            // exception will be thrown by the next aggregation which builds tree again
+            invalidate();
+            return;
+        }
+        root = put(root, interval, mapped);
+    }
+
+    /**
+     * Remove pair from index, called by series when pair is removed.
+     */
+    void remove(Interval<T> interval) {
+        if (built) {
+            root = remove(root, interval);
+        }
+    }
+
+    /**
+     * Drop tree, it will be built again by the next aggregation. Called by
+     * series when all its pairs are replaced.
+     */
+    void invalidate() {
+        root = null;
+        built = false;
+    }
+
+    /**
+     * Build tree from sorted pairs of series in linear time.
+     */
+    private void build() {
+        if (built) {
+            return;
+        }
+        List<Entry<Interval<T>, R>> pairs = new ArrayList<>(series.size());
+        for (Entry<Interval<T>, V> pair : series.navigablePairs().entrySet()) {
+            pairs.add(new SimpleImmutableEntry<Interval<T>, R>(pair.getKey(), mapper.apply(pair.getValue())));
+        }
+        root = build(pairs, 0, pairs.size());
+        built = true;
+    }
+
+    private Node<T, R> build(List<Entry<Interval<T>, R>> pairs, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Entry<Interval<T>, R> pair = pairs.get(middle);
+        return node(pair.getKey(), pair.getValue(), build(pairs, from, middle), build(pairs, middle + 1, to));
+    }
+
+    /**
+     * The first node whose end edge is higher than start edge of range. End
+     * edges of intervals in series are sorted too.
+     */
+    private Node<T, R> firstOverlap(Interval<T> range) {
+        Node<T, R> output = null;
+        Node<T, R> node = root;
+        while (node != null) {
+            if (Edges.compareEndToStart(node.key.getEnd(), range.getStart()) > 0) {
+                output = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * The last node whose start edge is lower than end edge of range.
+     */
+    private Node<T, R> lastOverlap(Interval<T> range) {
+        Node<T, R> output = null;
+        Node<T, R> node = root;
+        while (node != null) {
+            if (Edges.compareEndToStart(range.getEnd(), node.key.getStart()) > 0) {
+                output = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Combine values of nodes with keys from the first key to the last key in
+     * order of keys. Tree is passed from the node where paths to both keys
+     * split, so the cost is O(log n).
+     */
+    private R between(Interval<T> first, boolean firstIncluded, Interval<T> last, boolean lastIncluded) {
+        Node<T, R> node = root;
+        while (node != null) {
+            if (isAfter(node.key, first, firstIncluded) == false) {
+                node = node.right;
+            } else if (isBefore(node.key, last, lastIncluded) == false) {
+                node = node.left;
+            } else {
+                break;
+            }
+        }
+        if (node == null) {
+            return monoid.identity();
+        }
+        // suffix of left subtree
+        R left = monoid.identity();
+        Node<T, R> current = node.left;
+        while (current != null) {
+            if (isAfter(current.key, first, firstIncluded)) {
+                left = monoid.combine(current.value, monoid.combine(summary(current.right), left));
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        // prefix of right subtree
+        R right = monoid.identity();
+        current = node.right;
+        while (current != null) {
+            if (isBefore(current.key, last, lastIncluded)) {
+                right = monoid.combine(monoid.combine(right, summary(current.left)), current.value);
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return monoid.combine(monoid.combine(left, node.value), right);
+    }
+
+    private boolean isAfter(Interval<T> key, Interval<T> first, boolean included) {
+        int compare = comparator.compare(key, first);
+        return compare > 0 || (included && compare == 0);
+    }
+
+    private boolean isBefore(Interval<T> key, Interval<T> last, boolean included) {
+        int compare = comparator.compare(key, last);
+        return compare < 0 || (included && compare == 0);
+    }
+
+    private boolean isInside(Interval<T> interval, Interval<T> range) {
+        return Edges.compareStarts(range.getStart(), interval.getStart()) <= 0
+                && Edges.compareEnds(interval.getEnd(), range.getEnd()) <= 0;
+    }
+
+    /**
+     * Value of interval weighted by the part of its length inside range.
+     */
+    private R weighted(Node<T, R> node, Interval<T> range) {
+        Interval<T> interval = node.key;
+        if (interval.hasLength() == false) {
+            throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+        }
+        Interval<T> overlap = interval.overlap(range);
+        double part = (overlap == null) ? 0 : overlap.lengthAsDouble() / interval.lengthAsDouble();
+        return weight.apply(node.value, part);
+    }
+
+    private Node<T, R> put(Node<T, R> node, Interval<T> key, R value) {
+        if (node == null) {
+            return node(key, value, null, null);
+        }
+        int compare = comparator.compare(key, node.key);
+        if (compare == 0) {
+            return node(key, value, node.left, node.right);
+        }
+        if (compare < 0) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        return balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+
+    private Node<T, R> remove(Node<T, R> node, Interval<T> key) {
+        if (node == null) {
+            return null;
+        }
+        int compare = comparator.compare(key, node.key);
+        if (compare < 0) {
+            return balance(node.key, node.value, remove(node.left, key), node.right);
+        }
+        if (compare > 0) {
+            return balance(node.key, node.value, node.left, remove(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<T, R> next = node.right;
+        while (next.left != null) {
+            next = next.left;
+        }
+        return balance(next.key, next.value, node.left, remove(node.right, next.key));
+    }
+
+    /**
+     * Create node and restore AVL balance by rotations.
+     */
+    private Node<T, R> balance(Interval<T> key, R value, Node<T, R> left, Node<T, R> right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = node(left.right.key, left.right.value,
+                        node(left.key, left.value, left.left, left.right.left), left.right.right);
+            }
+            return node(left.key, left.value, left.left, node(key, value, left.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = node(right.left.key, right.left.value, right.left.left,
+                        node(right.key, right.value, right.left.right, right.right));
+            }
+            return node(right.key, right.value, node(key, value, left, right.left), right.right);
+        }
+        return node(key, value, left, right);
+    }
+
+    private Node<T, R> node(Interval<T> key, R value, Node<T, R> left, Node<T, R> right) {
+        R summary = monoid.combine(monoid.combine(summary(left), value), summary(right));
+        return new Node<>(key, value, summary, left, right);
+    }
+
+    private R summary(Node<T, R> node) {
+        return (node == null) ? monoid.identity() : node.summary;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * Immutable node of AVL tree with aggregated value of its subtree.
+     */
+    private static final class Node<T extends Comparable<T>, R> {
+
+        final Interval<T> key;
+        final R value;
+        final R summary;
+        final Node<T, R> left;
+        final Node<T, R> right;
+        final int height;
+
+        Node(Interval<T> key, R value, R summary, Node<T, R> left, Node<T, R> right) {
+            this.key = key;
+            this.value = value;
+            this.summary = summary;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
@@ -0,0 +1,734 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.concurrent.locks.StampedLock;
+import net.adamjak.intervals.Interval.IntevalComparison;
+
+/**
+ * Thread safe version of {@link IntervalsSeries}. Series can be read and
+ * changed by many threads without external synchronization.
+ *
+ * <p>
+ * Writes are done by wrapped {@link IntervalsSeries} under write lock of
+ * {@link StampedLock}, so every write (also compound writes as
+ * {@code insertNew}, {@code erase} or {@code changeEdges}) is atomic and it has
+ * the same rules as in {@code IntervalsSeries}. After the write only the
+ * changed part of sorted arrays of intervals and values is replaced. Reads
+ * search these arrays under optimistic stamp, so they do not block each other
+ * and they are not blocked by writers. If a write is done during the read then
+ * the read is repeated under read lock. Readers never see a state between two
+ * steps of compound write.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see IntervalsSeries
+ */
+public class ConcurrentIntervalsSeries<T extends Comparable<T>, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private final IntervalsSeries<T, V> series = new IntervalsSeries<>();
+    private final Comparator<Interval<T>> comparator = Edges.startOrder();
+    private Interval<T>[] intervals = newArray(DEFAULT_CAPACITY);
+    private Object[] values = new Object[DEFAULT_CAPACITY];
+    private int size = 0;
+    private long version = 0;
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return read(new Query<Integer>() {
+            @Override
+            Integer run(Interval<T>[] intervals, Object[] values, int size) {
+                return size;
+            }
+        });
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the version of this series. Version is changed by every
+     * modification of the series.
+     *
+     * @return the version of this series
+     * @see IntervalsSeries#getVersion()
+     */
+    public long getVersion() {
+        return read(new Query<Long>() {
+            @Override
+            Long run(Interval<T>[] intervals, Object[] values, int size) {
+                return version;
+            }
+        });
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param interval interval whose presence in this series is to be tested
+     * @return true if series contain pair interval-value whit given interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public boolean containsInterval(final Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return read(new Query<Boolean>() {
+            @Override
+            Boolean run(Interval<T>[] intervals, Object[] values, int size) {
+                return Arrays.binarySearch(intervals, 0, size, interval, comparator) >= 0;
+            }
+        });
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param interval the interval whose associated value is to be returned
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public V getValue(final Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return read(new Query<V>() {
+            @Override
+            V run(Interval<T>[] intervals, Object[] values, int size) {
+                int index = Arrays.binarySearch(intervals, 0, size, interval, comparator);
+                return (index < 0) ? null : ConcurrentIntervalsSeries.<V>cast(values[index]);
+            }
+        });
+    }
+
+    /**
+     * Returns a List of the intervals contained in this series sorted by start
+     * edge. List is a copy and it is not changed by next writes.
+     *
+     * @return a sorted List of intervals
+     */
+    public List<Interval<T>> getIntervalsSorted() {
+        return read(new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(Interval<T>[] intervals, Object[] values, int size) {
+                return new ArrayList<>(Arrays.asList(intervals).subList(0, size));
+            }
+        });
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(final Interval<T> interval, final boolean edgesIncluded) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return read(new Query<Boolean>() {
+            @Override
+            Boolean run(Interval<T>[] intervals, Object[] values, int size) {
+                int to = lastNeighbour(intervals, size, interval);
+                for (int i = firstNeighbour(intervals, size, interval); i <= to; i++) {
+                    if (isOverlap(intervals[i], interval, edgesIncluded)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<T>> getOverlapedWith(final Interval<T> interval, final boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return read(new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(Interval<T>[] intervals, Object[] values, int size) {
+                List<Interval<T>> output = new ArrayList<>();
+                int to = lastNeighbour(intervals, size, interval);
+                for (int i = firstNeighbour(intervals, size, interval); i <= to; i++) {
+                    if (isOverlap(intervals[i], interval, includeEdges)) {
+                        output.add(intervals[i]);
+                    }
+                }
+                return output;
+            }
+        });
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<T>> getGaps() {
+        return read(new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(Interval<T>[] intervals, Object[] values, int size) {
+                List<Interval<T>> output = new ArrayList<>();
+                for (int i = 1; i < size; i++) {
+                    if (Edges.compareEndToStart(intervals[i - 1].getEnd(), intervals[i].getStart()) < 0) {
+                        output.add(new Interval<>(intervals[i - 1].getEnd(), intervals[i].getStart()));
+                    }
+                }
+                return output;
+            }
+        });
+    }
+
+    /**
+     * Return interval cretaed from the lowest start edge and the highest end
+     * edge of intervals contained in series.
+     *
+     * @return extent of series or interval (null, null) if series is empty
+     * @see IntervalsSeries#getExtent()
+     */
+    public Interval<T> getExtent() {
+        return read(new Query<Interval<T>>() {
+            @Override
+            Interval<T> run(Interval<T>[] intervals, Object[] values, int size) {
+                if (size == 0) {
+                    return new Interval<>(null, null);
+                }
+                return new Interval<>(intervals[0].getStart(), intervals[size - 1].getEnd());
+            }
+        });
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<T>> getIntervalByPoint(final T point, final boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        final Interval<T> pointInterval = new Interval<>(point, point);
+        return read(new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(Interval<T>[] intervals, Object[] values, int size) {
+                List<Interval<T>> output = new ArrayList<>();
+                int to = lastNeighbour(intervals, size, pointInterval);
+                for (int i = firstNeighbour(intervals, size, pointInterval); i <= to; i++) {
+                    Interval.PositionAgainstInterval position = intervals[i].positionAgainstInterval(point);
+                    if (position == Interval.PositionAgainstInterval.Between) {
+                        output.add(intervals[i]);
+                        return output;
+                    }
+                    if (includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd)) {
+                        output.add(intervals[i]);
+                    }
+                }
+                return output;
+            }
+        });
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(final T point, final boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        final Interval<T> pointInterval = new Interval<>(point, point);
+        return read(new Query<V>() {
+            @Override
+            V run(Interval<T>[] intervals, Object[] values, int size) {
+                int to = lastNeighbour(intervals, size, pointInterval);
+                for (int i = firstNeighbour(intervals, size, pointInterval); i <= to; i++) {
+                    Interval.PositionAgainstInterval position = intervals[i].positionAgainstInterval(point);
+                    if (position == Interval.PositionAgainstInterval.Between
+                            || (includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd))) {
+                        return ConcurrentIntervalsSeries.<V>cast(values[i]);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Create copy of this series as {@link IntervalsSeries}. Copy is consistent
+     * snapshot of the series.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<T, V> toIntervalsSeries() {
+        long stamp = lock.readLock();
+        try {
+            IntervalsSeries<T, V> output = new IntervalsSeries<>();
+            output.putAll(series.navigablePairs());
+            return output;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Put new pair (interval - value) into series.
+     *
+     * @param interval interval with which the specified value is to be
+     * associated
+     * @param value value to be associated with the specified interval
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval or value is null
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @see IntervalsSeries#putValue(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public V putValue(Interval<T> interval, V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Interval<T> from = lowerBound(interval);
+            try {
+                return series.putValue(interval, value);
+            } finally {
+                update(from, interval.getEnd());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Put all pairs from given map into series atomically.
+     *
+     * @param pairs map with intervals and values to be put into series
+     * @throws ArgumentNullException if pairs, an interval or a value is null
+     * @throws IllegalOvelapException if two given intervals overlap or a given
+     * interval overlaps another interval in series
+     * @see IntervalsSeries#putAll(java.util.Map)
+     */
+    public void putAll(Map<Interval<T>, ? extends V> pairs) {
+        long stamp = lock.writeLock();
+        try {
+            try {
+                series.putAll(pairs);
+            } finally {
+                updateAll();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove specified interval and associated value from this series if
+     * present.
+     *
+     * @param interval interval whose mapping is to be removed from the series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval is null
+     */
+    public V remove(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Interval<T> from = lowerBound(interval);
+            try {
+                return series.remove(interval);
+            } finally {
+                update(from, interval.getEnd());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove all pair interval - value from this series
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            try {
+                series.clear();
+            } finally {
+                updateAll();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Safely changes the edges of interval. Change is atomic.
+     *
+     * @param oldInterval current interval
+     * @param newInterval new interval
+     * @return true if opertion is done with change edges, otherwise false
+     * @throws ArgumentNullException if oldInterval or newInterval is null
+     * @see IntervalsSeries#changeEdges(net.adamjak.intervals.Interval, net.adamjak.intervals.Interval)
+     */
+    public boolean changeEdges(Interval<T> oldInterval, Interval<T> newInterval) {
+        if (oldInterval == null) {
+            throw new ArgumentNullException("oldInterval can not be null", "oldInterval");
+        }
+        if (newInterval == null) {
+            throw new ArgumentNullException("newInterval can not be null", "newInterval");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Interval<T> oldFrom = lowerBound(oldInterval);
+            Interval<T> newFrom = lowerBound(newInterval);
+            try {
+                return series.changeEdges(oldInterval, newInterval);
+            } finally {
+                update((oldFrom == null || newFrom == null) ? null : (comparator.compare(oldFrom, newFrom) < 0 ? oldFrom : newFrom),
+                        Edges.compareEnds(oldInterval.getEnd(), newInterval.getEnd()) > 0 ? oldInterval.getEnd() : newInterval.getEnd());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Insert new pair interval-value into series. Erase and put are done
+     * atomically.
+     *
+     * @param interval interval to insert
+     * @param value value maped with interval
+     * @throws ArgumentNullException if interval or value is null
+     * @see IntervalsSeries#insertNew(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public void insertNew(Interval<T> interval, V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Interval<T> from = lowerBound(interval);
+            try {
+                series.insertNew(interval, value);
+            } finally {
+                update(from, interval.getEnd());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Make gap in series atomically.
+     *
+     * @param eraseInterval interval to make gap
+     * @throws ArgumentNullException if eraseInterval is null
+     * @see IntervalsSeries#erase(net.adamjak.intervals.Interval)
+     */
+    public void erase(Interval<T> eraseInterval) {
+        if (eraseInterval == null) {
+            throw new ArgumentNullException("Interval can not be null", "eraseInterval");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Interval<T> from = lowerBound(eraseInterval);
+            try {
+                series.erase(eraseInterval);
+            } finally {
+                update(from, eraseInterval.getEnd());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Insert all given pairs atomically.
+     *
+     * @param pairs map with intervals and values to be inserted
+     * @see IntervalsSeries#insertNewAll(java.util.Map)
+     */
+    public void insertNewAll(Map<Interval<T>, ? extends V> pairs) {
+        long stamp = lock.writeLock();
+        try {
+            try {
+                series.insertNewAll(pairs);
+            } finally {
+                updateAll();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Make gaps by all given intervals atomically.
+     *
+     * @param eraseIntervals intervals to make gaps
+     * @see IntervalsSeries#eraseAll(java.util.Collection)
+     */
+    public void eraseAll(Collection<Interval<T>> eraseIntervals) {
+        long stamp = lock.writeLock();
+        try {
+            try {
+                series.eraseAll(eraseIntervals);
+            } finally {
+                updateAll();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Run query under optimistic stamp, if the stamp is not valid then run it
+     * again under read lock. Query can see inconsistent arrays under optimistic
+     * stamp, exception thrown in that case is ignored.
+     */
+    private <R> R read(Query<R> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Interval<T>[] currentIntervals = intervals;
+                Object[] currentValues = values;
+                int currentSize = Math.min(size, Math.min(currentIntervals.length, currentValues.length));
+                R output = query.run(currentIntervals, currentValues, currentSize);
+                if (lock.validate(stamp)) {
+                    return output;
+                }
+            } catch (RuntimeException ex) {
+                // inconsistent state, query is repeated under read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return query.run(intervals, values, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Return the interval before all intervals that can be changed by write of
+     * given interval or null if all intervals from the first one can be
+     * changed. It must be called under write lock before the write.
+     */
+    private Interval<T> lowerBound(Interval<T> interval) {
+        if (interval.isInfiniteStart()) {
+            return null;
+        }
+        int index = lastIndex(intervals, size, new Interval<>(interval.getStart(), interval.getStart()), false);
+        return (index < 0) ? null : intervals[index];
+    }
+
+    /**
+     * Replace part of arrays with intervals whose start edge is between start
+     * edge of from (inclusive, null means the first interval) and given end
+     * edge (inclusive, null means infinity) by pairs of wrapped series.
+     */
+    private void update(Interval<T> from, T end) {
+        NavigableMap<Interval<T>, V> pairs = series.navigablePairs();
+        int first = 0;
+        if (from != null && from.isInfiniteStart() == false) {
+            first = startIndex(from.getStart(), false);
+            pairs = pairs.tailMap(new Interval<>(from.getStart(), from.getStart()), true);
+        }
+        int last = size;
+        if (end != null) {
+            last = startIndex(end, true);
+            pairs = pairs.headMap(new Interval<T>(end, null), true);
+        }
+        int count = pairs.size();
+        int newSize = size - (last - first) + count;
+        ensureCapacity(newSize);
+        System.arraycopy(intervals, last, intervals, first + count, size - last);
+        System.arraycopy(values, last, values, first + count, size - last);
+        int index = first;
+        for (Entry<Interval<T>, V> pair : pairs.entrySet()) {
+            intervals[index] = pair.getKey();
+            values[index++] = pair.getValue();
+        }
+        for (int i = newSize; i < size; i++) {
+            intervals[i] = null;
+            values[i] = null;
+        }
+        size = newSize;
+        version = series.getVersion();
+    }
+
+    private void updateAll() {
+        update(null, null);
+    }
+
+    /**
+     * Position of the first interval whose start edge is higher or equal (or
+     * higher if upper is true) than given start edge.
+     */
+    private int startIndex(T start, boolean upper) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = Edges.compareStarts(intervals[middle].getStart(), start);
+            if (compare < 0 || (upper && compare == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= intervals.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, intervals.length + (intervals.length >> 1));
+        intervals = Arrays.copyOf(intervals, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    /**
+     * Position of the first interval that can overlap given interval, it is
+     * the same as the first neighbour in {@code IntervalsSeries}.
+     */
+    private int firstNeighbour(Interval<T>[] intervals, int size, Interval<T> interval) {
+        if (interval.isInfiniteStart()) {
+            return 0;
+        }
+        return Math.max(lastIndex(intervals, size, new Interval<>(interval.getStart(), interval.getStart()), false), 0);
+    }
+
+    /**
+     * Position of the last interval that can overlap given interval.
+     */
+    private int lastNeighbour(Interval<T>[] intervals, int size, Interval<T> interval) {
+        if (interval.isInfiniteEnd()) {
+            return size - 1;
+        }
+        return lastIndex(intervals, size, new Interval<T>(interval.getEnd(), null), true);
+    }
+
+    /**
+     * Position of the last interval lower (or lower or equal if inclusive is
+     * true) than given interval or -1.
+     */
+    private int lastIndex(Interval<T>[] intervals, int size, Interval<T> interval, boolean inclusive) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = comparator.compare(intervals[middle], interval);
+            if (compare < 0 || (inclusive && compare == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    private static <T extends Comparable<T>> boolean isOverlap(Interval<T> in, Interval<T> interval, boolean includeEdges) {
+        if (includeEdges) {
+            return in.compareToOther(interval).isIn(IntevalComparison.AfterAfter, IntevalComparison.BeforeBefore) == false;
+        }
+        return in.isOverlap(interval);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object value) {
+        return (V) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> Interval<T>[] newArray(int length) {
+        return (Interval<T>[]) new Interval<?>[length];
+    }
+
+    /**
+     * Read operation over sorted arrays of intervals and values.
+     */
+    private abstract class Query<R> {
+
+        abstract R run(Interval<T>[] intervals, Object[] values, int size);
+    }
+}
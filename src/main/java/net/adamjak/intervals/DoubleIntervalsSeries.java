@@ -0,0 +1,706 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import net.adamjak.intervals.Interval.PositionAgainstInterval;
+
+/**
+ * Class represents collection of intervals with primitive {@code double} edges
+ * and values related to them (e.g. measurement or calibration ranges). It is
+ * specialized version of {@code IntervalsSeries<Double, V>} with the same
+ * rules: registered intervals must not overlap, but they can touch at edges.
+ *
+ * <p>
+ * Edges are stored in parallel arrays {@code double[]} sorted by start edge,
+ * lookups use binary search and lengths are computed as primitive numbers.
+ * Edges are handled in this way:
+ * </p>
+ * <ul>
+ * <li>infinite start edge is {@code Double.NEGATIVE_INFINITY} and infinite end
+ * edge is {@code Double.POSITIVE_INFINITY}, they are converted to null edges of
+ * {@code Interval<Double>} and back</li>
+ * <li>{@code Double.NaN} is not allowed as edge or point,
+ * {@link IllegalArgumentException} is thrown</li>
+ * <li>interval can not start at positive infinity and it can not end at
+ * negative infinity, {@link IllegalArgumentException} is thrown</li>
+ * <li>negative zero is stored as positive zero</li>
+ * </ul>
+ *
+ * @author Marian Adamjak
+ * @param <V> type of values
+ * @see IntervalsSeries
+ * @see LongIntervalsSeries
+ */
+public class DoubleIntervalsSeries<V> {
+
+    private final PrimitivePairs<double[]> arrays = new PrimitivePairs<>(double.class);
+
+    /**
+     * Create series from series with {@code Double} edges. Null edges are
+     * converted to infinite edges.
+     *
+     * @param <V> type of values
+     * @param series input series
+     * @return new series with the same pairs
+     * @throws ArgumentNullException if series is null
+     * @throws IllegalArgumentException if an edge is NaN
+     */
+    public static <V> DoubleIntervalsSeries<V> fromIntervalsSeries(IntervalsSeries<Double, V> series) {
+        if (series == null) {
+            throw new ArgumentNullException("Series can not be null", "series");
+        }
+        DoubleIntervalsSeries<V> output = new DoubleIntervalsSeries<>();
+        output.arrays.ensureCapacity(series.size());
+        for (Entry<Interval<Double>, V> pair : series.getPairs()) {
+            Interval<Double> interval = pair.getKey();
+            double start = interval.isInfiniteStart() ? Double.NEGATIVE_INFINITY : interval.getStart();
+            double end = interval.isInfiniteEnd() ? Double.POSITIVE_INFINITY : interval.getEnd();
+            checkEdge(start, "start");
+            checkEdge(end, "end");
+            output.arrays.starts[output.arrays.size] = normalize(start);
+            output.arrays.ends[output.arrays.size] = normalize(end);
+            output.arrays.values[output.arrays.size] = pair.getValue();
+            output.arrays.size++;
+        }
+        return output;
+    }
+
+    /**
+     * Convert series to series with {@code Double} edges. Infinite edges are
+     * converted to null.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<Double, V> toIntervalsSeries() {
+        Map<Interval<Double>, V> pairs = new HashMap<>();
+        for (int i = 0; i < arrays.size; i++) {
+            pairs.put(getInterval(i), getValueAt(i));
+        }
+        IntervalsSeries<Double, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    /**
+     * Convert primitive edges to interval with {@code Double} edges. Infinite
+     * edges are converted to null.
+     *
+     * @param start start edge
+     * @param end end edge
+     * @return new interval
+     * @throws IllegalArgumentException if an edge is NaN
+     */
+    public static Interval<Double> toInterval(double start, double end) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        double low = Math.min(start, end);
+        double high = Math.max(start, end);
+        return new Interval<>(low == Double.NEGATIVE_INFINITY ? null : low, high == Double.POSITIVE_INFINITY ? null : high);
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return arrays.size;
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return arrays.size == 0;
+    }
+
+    /**
+     * Returns the version of this series. Version is changed by every
+     * modification of the series.
+     *
+     * @return the version of this series
+     * @see IntervalsSeries#getVersion()
+     */
+    public long getVersion() {
+        return arrays.version;
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @return true if series contain pair interval-value whit given interval
+     * @throws IllegalArgumentException if an edge is NaN
+     */
+    public boolean containsInterval(double start, double end) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        return indexOf(normalize(Math.min(start, end)), normalize(Math.max(start, end))) >= 0;
+    }
+
+    /**
+     * Returns true if this series has one or more intervals with the specified
+     * value.
+     *
+     * @param value value whose presence in this series is to be tested
+     * @return true if this series has one or more intervals with the specified
+     * value
+     */
+    public boolean containsValue(V value) {
+        for (int i = 0; i < arrays.size; i++) {
+            if (Objects.equals(arrays.values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws IllegalArgumentException if an edge is NaN
+     */
+    public V getValue(double start, double end) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        int index = indexOf(normalize(Math.min(start, end)), normalize(Math.max(start, end)));
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Return start edge of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return start edge
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public double getStart(int index) {
+        arrays.checkIndex(index);
+        return arrays.starts[index];
+    }
+
+    /**
+     * Return end edge of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return end edge
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public double getEnd(int index) {
+        arrays.checkIndex(index);
+        return arrays.ends[index];
+    }
+
+    /**
+     * Return length of interval of pair on given position. If one of edges is
+     * infinite then {@code Double.POSITIVE_INFINITY} is returned.
+     *
+     * @param index position of pair
+     * @return length of interval
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public double getLength(int index) {
+        arrays.checkIndex(index);
+        return arrays.ends[index] - arrays.starts[index];
+    }
+
+    /**
+     * Return interval of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return interval, infinite edges are converted to null
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Interval<Double> getInterval(int index) {
+        arrays.checkIndex(index);
+        return toInterval(arrays.starts[index], arrays.ends[index]);
+    }
+
+    /**
+     * Return value of pair on given position. Pairs are sorted by start edge.
+     *
+     * @param index position of pair
+     * @return value
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public V getValueAt(int index) {
+        arrays.checkIndex(index);
+        return (V) arrays.values[index];
+    }
+
+    /**
+     * Put new pair (interval - value) into series. If there is pair with given
+     * interval in the series then value will be replaced by given value. If
+     * there is inetrval in series overlaped given interval then
+     * {@link IllegalOvelapException} will be thrown.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @param value value to be associated with the specified interval
+     * @throws ArgumentNullException if value is null
+     * @throws IllegalArgumentException if an edge is NaN or if interval starts
+     * at positive infinity or ends at negative infinity
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     */
+    public V putValue(double start, double end, V value) {
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        checkInterval(start, end);
+        double low = normalize(Math.min(start, end));
+        double high = normalize(Math.max(start, end));
+        int index = indexOf(low, high);
+        if (index >= 0) {
+            V output = getValueAt(index);
+            arrays.values[index] = value;
+            arrays.version++;
+            return output;
+        }
+        int first = PrimitivePairs.upperBound(arrays.ends, arrays.size, low);
+        if (first < PrimitivePairs.lowerBound(arrays.starts, arrays.size, high)) {
+            throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series",
+                    toInterval(low, high), getInterval(first));
+        }
+        index = PrimitivePairs.lowerBound(arrays.starts, arrays.size, low);
+        while (index < arrays.size && arrays.starts[index] == low && arrays.ends[index] < high) {
+            index++;
+        }
+        arrays.insert(index);
+        arrays.starts[index] = low;
+        arrays.ends[index] = high;
+        arrays.values[index] = value;
+        return null;
+    }
+
+    /**
+     * Remove specified interval and associated value from this series if
+     * present.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws IllegalArgumentException if an edge is NaN
+     */
+    public V remove(double start, double end) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        int index = indexOf(normalize(Math.min(start, end)), normalize(Math.max(start, end)));
+        if (index < 0) {
+            return null;
+        }
+        V output = getValueAt(index);
+        arrays.replace(index, index + 1, null, null, null, 0);
+        return output;
+    }
+
+    /**
+     * Remove all pair interval - value from this series
+     */
+    public void clear() {
+        arrays.clear();
+    }
+
+    /**
+     * Returns a sorted List of the intervals contained in this series.
+     *
+     * @return a List of intervals sorted by start edge, infinite edges are
+     * converted to null
+     */
+    public List<Interval<Double>> getIntervals() {
+        List<Interval<Double>> output = new ArrayList<>(arrays.size);
+        for (int i = 0; i < arrays.size; i++) {
+            output.add(toInterval(arrays.starts[i], arrays.ends[i]));
+        }
+        return output;
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws IllegalArgumentException if an edge is NaN
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(double start, double end, boolean edgesIncluded) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        return firstOverlaped(Math.min(start, end), edgesIncluded) < lastOverlaped(Math.max(start, end), edgesIncluded);
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws IllegalArgumentException if an edge is NaN
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<Double>> getOverlapedWith(double start, double end, boolean includeEdges) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        int first = firstOverlaped(Math.min(start, end), includeEdges);
+        int last = lastOverlaped(Math.max(start, end), includeEdges);
+        List<Interval<Double>> output = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            output.add(toInterval(arrays.starts[i], arrays.ends[i]));
+        }
+        return output;
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<Double>> getGaps() {
+        List<Interval<Double>> output = new ArrayList<>();
+        for (int i = 1; i < arrays.size; i++) {
+            if (arrays.ends[i - 1] < arrays.starts[i]) {
+                output.add(toInterval(arrays.ends[i - 1], arrays.starts[i]));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return the lowest start edge of all intervals contained in series. If
+     * series is empty then {@code Double.NEGATIVE_INFINITY} is returned.
+     *
+     * @return the lowest start edge of all intervals contained in series.
+     */
+    public double getStartMinimum() {
+        return isEmpty() ? Double.NEGATIVE_INFINITY : arrays.starts[0];
+    }
+
+    /**
+     * Return the lowest end edge of all intervals contained in series. If
+     * series is empty then {@code Double.POSITIVE_INFINITY} is returned.
+     *
+     * @return the lowest end edge of all intervals contained in series.
+     */
+    public double getEndMinimum() {
+        return isEmpty() ? Double.POSITIVE_INFINITY : arrays.ends[0];
+    }
+
+    /**
+     * Return the highest start edge of all intervals contained in series. If
+     * series is empty then {@code Double.NEGATIVE_INFINITY} is returned.
+     *
+     * @return the highest start edge of all intervals contained in series.
+     */
+    public double getStartMaximum() {
+        return isEmpty() ? Double.NEGATIVE_INFINITY : arrays.starts[arrays.size - 1];
+    }
+
+    /**
+     * Return the highest end edge of all intervals contained in series. If
+     * series is empty then {@code Double.POSITIVE_INFINITY} is returned.
+     *
+     * @return the highest end edge of all intervals contained in series.
+     */
+    public double getEndMaximum() {
+        return isEmpty() ? Double.POSITIVE_INFINITY : arrays.ends[arrays.size - 1];
+    }
+
+    /**
+     * Return interval cretaed from getStartMinimum and getEndMaximum.
+     *
+     * @return interval cretaed from getStartMinimum and getEndMaximum.
+     */
+    public Interval<Double> getExtent() {
+        return toInterval(getStartMinimum(), getEndMaximum());
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws IllegalArgumentException if point is NaN
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<Double>> getIntervalByPoint(double point, boolean includeEdge) {
+        checkEdge(point, "point");
+        List<Interval<Double>> output = new ArrayList<>();
+        for (int i = PrimitivePairs.lowerBound(arrays.ends, arrays.size, point); i < arrays.size && arrays.starts[i] <= point; i++) {
+            PositionAgainstInterval position = positionAgainstInterval(arrays.starts[i], arrays.ends[i], point);
+            if (position == PositionAgainstInterval.Between) {
+                output.add(toInterval(arrays.starts[i], arrays.ends[i]));
+                return output;
+            }
+            if (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd)) {
+                output.add(toInterval(arrays.starts[i], arrays.ends[i]));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Find position of pair whose interval contains specified point. If more
+     * intervals contain the point then position of the lower one is returned.
+     * Method does not create any object.
+     *
+     * @param point The point that is used to find pair
+     * @param includeEdge if it is true then edges are included into test.
+     * @return position of found pair or -1 if no interval contains the point
+     * @throws IllegalArgumentException if point is NaN
+     */
+    public int indexOfPoint(double point, boolean includeEdge) {
+        checkEdge(point, "point");
+        for (int i = PrimitivePairs.lowerBound(arrays.ends, arrays.size, point); i < arrays.size && arrays.starts[i] <= point; i++) {
+            PositionAgainstInterval position = positionAgainstInterval(arrays.starts[i], arrays.ends[i], point);
+            if (position == PositionAgainstInterval.Between
+                    || (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point. Method
+     * does not create any object.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws IllegalArgumentException if point is NaN
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(double point, boolean includeEdge) {
+        int index = indexOfPoint(point, includeEdge);
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Return sum of all lengths of intervals. If one of interval has infinity
+     * edge, then {@code Double.POSITIVE_INFINITY} is returned. If series is
+     * empty then 0 is returned.
+     *
+     * @return sum of all lengths of intervals
+     */
+    public double getTotalLength() {
+        double output = 0;
+        for (int i = 0; i < arrays.size; i++) {
+            output += arrays.ends[i] - arrays.starts[i];
+        }
+        return output;
+    }
+
+    /**
+     * Safely changes the edges of interval.
+     *
+     * @param oldInterval current interval, null edges represent infinity
+     * @param newInterval new interval, null edges represent infinity
+     * @return true if opertion is done with change edges, otherwise false
+     * @throws ArgumentNullException if oldInterval or newInterval is null
+     * @see IntervalsSeries#changeEdges(net.adamjak.intervals.Interval, net.adamjak.intervals.Interval)
+     */
+    public boolean changeEdges(Interval<Double> oldInterval, Interval<Double> newInterval) {
+        if (oldInterval == null) {
+            throw new ArgumentNullException("oldInterval can not be null", "oldInterval");
+        }
+        if (newInterval == null) {
+            throw new ArgumentNullException("newInterval can not be null", "newInterval");
+        }
+        double oldStart = oldInterval.isInfiniteStart() ? Double.NEGATIVE_INFINITY : oldInterval.getStart();
+        double oldEnd = oldInterval.isInfiniteEnd() ? Double.POSITIVE_INFINITY : oldInterval.getEnd();
+        double newStart = newInterval.isInfiniteStart() ? Double.NEGATIVE_INFINITY : newInterval.getStart();
+        double newEnd = newInterval.isInfiniteEnd() ? Double.POSITIVE_INFINITY : newInterval.getEnd();
+        checkInterval(newStart, newEnd);
+        if (containsInterval(oldStart, oldEnd) == false) {
+            return false;
+        }
+        V value = remove(oldStart, oldEnd);
+        if (isOverlapWith(newStart, newEnd, false)) {
+            putValue(oldStart, oldEnd, value);
+            return false;
+        } else {
+            putValue(newStart, newEnd, value);
+            return true;
+        }
+    }
+
+    /**
+     * Insert new pair interval-value into series. Erase method with specified
+     * interval is called before. New pair is put into created gap.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @param value value maped with interval
+     * @throws ArgumentNullException if value is null
+     * @throws IllegalArgumentException if an edge is NaN or if interval starts
+     * at positive infinity or ends at negative infinity
+     */
+    public void insertNew(double start, double end, V value) {
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        checkInterval(start, end);
+        erase(start, end);
+        putValue(start, end, value);
+    }
+
+    /**
+     * Make gap in series. Interval that is fully overlaped by specified
+     * interval will be removed. If the interval is overlaped partialy then its
+     * edges will be chenaged properly.
+     *
+     * @param start start edge of interval to make gap
+     * @param end end edge of interval to make gap
+     * @throws IllegalArgumentException if an edge is NaN
+     * @see IntervalsSeries#erase(net.adamjak.intervals.Interval)
+     */
+    public void erase(double start, double end) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        double low = normalize(Math.min(start, end));
+        double high = normalize(Math.max(start, end));
+        int first = firstOverlaped(low, false);
+        int last = lastOverlaped(high, false);
+        if (first >= last) {
+            return;
+        }
+        int count = 0;
+        double[] newStarts = new double[last - first + 2];
+        double[] newEnds = new double[last - first + 2];
+        Object[] newValues = new Object[last - first + 2];
+        for (int i = first; i < last; i++) {
+            if (Math.max(arrays.starts[i], low) == Math.min(arrays.ends[i], high)) {
+                newStarts[count] = arrays.starts[i];
+                newEnds[count] = arrays.ends[i];
+                newValues[count++] = arrays.values[i];
+                continue;
+            }
+            if (arrays.starts[i] < low) {
+                newStarts[count] = arrays.starts[i];
+                newEnds[count] = low;
+                newValues[count++] = arrays.values[i];
+            }
+            if (high < arrays.ends[i]) {
+                newStarts[count] = high;
+                newEnds[count] = arrays.ends[i];
+                newValues[count++] = arrays.values[i];
+            }
+        }
+        arrays.replace(first, last, newStarts, newEnds, newValues, count);
+    }
+
+    private int indexOf(double start, double end) {
+        for (int i = PrimitivePairs.lowerBound(arrays.starts, arrays.size, start); i < arrays.size && arrays.starts[i] == start; i++) {
+            if (arrays.ends[i] == end) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Position of the first pair that overlaps interval with given start edge.
+     */
+    private int firstOverlaped(double start, boolean includeEdges) {
+        return includeEdges ? PrimitivePairs.lowerBound(arrays.ends, arrays.size, start) : PrimitivePairs.upperBound(arrays.ends, arrays.size, start);
+    }
+
+    /**
+     * Position after the last pair that overlaps interval with given end edge.
+     */
+    private int lastOverlaped(double end, boolean includeEdges) {
+        return includeEdges ? PrimitivePairs.upperBound(arrays.starts, arrays.size, end) : PrimitivePairs.lowerBound(arrays.starts, arrays.size, end);
+    }
+
+    private static void checkEdge(double edge, String name) {
+        if (Double.isNaN(edge)) {
+            throw new IllegalArgumentException("Value of " + name + " can not be NaN");
+        }
+    }
+
+    private static void checkInterval(double start, double end) {
+        checkEdge(start, "start");
+        checkEdge(end, "end");
+        if (Math.min(start, end) == Double.POSITIVE_INFINITY || Math.max(start, end) == Double.NEGATIVE_INFINITY) {
+            throw new IllegalArgumentException("Interval can not start at positive infinity or end at negative infinity");
+        }
+    }
+
+    /**
+     * Replace negative zero by positive zero.
+     */
+    private static double normalize(double edge) {
+        return edge + 0.0;
+    }
+
+    private static PositionAgainstInterval positionAgainstInterval(double start, double end, double position) {
+        if (position < start) {
+            return PositionAgainstInterval.Before;
+        } else if (start == end && position == start) {
+            return PositionAgainstInterval.Between;
+        } else if (position == start) {
+            return PositionAgainstInterval.AtStart;
+        } else if (position < end) {
+            return PositionAgainstInterval.Between;
+        } else if (position == end) {
+            return PositionAgainstInterval.AtEnd;
+        } else {
+            return PositionAgainstInterval.After;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class converts edges of intervals to fixed-width keys and back. Keys are
+ * signed numbers ordered in the same way as edges, so edges can be compared
+ * and searched without decoding. Codec reserves the lowest key for infinite
+ * start edge and the highest key for infinite end edge, these keys can not be
+ * used by finite edges.
+ *
+ * <p>
+ * Codecs for {@code Long}, {@code Integer} and {@code Double} edges are
+ * provided:
+ * </p>
+ * <ul>
+ * <li>{@link #LONG} - 8 bytes, {@code Long.MIN_VALUE} and
+ * {@code Long.MAX_VALUE} are reserved</li>
+ * <li>{@link #INTEGER} - 4 bytes, {@code Integer.MIN_VALUE} and
+ * {@code Integer.MAX_VALUE} are reserved</li>
+ * <li>{@link #DOUBLE} - 8 bytes, NaN and infinities are not allowed (null is
+ * used for infinite edges), negative zero is encoded as positive zero</li>
+ * </ul>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @see OffHeapIntervalsSeries
+ */
+public abstract class EdgeCodec<T extends Comparable<T>> {
+
+    /**
+     * Codec for {@code Long} edges.
+     */
+    public static final EdgeCodec<Long> LONG = new EdgeCodec<Long>(8, Long.MIN_VALUE, Long.MAX_VALUE) {
+        @Override
+        long encodeEdge(Long edge) {
+            return edge;
+        }
+
+        @Override
+        Long decodeEdge(long key) {
+            return key;
+        }
+    };
+
+    /**
+     * Codec for {@code Integer} edges.
+     */
+    public static final EdgeCodec<Integer> INTEGER = new EdgeCodec<Integer>(4, Integer.MIN_VALUE, Integer.MAX_VALUE) {
+        @Override
+        long encodeEdge(Integer edge) {
+            return edge;
+        }
+
+        @Override
+        Integer decodeEdge(long key) {
+            return (int) key;
+        }
+    };
+
+    /**
+     * Codec for {@code Double} edges.
+     */
+    public static final EdgeCodec<Double> DOUBLE = new EdgeCodec<Double>(8, Long.MIN_VALUE, Long.MAX_VALUE) {
+        @Override
+        long encodeEdge(Double edge) {
+            if (edge.isNaN()) {
+                throw new IllegalArgumentException("Edge can not be NaN");
+            }
+            if (edge.isInfinite()) {
+                throw new IllegalArgumentException("Edge can not be infinite, null is used for infinite edges");
+            }
+            long bits = Double.doubleToLongBits(edge + 0.0);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+
+        @Override
+        Double decodeEdge(long key) {
+            return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+    };
+
+    private final int width;
+    private final long infiniteStartKey;
+    private final long infiniteEndKey;
+
+    EdgeCodec(int width, long infiniteStartKey, long infiniteEndKey) {
+        this.width = width;
+        this.infiniteStartKey = infiniteStartKey;
+        this.infiniteEndKey = infiniteEndKey;
+    }
+
+    abstract long encodeEdge(T edge);
+
+    abstract T decodeEdge(long key);
+
+    /**
+     * Return number of bytes used by one edge.
+     *
+     * @return number of bytes used by one edge
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Return key that represents infinite start edge.
+     *
+     * @return key that represents infinite start edge
+     */
+    public long getInfiniteStartKey() {
+        return infiniteStartKey;
+    }
+
+    /**
+     * Return key that represents infinite end edge.
+     *
+     * @return key that represents infinite end edge
+     */
+    public long getInfiniteEndKey() {
+        return infiniteEndKey;
+    }
+
+    /**
+     * Convert finite edge (or point) to key.
+     *
+     * @param edge edge to convert
+     * @return key of edge
+     * @throws ArgumentNullException if edge is null
+     * @throws IllegalArgumentException if edge can not be encoded or if its
+     * key is reserved for infinite edges
+     */
+    public long encode(T edge) {
+        if (edge == null) {
+            throw new ArgumentNullException("Edge can not be null", "edge");
+        }
+        long key = encodeEdge(edge);
+        if (key == infiniteStartKey || key == infiniteEndKey) {
+            throw new IllegalArgumentException("Edge " + edge + " is reserved for infinite edges");
+        }
+        return key;
+    }
+
+    /**
+     * Convert start edge to key, null is converted to infinite start key.
+     *
+     * @param edge start edge to convert
+     * @return key of edge
+     */
+    public long encodeStart(T edge) {
+        return (edge == null) ? infiniteStartKey : encode(edge);
+    }
+
+    /**
+     * Convert end edge to key, null is converted to infinite end key.
+     *
+     * @param edge end edge to convert
+     * @return key of edge
+     */
+    public long encodeEnd(T edge) {
+        return (edge == null) ? infiniteEndKey : encode(edge);
+    }
+
+    /**
+     * Convert key to start edge, infinite start key is converted to null.
+     *
+     * @param key key to convert
+     * @return start edge
+     */
+    public T decodeStart(long key) {
+        return (key == infiniteStartKey) ? null : decodeEdge(key);
+    }
+
+    /**
+     * Convert key to end edge, infinite end key is converted to null.
+     *
+     * @param key key to convert
+     * @return end edge
+     */
+    public T decodeEnd(long key) {
+        return (key == infiniteEndKey) ? null : decodeEdge(key);
+    }
+
+    long read(ByteBuffer buffer, int index) {
+        return (width == 4) ? buffer.getInt(index << 2) : buffer.getLong(index << 3);
+    }
+
+    void write(ByteBuffer buffer, int index, long key) {
+        if (width == 4) {
+            buffer.putInt(index << 2, (int) key);
+        } else {
+            buffer.putLong(index << 3, key);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.Comparator;
+
+/**
+ * Helper methods to compare edges of intervals. Infinite start edge (null) is
+ * lower than any other start edge and infinite end edge (null) is higher than
+ * any other end edge.
+ *
+ * @author Marian Adamjak
+ */
+final class Edges {
+
+    private Edges() {
+    }
+
+    /**
+     * Compare two start edges, null represents negative infinity.
+     *
+     * @param <T> type of edges
+     * @param start1 first start edge
+     * @param start2 second start edge
+     * @return negative number, zero or positive number as the first start edge
+     * is lower, equal or higher than second start edge
+     */
+    static <T extends Comparable<T>> int compareStarts(T start1, T start2) {
+        if (start1 == null) {
+            return (start2 == null) ? 0 : -1;
+        }
+        if (start2 == null) {
+            return 1;
+        }
+        return start1.compareTo(start2);
+    }
+
+    /**
+     * Compare two end edges, null represents positive infinity.
+     *
+     * @param <T> type of edges
+     * @param end1 first end edge
+     * @param end2 second end edge
+     * @return negative number, zero or positive number as the first end edge
+     * is lower, equal or higher than second end edge
+     */
+    static <T extends Comparable<T>> int compareEnds(T end1, T end2) {
+        if (end1 == null) {
+            return (end2 == null) ? 0 : 1;
+        }
+        if (end2 == null) {
+            return -1;
+        }
+        return end1.compareTo(end2);
+    }
+
+    /**
+     * Compare end edge of one interval with start edge of another interval.
+     * Infinite end edge is higher than any start edge and infinite start edge
+     * is lower than any end edge.
+     *
+     * @param <T> type of edges
+     * @param end end edge, null represents positive infinity
+     * @param start start edge, null represents negative infinity
+     * @return negative number, zero or positive number as the end edge is
+     * lower, equal or higher than start edge
+     */
+    static <T extends Comparable<T>> int compareEndToStart(T end, T start) {
+        if (end == null || start == null) {
+            return 1;
+        }
+        return end.compareTo(start);
+    }
+
+    /**
+     * Return number that represents given edge, it is used to compute length
+     * between edges.
+     *
+     * @param edge edge that is instance of Number or Measurable
+     * @return number that represents edge
+     * @throws UnsupportedOperationException if edge is not instance of Number
+     * or Measurable
+     */
+    static double metrics(Object edge) {
+        if (edge instanceof Number) {
+            return ((Number) edge).doubleValue();
+        }
+        if (edge instanceof Measurable) {
+            return ((Measurable) edge).getMetricsAsDouble();
+        }
+        throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+    }
+
+    /**
+     * Return long number that represents given edge. Integral numbers are
+     * used without conversion to double, so they do not lose precision.
+     *
+     * @param edge edge that is integral number or Measurable
+     * @return long number that represents edge
+     * @throws UnsupportedOperationException if edge is not integral number or
+     * Measurable
+     */
+    static long longMetrics(Object edge) {
+        if (isIntegral(edge)) {
+            return ((Number) edge).longValue();
+        }
+        if (edge instanceof Measurable) {
+            return ((Measurable) edge).getMetricsAsLong();
+        }
+        throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+    }
+
+    /**
+     * Return true if edge is Long, Integer, Short or Byte.
+     *
+     * @param edge tested edge
+     * @return true if edge is integral number
+     */
+    static boolean isIntegral(Object edge) {
+        return edge instanceof Long || edge instanceof Integer || edge instanceof Short || edge instanceof Byte;
+    }
+
+    /**
+     * Return true if length between edges of given type can be computed.
+     *
+     * @param edge tested edge
+     * @return true if edge is instance of Number or Measurable
+     */
+    static boolean hasMetrics(Object edge) {
+        return edge instanceof Number || edge instanceof Measurable;
+    }
+
+    /**
+     * Create comparator that sorts intervals by start edge and intervals with
+     * equal start edge by end edge.
+     *
+     * @param <T> type of edges
+     * @return comparator of intervals
+     */
+    static <T extends Comparable<T>> Comparator<Interval<T>> startOrder() {
+        return new Comparator<Interval<T>>() {
+            @Override
+            public int compare(Interval<T> o1, Interval<T> o2) {
+                int output = compareStarts(o1.getStart(), o2.getStart());
+                if (output == 0) {
+                    output = compareEnds(o1.getEnd(), o2.getEnd());
+                }
+                return output;
+            }
+        };
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import net.adamjak.intervals.Interval.IntevalComparison;
+
+/**
+ * Read-only form of {@link IntervalsSeries} created by
+ * {@link IntervalsSeries#freeze()}. Start edges, end edges and values are kept
+ * in three flat arrays sorted by start edge, so series does not keep any
+ * interval or map entry objects. Lookups use binary search, gaps, extent and
+ * total length are computed once when series is frozen.
+ *
+ * <p>
+ * Series can not be changed, so it can be shared among threads without any
+ * locking.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see IntervalsSeries#freeze()
+ */
+public final class FrozenIntervalsSeries<T extends Comparable<T>, V> {
+
+    private final Object[] starts;
+    private final Object[] ends;
+    private final Object[] values;
+    private final List<Interval<T>> gaps;
+    private final Interval<T> extent;
+    private final Double totalLength;
+    private final boolean hasLength;
+
+    FrozenIntervalsSeries(IntervalsSeries<T, V> series) {
+        int size = series.size();
+        starts = new Object[size];
+        ends = new Object[size];
+        values = new Object[size];
+        int index = 0;
+        for (Entry<Interval<T>, V> pair : series.navigablePairs().entrySet()) {
+            starts[index] = pair.getKey().getStart();
+            ends[index] = pair.getKey().getEnd();
+            values[index++] = pair.getValue();
+        }
+        gaps = Collections.unmodifiableList(new ArrayList<>(series.getGaps()));
+        extent = series.getExtent();
+        Double length = null;
+        boolean supported = true;
+        try {
+            length = series.getTotalLength();
+        } catch (UnsupportedOperationException ex) {
+            supported = false;
+        }
+        totalLength = length;
+        hasLength = supported;
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param interval interval whose presence in this series is to be tested
+     * @return true if series contain pair interval-value whit given interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public boolean containsInterval(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return indexOf(interval) >= 0;
+    }
+
+    /**
+     * Returns true if this series has one or more intervals with the specified
+     * value.
+     *
+     * @param value value whose presence in this series is to be tested
+     * @return true if this series has one or more intervals with the specified
+     * value
+     */
+    public boolean containsValue(V value) {
+        for (Object one : values) {
+            if (Objects.equals(one, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param interval the interval whose associated value is to be returned
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public V getValue(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int index = indexOf(interval);
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Return interval of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return interval
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Interval<T> getInterval(int index) {
+        checkIndex(index);
+        return new Interval<>(start(index), end(index));
+    }
+
+    /**
+     * Return value of pair on given position. Pairs are sorted by start edge.
+     *
+     * @param index position of pair
+     * @return value
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public V getValueAt(int index) {
+        checkIndex(index);
+        return (V) values[index];
+    }
+
+    /**
+     * Returns a List of the intervals contained in this series sorted by start
+     * edge.
+     *
+     * @return a sorted List of intervals
+     */
+    public List<Interval<T>> getIntervalsSorted() {
+        List<Interval<T>> output = new ArrayList<>(starts.length);
+        for (int i = 0; i < starts.length; i++) {
+            output.add(new Interval<>(start(i), end(i)));
+        }
+        return output;
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(Interval<T> interval, boolean edgesIncluded) {
+        return getOverlapedWith(interval, edgesIncluded).isEmpty() == false;
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<T>> getOverlapedWith(Interval<T> interval, boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        List<Interval<T>> output = new ArrayList<>();
+        int to = lastNeighbour(interval);
+        for (int i = firstNeighbour(interval); i <= to; i++) {
+            Interval<T> in = new Interval<>(start(i), end(i));
+            boolean overlap = includeEdges
+                    ? in.compareToOther(interval).isIn(IntevalComparison.AfterAfter, IntevalComparison.BeforeBefore) == false
+                    : in.isOverlap(interval);
+            if (overlap) {
+                output.add(in);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series. Gaps are computed when series is frozen.
+     *
+     * @return unmodifiable List of gaps
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<T>> getGaps() {
+        return gaps;
+    }
+
+    /**
+     * Return the lowest start edge of all intervals contained in series.
+     *
+     * @return the lowest start edge of all intervals contained in series.
+     */
+    public T getStartMinimum() {
+        return isEmpty() ? null : start(0);
+    }
+
+    /**
+     * Return the lowest end edge of all intervals contained in series.
+     *
+     * @return the lowest end edge of all intervals contained in series.
+     */
+    public T getEndMinimum() {
+        return isEmpty() ? null : end(0);
+    }
+
+    /**
+     * Return the highest start edge of all intervals contained in series.
+     *
+     * @return the highest start edge of all intervals contained in series.
+     */
+    public T getStartMaximum() {
+        return isEmpty() ? null : start(starts.length - 1);
+    }
+
+    /**
+     * Return the highest end edge of all intervals contained in series.
+     *
+     * @return the highest end edge of all intervals contained in series.
+     */
+    public T getEndMaximum() {
+        return isEmpty() ? null : end(ends.length - 1);
+    }
+
+    /**
+     * Return interval cretaed from getStartMinimum and getEndMaximum. Extent is
+     * computed when series is frozen.
+     *
+     * @return interval cretaed from getStartMinimum and getEndMaximum.
+     * @see IntervalsSeries#getExtent()
+     */
+    public Interval<T> getExtent() {
+        return extent;
+    }
+
+    /**
+     * Return sum of all lengths of intervals. Sum is computed when series is
+     * frozen.
+     *
+     * @return sum of all lengths of intervals or null if series is empty
+     * @throws UnsupportedOperationException if type of intervals edge does not
+     * support length computation
+     * @see IntervalsSeries#getTotalLength()
+     */
+    public Double getTotalLength() {
+        if (hasLength == false) {
+            throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+        }
+        return totalLength;
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<T>> getIntervalByPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        Interval<T> pointInterval = new Interval<>(point, point);
+        List<Interval<T>> output = new ArrayList<>();
+        int to = lastNeighbour(pointInterval);
+        for (int i = firstNeighbour(pointInterval); i <= to; i++) {
+            Interval<T> in = new Interval<>(start(i), end(i));
+            Interval.PositionAgainstInterval position = in.positionAgainstInterval(point);
+            if (position == Interval.PositionAgainstInterval.Between) {
+                output.add(in);
+                return output;
+            }
+            if (includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd)) {
+                output.add(in);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(T point, boolean includeEdge) {
+        int index = indexOfPoint(point, includeEdge);
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Find values mapped to the intervals that contain specified points. All
+     * points are resolved by one pass over sorted intervals.
+     *
+     * @param points points that are used to find values
+     * @param includeEdge if it is true then edges are included into test.
+     * @param pool pool used to process parts of points or null to process all
+     * points in the current thread
+     * @return List of found values in the same order as points, null if no
+     * interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     * @see IntervalsSeries#getValuesByPoints(java.util.List, boolean, java.util.concurrent.ForkJoinPool)
+     */
+    public List<V> getValuesByPoints(List<T> points, boolean includeEdge, ForkJoinPool pool) {
+        int[] found = PointsLookup.lookup(starts, ends, points, includeEdge, pool);
+        List<V> output = new ArrayList<>(found.length);
+        for (int index : found) {
+            output.add(index < 0 ? null : getValueAt(index));
+        }
+        return output;
+    }
+
+    /**
+     * Find intervals that contain specified points. All points are resolved by
+     * one pass over sorted intervals.
+     *
+     * @param points points that are used to find intervals
+     * @param includeEdge if it is true then edges are included into test.
+     * @param pool pool used to process parts of points or null to process all
+     * points in the current thread
+     * @return List of found intervals in the same order as points, null if no
+     * interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     * @see IntervalsSeries#getIntervalsByPoints(java.util.List, boolean, java.util.concurrent.ForkJoinPool)
+     */
+    public List<Interval<T>> getIntervalsByPoints(List<T> points, boolean includeEdge, ForkJoinPool pool) {
+        int[] found = PointsLookup.lookup(starts, ends, points, includeEdge, pool);
+        List<Interval<T>> output = new ArrayList<>(found.length);
+        for (int index : found) {
+            output.add(index < 0 ? null : getInterval(index));
+        }
+        return output;
+    }
+
+    /**
+     * Find position of pair whose interval contains specified point. If more
+     * intervals contain the point then position of the lower one is returned.
+     *
+     * @param point The point that is used to find pair
+     * @param includeEdge if it is true then edges are included into test.
+     * @return position of found pair or -1 if no interval contains the point
+     * @throws ArgumentNullException if point is null
+     */
+    public int indexOfPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        Interval<T> pointInterval = new Interval<>(point, point);
+        int to = lastNeighbour(pointInterval);
+        for (int i = firstNeighbour(pointInterval); i <= to; i++) {
+            Interval.PositionAgainstInterval position = new Interval<>(start(i), end(i)).positionAgainstInterval(point);
+            if (position == Interval.PositionAgainstInterval.Between
+                    || (includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Create modifiable {@link IntervalsSeries} with the same pairs.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<T, V> toIntervalsSeries() {
+        Map<Interval<T>, V> pairs = new LinkedHashMap<>();
+        for (int i = 0; i < starts.length; i++) {
+            pairs.put(new Interval<>(start(i), end(i)), getValueAt(i));
+        }
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T start(int index) {
+        return (T) starts[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T end(int index) {
+        return (T) ends[index];
+    }
+
+    private int indexOf(Interval<T> interval) {
+        int index = lastIndex(interval.getStart(), interval.getEnd(), false) + 1;
+        if (index < starts.length && compare(index, interval.getStart(), interval.getEnd()) == 0) {
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Position of the first interval that can overlap given interval, it is
+     * the same as the first neighbour in {@code IntervalsSeries}.
+     */
+    private int firstNeighbour(Interval<T> interval) {
+        if (interval.isInfiniteStart()) {
+            return 0;
+        }
+        return Math.max(lastIndex(interval.getStart(), interval.getStart(), false), 0);
+    }
+
+    /**
+     * Position of the last interval that can overlap given interval.
+     */
+    private int lastNeighbour(Interval<T> interval) {
+        if (interval.isInfiniteEnd()) {
+            return starts.length - 1;
+        }
+        return lastIndex(interval.getEnd(), null, true);
+    }
+
+    /**
+     * Position of the last interval lower (or lower or equal if inclusive is
+     * true) than interval with given edges or -1.
+     */
+    private int lastIndex(T start, T end, boolean inclusive) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = compare(middle, start, end);
+            if (compare < 0 || (inclusive && compare == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Compare interval on given position with interval with given edges in the
+     * same order as {@code IntervalsSeries} sorts intervals.
+     */
+    private int compare(int index, T start, T end) {
+        int output = Edges.compareStarts(start(index), start);
+        if (output == 0) {
+            output = Edges.compareEnds(end(index), end);
+        }
+        return output;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= starts.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + starts.length);
+        }
+    }
+}
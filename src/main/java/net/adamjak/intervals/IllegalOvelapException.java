@@ -35,11 +35,47 @@ public class IllegalOvelapException extends RuntimeException {
 
     private static final long serialVersionUID = 6674604474336030260L;
 
+    private Interval<?> interval = null;
+    private Interval<?> otherInterval = null;
+
     public IllegalOvelapException() {
     }
 
     public IllegalOvelapException(String message) {
         super(message);
     }
+
+    /**
+     * Constructor with parameter to set message and overlapped intervals
+     * @param message content of message
+     * @param interval interval which can not be used due overlap
+     * @param otherInterval interval overlapped by the first one
+     */
+    public IllegalOvelapException(String message, Interval<?> interval, Interval<?> otherInterval) {
+        super(message);
+        this.interval = interval;
+        this.otherInterval = otherInterval;
+    }
+
+    /**
+     * Get interval which can not be used due overlap
+     * @return interval or null if it is not known
+     */
+    public Interval<?> getInterval() {
+        return interval;
+    }
+
+    /**
+     * Get interval overlapped by interval which can not be used
+     * @return overlapped interval or null if it is not known
+     */
+    public Interval<?> getOtherInterval() {
+        return otherInterval;
+    }
+
+    @Override
+    public String toString() {
+        return (this.interval == null) ? super.toString() : "Intervals: " + this.interval + " | " + this.otherInterval + "\n" + super.toString();
+    }
     
 }
@@ -195,6 +195,18 @@ public class Interval<T extends Comparable<T>> implements Cloneable {
         }
     }
 
+    /**
+     * Cached result of length support test for every class of edges. Class
+     * implements Measurable (also through its superclass or other interface)
+     * or it is subclass of Number, the same test as for metrics of edges.
+     */
+    private static final ClassValue<Boolean> HAS_LENGTH = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> cls) {
+            return Measurable.class.isAssignableFrom(cls) || Number.class.isAssignableFrom(cls);
+        }
+    };
+
     private final T start;
     private final T end;
 
@@ -677,27 +689,13 @@ public class Interval<T extends Comparable<T>> implements Cloneable {
      * and start or end is not null, otherwise false.
      */
     public boolean hasLength() {
-        Class<? extends Comparable> cls;
-
         if (this.getStart() != null) {
-            cls = this.getStart().getClass();
+            return HAS_LENGTH.get(this.getStart().getClass());
         } else if (this.getEnd() != null) {
-            cls = this.getEnd().getClass();
+            return HAS_LENGTH.get(this.getEnd().getClass());
         } else {
             return false;
         }
-        for (Class<?> ifc : cls.getInterfaces()) {
-            if (ifc.getSimpleName().equals(Measurable.class.getSimpleName())) {
-                return true;
-            }
-        }
-        List<Class<?>> superclasses = getSuperclasses(cls);
-        for (Class<?> sc : superclasses) {
-            if (sc.getSimpleName().equals(Number.class.getSimpleName())) {
-                return true;
-            }
-        }
-        return false;
     }
 
     /**
@@ -712,27 +710,57 @@ public class Interval<T extends Comparable<T>> implements Cloneable {
      *
      */
     public Double getLength() {
+        return lengthAsDouble();
+    }
 
+    /**
+     * Return length of interval as primitive number, so lengths can be summed
+     * without creating objects.
+     *
+     * @see #hasLength()
+     * @return subtract end - start or Double.POSITIVE_INFINITY if one of
+     * bondary is infinite
+     * @exception UnsupportedOperationException - if T is not instance of Number
+     * or Measurable
+     */
+    public double lengthAsDouble() {
         if (hasLength() == false) {
             throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
         }
-        if (isInfiniteStart() == false && isInfiniteEnd() == false) {
-            Double startValue;
-            Double endValue;
-            if (getStart() instanceof Number) {
-                startValue = ((Number) getStart()).doubleValue();
-                endValue = ((Number) getEnd()).doubleValue();
-            } else if (getStart() instanceof Measurable) {
-                startValue = ((Measurable) getStart()).getMetrics();
-                endValue = ((Measurable) getEnd()).getMetrics();
-            } else {
-                throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
-            }
-            return endValue - startValue;
-        } else {
+        if (isInfiniteStart() || isInfiniteEnd()) {
             return Double.POSITIVE_INFINITY;
         }
+        return Edges.metrics(getEnd()) - Edges.metrics(getStart());
+    }
 
+    /**
+     * Return length of interval as primitive long number. Integral edges
+     * (Long, Integer, Short, Byte) are subtracted without conversion to double,
+     * Measurable edges use {@link Measurable#getMetricsAsLong()} and length of
+     * other numbers is truncated.
+     *
+     * @see #hasLength()
+     * @return subtract end - start or Long.MAX_VALUE if one of bondary is
+     * infinite or if the length is higher than Long.MAX_VALUE
+     * @exception UnsupportedOperationException - if T is not instance of Number
+     * or Measurable
+     */
+    public long lengthAsLong() {
+        if (hasLength() == false) {
+            throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+        }
+        if (isInfiniteStart() || isInfiniteEnd()) {
+            return Long.MAX_VALUE;
+        }
+        if (getStart() instanceof Number && Edges.isIntegral(getStart()) == false) {
+            return (long) lengthAsDouble();
+        }
+        try {
+            return Math.subtractExact(Edges.longMetrics(getEnd()), Edges.longMetrics(getStart()));
+        } catch (ArithmeticException ex) {
+            // length does not fit into long, end is always higher than start
+            return Long.MAX_VALUE;
+        }
     }
 
     /**
@@ -822,17 +850,6 @@ public class Interval<T extends Comparable<T>> implements Cloneable {
         }
     }
 
-    private List<Class<?>> getSuperclasses(Class<?> clazz) {
-        List<Class<?>> output = new ArrayList<>();
-        output.add(clazz);
-        Class<?> sc = clazz.getSuperclass();
-        while (sc != null) {
-            output.add(sc);
-            sc = sc.getSuperclass();
-        }
-        return output;
-    }
-
     private T cloneEdge(T edge) throws CloneNotSupportedException {
         if (edge == null) {
             return null;
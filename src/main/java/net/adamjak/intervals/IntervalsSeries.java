@@ -27,29 +27,46 @@
 package net.adamjak.intervals;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSortedMap;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import net.adamjak.intervals.Interval.IntevalComparison;
 
 /**
  * Class represents collection of intervals and values related to them. Pair
  * interval - value can represents some real object or status that has validity
  * only between boundaries (edges) of interval. Registered intervals must not
- * overlap. Collection pairs interval - value is stored as {@link HashMap} where
- * interval is the key, but interval can not be null. Methods to add
- * ({@code insertNew} and new pair {@code putValue}) or update collection
- * ({@code changeEdges} and {@code erase}) work with collection sorted by start
- * edge of intervals.
+ * overlap. Collection pairs interval - value is stored as {@link TreeMap} where
+ * interval is the key, but interval can not be null. Keys are sorted by start
+ * edge (infinite start edge is the lowest one) and intervals with the same start
+ * edge are sorted by end edge. Because registered intervals do not overlap, end
+ * edges are sorted in the same order, so pairs that can touch given interval or
+ * point form continuous range of the map and they are found in logarithmic
+ * time. Methods to add ({@code insertNew} and new pair {@code putValue}) or
+ * update collection ({@code changeEdges} and {@code erase}) work with
+ * collection sorted by start edge of intervals.
  *
  * @author Marian Adamjak
  * @param <T> type of intervals' edges
@@ -71,7 +88,19 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         DESCENDING
     }
 
-    private final Map<Interval<T>, V> intervalValueMap = new HashMap<>();
+    private final NavigableMap<Interval<T>, V> intervalValueMap = new TreeMap<>(Edges.<T>startOrder());
+    private final Set<Interval<T>> ascendingIntervals = Collections.unmodifiableSet(intervalValueMap.navigableKeySet());
+    private final Set<Interval<T>> descendingIntervals = Collections.unmodifiableSet(intervalValueMap.descendingKeySet());
+    private long version = 0;
+    private boolean autoCoalesce = false;
+    private long cacheVersion = -1;
+    private List<Interval<T>> cachedGaps;
+    private Interval<T> cachedExtent;
+    private long lookupVersion = -1;
+    private Object[] lookupPairs;
+    private Object[] lookupStarts;
+    private Object[] lookupEnds;
+    private final List<WeakReference<AggregationIndex<T, V, ?>>> indexes = new ArrayList<>();
 
     /**
      * Returns the number of interval-value pairs in this series.
@@ -154,15 +183,62 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         if (value == null) {
             throw new ArgumentNullException("Value can not be null", "value");
         }
-        if (containsInterval(interval)) {
-            return intervalValueMap.put(interval, value);
-        }
-        if (isOverlapExcludeEdgeWith(interval)) {
-            throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series");
+        if (containsInterval(interval) == false) {
+            Interval<T> overlaped = findOverlapExcludeEdge(interval);
+            if (overlaped != null) {
+                throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series", interval, overlaped);
+            }
         }
+        version++;
+        putIntoIndexes(interval, value);
         return intervalValueMap.put(interval, value);
     }
 
+    /**
+     * Put all pairs (interval - value) from given map into series. Pairs are
+     * sorted once and overlaps among them are tested in one pass through sorted
+     * pairs, so the whole operation costs O(n log n). If series is empty then
+     * sorted pairs are copied into the series in linear time. If there is pair
+     * with given interval in the series then value will be replaced by given
+     * value. Operation is atomic, if an overlap is found then no pair is put
+     * into the series.
+     *
+     * @param pairs map with intervals and values to be put into series
+     * @throws ArgumentNullException if pairs, an interval or a value is null
+     * @throws IllegalOvelapException if two given intervals overlap or a given
+     * interval overlaps another interval in series. Exception contains both
+     * conflicting intervals.
+     */
+    public void putAll(Map<Interval<T>, ? extends V> pairs) {
+        if (pairs == null) {
+            throw new ArgumentNullException("Pairs can not be null", "pairs");
+        }
+        TreeMap<Interval<T>, V> sortedPairs = sortPairs(pairs);
+        if (sortedPairs.isEmpty()) {
+            return;
+        }
+        if (isEmpty() == false) {
+            for (Interval<T> interval : sortedPairs.keySet()) {
+                if (containsInterval(interval)) {
+                    continue;
+                }
+                Interval<T> overlaped = findOverlapExcludeEdge(interval);
+                if (overlaped != null) {
+                    throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series", interval, overlaped);
+                }
+            }
+        }
+        version++;
+        if (sortedPairs.size() < size()) {
+            for (Entry<Interval<T>, V> pair : sortedPairs.entrySet()) {
+                putIntoIndexes(pair.getKey(), pair.getValue());
+            }
+        } else {
+            invalidateIndexes();
+        }
+        intervalValueMap.putAll(sortedPairs);
+    }
+
     /**
      * Remove specified interval and associated value from this series if
      * present.
@@ -176,6 +252,11 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         if (interval == null) {
             throw new ArgumentNullException("Interval can not be null", "interval");
         }
+        if (intervalValueMap.containsKey(interval) == false) {
+            return null;
+        }
+        version++;
+        removeFromIndexes(interval);
         return intervalValueMap.remove(interval);
     }
 
@@ -183,12 +264,26 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
      * Remove all pair interval - value from this series
      */
     public void clear() {
+        version++;
+        invalidateIndexes();
         intervalValueMap.clear();
     }
 
+    /**
+     * Returns the version of this series. Version is changed by every
+     * modification of the series (put, remove, erase, insert or clear), so two
+     * equal versions guarantee that series has not been changed between the
+     * calls.
+     *
+     * @return the version of this series
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Returns a Set view of the intervals contained in this series. Method is
-     * equal to {@code HashMap.keySet}.
+     * equal to {@code TreeMap.keySet}.
      *
      * @return a set view of the keys contained in this map
      */
@@ -198,7 +293,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
 
     /**
      * Returns a Collection view of the values contained in this series. Method
-     * is equal to {@code HashSet.values}.
+     * is equal to {@code TreeMap.values}.
      *
      * @return a Collection view of the values contained in this series.
      */
@@ -208,7 +303,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
 
     /**
      * Returns a Set view of the mappings contained in this series. Method is
-     * equal to {@code HashSet.entrySet}
+     * equal to {@code TreeMap.entrySet}
      *
      * @return a Set view of the mappings contained in this series.
      */
@@ -242,17 +337,21 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
     
     
     private boolean isOverlapExcludeEdgeWith(Interval<T> interval) {
-        for (Interval<T> in : getIntevals()) {
+        return findOverlapExcludeEdge(interval) != null;
+    }
+
+    private Interval<T> findOverlapExcludeEdge(Interval<T> interval) {
+        for (Interval<T> in : getNeighbours(interval).keySet()) {
             if (in.isOverlap(interval)) {
-                return true;
+                return in;
             }
         }
-        return false;
+        return null;
     }
 
     private boolean isOverlapIncludeEdgeWith(Interval<T> interval) {
 
-        for (Interval<T> in : getIntevals()) {
+        for (Interval<T> in : getNeighbours(interval).keySet()) {
             IntevalComparison compare = in.compareToOther(interval);
             if (compare.isIn(IntevalComparison.AfterAfter, IntevalComparison.BeforeBefore) == false) {
                 return true;
@@ -264,7 +363,10 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
     
     /**
      * Returns a List of intervals that overlap with the given interval. Edges
-     * are used to overlap test by {@code includeEdges} argument
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge. Only intervals around the given
+     * interval are tested, so the cost of the method depends on number of
+     * found intervals, not on size of the series.
      *
      * @param interval The interval whose overlap in this series is to be tested
      * @param includeEdges control if edges are included into overlap testing. 
@@ -298,7 +400,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
     private List<Interval<T>> getOverlapedExcludeEdgesWith(Interval<T> interval) {
         
         List<Interval<T>> output = new ArrayList<>();
-        for (Interval<T> in : getIntevals()) {
+        for (Interval<T> in : getNeighbours(interval).keySet()) {
             if (in.isOverlap(interval)) {
                 output.add(in);
             }
@@ -321,7 +423,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
             throw new ArgumentNullException("Interval can not be null", "interval");
         }
         List<Interval<T>> output = new ArrayList<>();
-        for (Interval<T> in : getIntevals()) {
+        for (Interval<T> in : getNeighbours(interval).keySet()) {
             IntevalComparison compare = in.compareToOther(interval);
             if (compare.isIn(IntevalComparison.AfterAfter,IntevalComparison.BeforeBefore) == false) {
                 output.add(in);
@@ -344,54 +446,21 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
     /**
      * Returns a sorted Set view of the intervals contained in this series.
      * Method return same Set as {@code getIntervals}, but Set is sorted by
-     * start edge. Edges are sorted by sortOrder argument.
+     * start edge. Edges are sorted by sortOrder argument. The view is backed
+     * by the series, so it is not created again by next calls and it reflects
+     * all changes of the series.
      * @param sortOrder type of the sort
      * @return a sorted Set view of the intervals contained in this series in specified order
      */
     public Set<Interval<T>> getIntervalsSorted(SortOrder sortOrder) {
-
-        Comparator<Interval<T>> comparator;
-
         switch (sortOrder) {
             case ASCENDING:
-                comparator = new Comparator<Interval<T>>() {
-                    @Override
-                    public int compare(Interval<T> o1, Interval<T> o2) {
-                        T c1 = o1.getStart();
-                        T c2 = o2.getStart();
-                        int output = nullableCompare(c1, c2);
-                        if (output == 0) {
-                            c1 = o1.getEnd();
-                            c2 = o2.getEnd();
-                            output = nullableCompare(c1, c2);
-                        }
-                        return output;
-                    }
-                };
-                break;
+                return ascendingIntervals;
             case DESCENDING:
-                comparator = new Comparator<Interval<T>>() {
-                    @Override
-                    public int compare(Interval<T> o1, Interval<T> o2) {
-                        T c1 = o1.getStart();
-                        T c2 = o2.getStart();
-                        int output = nullableCompare(c1, c2);
-                        if (output == 0) {
-                            c1 = o1.getEnd();
-                            c2 = o2.getEnd();
-                            output = nullableCompare(c1, c2);
-                        }
-                        return output * (-1);
-                    }
-                };
-                break;
+                return descendingIntervals;
             default:
                 throw new IllegalArgumentException("Unknown order type: " + sortOrder.name());
         }
-
-        SortedSet<Interval<T>> sortKeys = new TreeSet<>(comparator);
-        sortKeys.addAll(intervalValueMap.keySet());
-        return Collections.unmodifiableSet(sortKeys);
     }
 
     /**
@@ -403,27 +472,15 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
      * Example - if series contains inetrvals (10,20) (25,30) (30,40) and
      * (50,60) then list with (20,25) and (40,50) is returned.
      *
+     * Gaps are searched only once after every change of the series, next calls
+     * return copy of found gaps.
+     *
      * @return a List of interval(s) that represent gap(s) among intervals
      * contained in this series.
      */
     public List<Interval<T>> getGaps() {
-        List<Interval<T>> output = new ArrayList<>();
-        if (intervalValueMap.size() <= 1) {
-            return output;
-        }
-        Set<Interval<T>> keys = getIntervalsSorted();
-        Iterator<Interval<T>> iterator = keys.iterator();
-        Interval<T> previous = iterator.next();
-        while (iterator.hasNext()) {
-            Interval<T> current = iterator.next();
-            if (nullableCompare(previous.getEnd(), current.getStart()) == -1) {
-                T end = previous.getEnd();
-                T start = current.getStart();
-                output.add(new Interval<>(end, start));
-            }
-            previous = current;
-        }
-        return output;
+        updateCache();
+        return new ArrayList<>(cachedGaps);
     }
 
     /**
@@ -433,13 +490,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
      * @return the lowest start edge of all intervals contained in series.
      */
     public T getStartMinimum() {
-        Set<Interval<T>> keys = getIntervalsSorted();
-        Optional<Interval<T>> first = getFirstElement(keys);
-        if (first.isPresent()) {
-            return first.get().getStart();
-        } else {
-            return null;
-        }
+        return isEmpty() ? null : intervalValueMap.firstKey().getStart();
     }
 
     /**
@@ -449,13 +500,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
      * @return the lowest end edge of all intervals contained in series.
      */
     public T getEndMinimum() {
-        Set<Interval<T>> keys = getIntervalsSorted();
-        Optional<Interval<T>> first = getFirstElement(keys);
-        if (first.isPresent()) {
-            return first.get().getEnd();
-        } else {
-            return null;
-        }
+        return isEmpty() ? null : intervalValueMap.firstKey().getEnd();
     }
 
     /**
@@ -465,13 +510,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
      * @return the highest start edge of all intervals contained in series.
      */
     public T getStartMaximum() {
-        Set<Interval<T>> keys = getIntervalsSorted();
-        Optional<Interval<T>> last = getLastElement(keys);
-        if (last.isPresent()) {
-            return last.get().getStart();
-        } else {
-            return null;
-        }
+        return isEmpty() ? null : intervalValueMap.lastKey().getStart();
     }
 
     /**
@@ -481,22 +520,18 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
      * @return the highest end edge of all intervals contained in series.
      */
     public T getEndMaximum() {
-        Set<Interval<T>> keys = getIntervalsSorted();
-        Optional<Interval<T>> last = getLastElement(keys);
-        if (last.isPresent()) {
-            return last.get().getEnd();
-        } else {
-            return null;
-        }
+        return isEmpty() ? null : intervalValueMap.lastKey().getEnd();
     }
 
     /**
      * Return interval cretaed from getStartMinimum and getEndMaximum.
      *
-     * @return interval cretaed from getStartMinimum and getEndMaximum.
+     * @return interval cretaed from getStartMinimum and getEndMaximum or
+     * interval (null, null) if series is empty.
      */
     public Interval<T> getExtent() {
-        return new Interval<>(this.getStartMinimum(), this.getEndMaximum());
+        updateCache();
+        return cachedExtent;
     }
 
     /**
@@ -531,19 +566,7 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         }
 
         List<Interval<T>> output = new ArrayList<>();
-        Set<Interval<T>> sortedIntervals = this.getIntervalsSorted();
-        Optional<Interval<T>> firstInterval = this.getFirstElement(sortedIntervals);
-        if (firstInterval.isPresent()) {
-            Interval.PositionAgainstInterval position = firstInterval.get().positionAgainstInterval(point);
-            if (position.isIn(Interval.PositionAgainstInterval.Before)) {
-                return Collections.EMPTY_LIST;
-            }
-        }
-
-        final Iterator<Interval<T>> iterator = sortedIntervals.iterator();
-
-        do {
-            Interval<T> interval = iterator.next();
+        for (Interval<T> interval : getNeighbours(new Interval<>(point, point)).keySet()) {
             Interval.PositionAgainstInterval position = interval.positionAgainstInterval(point);
             if (position.isIn(Interval.PositionAgainstInterval.Between)) {
                 output.add(interval);
@@ -555,10 +578,164 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
                     output.add(interval);
                 }
             }
-        } while (iterator.hasNext());
+        }
+        return output;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point. If more
+     * intervals contain the point (point is shared edge of two intervals and
+     * includeEdge is true) then value of the lower interval is returned, it is
+     * value of the first interval returned by {@code getIntervalByPoint}. Method
+     * does not create List of found intervals.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see #getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        for (Entry<Interval<T>, V> pair : getNeighbours(new Interval<>(point, point)).entrySet()) {
+            if (containsPoint(pair.getKey(), point, includeEdge)) {
+                return pair.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create cursor to find pairs by points. Cursor remembers position of last
+     * found pair, so if points are searched in ascending order, every search
+     * continues from the last position and it costs amortized constant time.
+     *
+     * @param includeEdge if it is true then edges are included into test.
+     * @return new cursor
+     * @see PointCursor
+     */
+    public PointCursor getPointCursor(boolean includeEdge) {
+        return new PointCursor(includeEdge);
+    }
+
+    /**
+     * Find values mapped to the intervals that contain specified points. Every
+     * point is found by the same rules as in {@code getValueByPoint}, but all
+     * points are resolved by one pass over sorted intervals, so method is much
+     * faster than calling {@code getValueByPoint} for every point. Points do
+     * not need to be sorted, but sorted points are not sorted again.
+     *
+     * @param points points that are used to find values
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found values in the same order as points, null if no
+     * interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     * @see #getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public List<V> getValuesByPoints(List<T> points, boolean includeEdge) {
+        return getValuesByPoints(points, includeEdge, null);
+    }
+
+    /**
+     * Find values mapped to the intervals that contain specified points. Large
+     * batch of points is split into parts processed in given pool.
+     *
+     * @param points points that are used to find values
+     * @param includeEdge if it is true then edges are included into test.
+     * @param pool pool used to process parts of points or null to process all
+     * points in the current thread
+     * @return List of found values in the same order as points, null if no
+     * interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     * @see #getValuesByPoints(java.util.List, boolean)
+     */
+    public List<V> getValuesByPoints(List<T> points, boolean includeEdge, ForkJoinPool pool) {
+        List<V> output = new ArrayList<>(points == null ? 0 : points.size());
+        for (Entry<Interval<T>, V> pair : getPairsByPoints(points, includeEdge, pool)) {
+            output.add(pair == null ? null : pair.getValue());
+        }
+        return output;
+    }
+
+    /**
+     * Find intervals that contain specified points. Every point is found by
+     * the same rules as in {@code getValueByPoint} (only the lower interval is
+     * returned if point is shared edge of two intervals).
+     *
+     * @param points points that are used to find intervals
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found intervals in the same order as points, null if no
+     * interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     * @see #getValuesByPoints(java.util.List, boolean)
+     */
+    public List<Interval<T>> getIntervalsByPoints(List<T> points, boolean includeEdge) {
+        return getIntervalsByPoints(points, includeEdge, null);
+    }
+
+    /**
+     * Find intervals that contain specified points. Large batch of points is
+     * split into parts processed in given pool.
+     *
+     * @param points points that are used to find intervals
+     * @param includeEdge if it is true then edges are included into test.
+     * @param pool pool used to process parts of points or null to process all
+     * points in the current thread
+     * @return List of found intervals in the same order as points, null if no
+     * interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     * @see #getIntervalsByPoints(java.util.List, boolean)
+     */
+    public List<Interval<T>> getIntervalsByPoints(List<T> points, boolean includeEdge, ForkJoinPool pool) {
+        List<Interval<T>> output = new ArrayList<>(points == null ? 0 : points.size());
+        for (Entry<Interval<T>, V> pair : getPairsByPoints(points, includeEdge, pool)) {
+            output.add(pair == null ? null : pair.getKey());
+        }
+        return output;
+    }
+
+    private List<Entry<Interval<T>, V>> getPairsByPoints(List<T> points, boolean includeEdge, ForkJoinPool pool) {
+        updateLookupCache();
+        int[] found = PointsLookup.lookup(lookupStarts, lookupEnds, points, includeEdge, pool);
+        List<Entry<Interval<T>, V>> output = new ArrayList<>(found.length);
+        for (int index : found) {
+            output.add(index < 0 ? null : pair(lookupPairs, index));
+        }
         return output;
     }
 
+    /**
+     * Take flat arrays of pairs and edges used by batch point lookup, arrays
+     * are taken again only if series has been changed. Arrays hold only
+     * references to pairs and edges of the series.
+     */
+    private void updateLookupCache() {
+        if (lookupVersion == version) {
+            return;
+        }
+        Object[] pairs = new Object[intervalValueMap.size()];
+        Object[] starts = new Object[pairs.length];
+        Object[] ends = new Object[pairs.length];
+        int index = 0;
+        for (Entry<Interval<T>, V> pair : intervalValueMap.entrySet()) {
+            pairs[index] = new SimpleImmutableEntry<>(pair);
+            starts[index] = pair.getKey().getStart();
+            ends[index] = pair.getKey().getEnd();
+            index++;
+        }
+        lookupPairs = pairs;
+        lookupStarts = starts;
+        lookupEnds = ends;
+        lookupVersion = version;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<Interval<T>, V> pair(Object[] pairs, int index) {
+        return (Entry<Interval<T>, V>) pairs[index];
+    }
+
     /**
      * Return sum of all lengths of intervals, if type of interval edges support
      * length computation. If series is empty then null is returned. If one of
@@ -576,16 +753,14 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
             if (first.get().hasLength() == false) {
                 throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
             }
-            Double output = null;
-            Iterator<Interval<T>> iterator = intervals.iterator();
-            do {
-                Interval<T> interval = iterator.next();
-                Double lenght = interval.getLength();
+            double output = 0;
+            for (Interval<T> interval : intervals) {
+                double lenght = interval.lengthAsDouble();
                 if (lenght == Double.POSITIVE_INFINITY) {
                     return Double.POSITIVE_INFINITY;
                 }
-                output = (output == null ? lenght : output + lenght);
-            } while (iterator.hasNext());
+                output += lenght;
+            }
             return output;
         } else {
             return null;
@@ -627,7 +802,8 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
 
     /**
      * Insert new pair interval-value into series. Erase method with specified
-     * interval is called before. New pair is put into created gap.
+     * interval is called before. New pair is put into created gap. If auto
+     * coalesce is on, new pair is merged with touching pairs with equal value.
      *
      * @param interval specified interval
      * @param value value maped with interval
@@ -642,6 +818,9 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         }
         this.erase(interval);
         this.putValue(interval, value);
+        if (autoCoalesce) {
+            coalesceAround(interval);
+        }
     }
 
     /**
@@ -684,22 +863,851 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         }
     }
 
-    private int nullableCompare(Comparable s1, Comparable s2) {
-        int output;
-        if (s1 == null) {
-            if (s2 == null) {
-                output = 0;
+    /**
+     * Insert all given pairs interval-value into series. Result is the same as
+     * if {@code insertNew} is called for every given pair, but all pairs are
+     * merged with series in one pass through sorted series. Given intervals
+     * must not overlap each other. Operation is atomic, if an overlap is found
+     * then series is not changed.
+     *
+     * @param pairs map with intervals and values to be inserted into series
+     * @throws ArgumentNullException if pairs, an interval or a value is null
+     * @throws IllegalOvelapException if two given intervals overlap or if a
+     * given interval overlaps an interval that has not been erased
+     * @see #insertNew(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public void insertNewAll(Map<Interval<T>, ? extends V> pairs) {
+        if (pairs == null) {
+            throw new ArgumentNullException("Pairs can not be null", "pairs");
+        }
+        TreeMap<Interval<T>, V> sortedPairs = sortPairs(pairs);
+        if (sortedPairs.isEmpty()) {
+            return;
+        }
+        List<Entry<Interval<T>, V>> fragments = eraseSorted(new ArrayList<>(sortedPairs.keySet()));
+        List<Entry<Interval<T>, V>> merged = new ArrayList<>(fragments.size() + sortedPairs.size());
+        Comparator<? super Interval<T>> comparator = intervalValueMap.comparator();
+        Iterator<Entry<Interval<T>, V>> newIterator = sortedPairs.entrySet().iterator();
+        Entry<Interval<T>, V> newPair = newIterator.next();
+        for (Entry<Interval<T>, V> fragment : fragments) {
+            while (newPair != null && comparator.compare(newPair.getKey(), fragment.getKey()) < 0) {
+                merged.add(newPair);
+                newPair = newIterator.hasNext() ? newIterator.next() : null;
+            }
+            merged.add(fragment);
+        }
+        while (newPair != null) {
+            merged.add(newPair);
+            newPair = newIterator.hasNext() ? newIterator.next() : null;
+        }
+        Interval<T> previous = null;
+        for (Entry<Interval<T>, V> pair : merged) {
+            if (previous != null && Edges.compareEndToStart(previous.getEnd(), pair.getKey().getStart()) > 0) {
+                throw new IllegalOvelapException("Can not insert values if there is overlap with interval in series", pair.getKey(), previous);
+            }
+            previous = pair.getKey();
+        }
+        replacePairs(autoCoalesce ? coalesceSorted(merged) : merged);
+    }
+
+    /**
+     * Make gaps in series by all given intervals. Result is the same as if
+     * {@code erase} is called for every given interval, but series is changed
+     * in one pass through sorted series. Given intervals can overlap each
+     * other.
+     *
+     * @param eraseIntervals specified intervals to make gaps
+     * @throws ArgumentNullException if eraseIntervals or one of them is null
+     * @see #erase(net.adamjak.intervals.Interval)
+     */
+    public void eraseAll(Collection<Interval<T>> eraseIntervals) {
+        if (eraseIntervals == null) {
+            throw new ArgumentNullException("eraseIntervals can not be null", "eraseIntervals");
+        }
+        List<Interval<T>> sortedIntervals = new ArrayList<>(eraseIntervals);
+        for (Interval<T> eraseInterval : sortedIntervals) {
+            if (eraseInterval == null) {
+                throw new ArgumentNullException("eraseInterval can not be null", "eraseIntervals");
+            }
+        }
+        if (sortedIntervals.isEmpty() || isEmpty()) {
+            return;
+        }
+        Collections.sort(sortedIntervals, intervalValueMap.comparator());
+        List<Interval<T>> joinedIntervals = new ArrayList<>();
+        Interval<T> joined = sortedIntervals.get(0);
+        for (Interval<T> eraseInterval : sortedIntervals) {
+            if (Edges.compareEndToStart(joined.getEnd(), eraseInterval.getStart()) >= 0) {
+                T end = Edges.compareEnds(joined.getEnd(), eraseInterval.getEnd()) >= 0 ? joined.getEnd() : eraseInterval.getEnd();
+                joined = new Interval<>(joined.getStart(), end);
             } else {
-                output = -1;
+                joinedIntervals.add(joined);
+                joined = eraseInterval;
+            }
+        }
+        joinedIntervals.add(joined);
+        replacePairs(eraseSorted(joinedIntervals));
+    }
+
+    /**
+     * Merge touching intervals with equal values into one interval (e.g.
+     * pairs (10,20)-A and (20,30)-A are replaced by pair (10,30)-A). Such
+     * fragments are created by repeated calls of {@code insertNew} and
+     * {@code erase}. Series is passed only once.
+     *
+     * @return number of pairs removed from series
+     * @see #setAutoCoalesce(boolean)
+     */
+    public int coalesce() {
+        List<Entry<Interval<T>, V>> merged = coalesceSorted(new ArrayList<>(intervalValueMap.entrySet()));
+        int removed = intervalValueMap.size() - merged.size();
+        if (removed > 0) {
+            replacePairs(merged);
+        }
+        return removed;
+    }
+
+    /**
+     * Return true if pairs inserted by {@code insertNew} and
+     * {@code insertNewAll} are merged with touching pairs with equal values.
+     *
+     * @return true if auto coalesce is on
+     * @see #setAutoCoalesce(boolean)
+     */
+    public boolean isAutoCoalesce() {
+        return autoCoalesce;
+    }
+
+    /**
+     * Switch on or off auto coalesce. If it is on, pairs inserted by
+     * {@code insertNew} and {@code insertNewAll} are merged with touching
+     * pairs with equal values, so series does not grow by fragments. Pairs
+     * already contained in series are not changed, call {@code coalesce} to
+     * merge them.
+     *
+     * @param autoCoalesce true to switch on auto coalesce
+     * @see #coalesce()
+     */
+    public void setAutoCoalesce(boolean autoCoalesce) {
+        this.autoCoalesce = autoCoalesce;
+    }
+
+    /**
+     * Find all pairs of overlapping intervals from this series and other
+     * series. Both series are passed only once at the same time (sweep line),
+     * so cost of the method is O(n + m + k) where k is number of found pairs.
+     * Found pairs are not collected, they are passed to the consumer. Edges
+     * are used to overlap test by {@code includeEdges} argument by the same
+     * rules as in {@code getOverlapedWith}.
+     *
+     * @param <W> type of values of other series
+     * @param other other series (it can be this series)
+     * @param includeEdges control if edges are included into overlap testing.
+     * @param consumer receiver of found pairs
+     * @throws ArgumentNullException if other series or consumer is null
+     * @see JoinConsumer
+     * @see #getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public <W> void join(IntervalsSeries<T, W> other, boolean includeEdges, JoinConsumer<T, V, W> consumer) {
+        if (other == null) {
+            throw new ArgumentNullException("Other series can not be null", "other");
+        }
+        if (consumer == null) {
+            throw new ArgumentNullException("Consumer can not be null", "consumer");
+        }
+        Iterator<Entry<Interval<T>, W>> others = other.intervalValueMap.entrySet().iterator();
+        Entry<Interval<T>, W> next = others.hasNext() ? others.next() : null;
+        // intervals of other series which can overlap current interval, end edges are sorted too
+        Deque<Entry<Interval<T>, W>> window = new ArrayDeque<>();
+        for (Entry<Interval<T>, V> pair : intervalValueMap.entrySet()) {
+            Interval<T> interval = pair.getKey();
+            while (window.isEmpty() == false
+                    && Edges.compareEndToStart(window.peekFirst().getKey().getEnd(), interval.getStart()) < 0) {
+                window.pollFirst();
+            }
+            while (next != null && Edges.compareEndToStart(interval.getEnd(), next.getKey().getStart()) >= 0) {
+                if (Edges.compareEndToStart(next.getKey().getEnd(), interval.getStart()) >= 0) {
+                    window.addLast(next);
+                }
+                next = others.hasNext() ? others.next() : null;
+            }
+            for (Entry<Interval<T>, W> otherPair : window) {
+                Interval<T> otherInterval = otherPair.getKey();
+                boolean overlap = includeEdges
+                        ? otherInterval.compareToOther(interval).isIn(IntevalComparison.AfterAfter, IntevalComparison.BeforeBefore) == false
+                        : otherInterval.isOverlap(interval);
+                if (overlap) {
+                    T start = Edges.compareStarts(interval.getStart(), otherInterval.getStart()) >= 0 ? interval.getStart() : otherInterval.getStart();
+                    T end = Edges.compareEnds(interval.getEnd(), otherInterval.getEnd()) <= 0 ? interval.getEnd() : otherInterval.getEnd();
+                    consumer.accept(interval, pair.getValue(), otherInterval, otherPair.getValue(), new Interval<>(start, end));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create new series that contains overlaps of intervals from this series
+     * and other series. Value of every overlap is created by combiner from
+     * values of both overlapping intervals. If combiner returns null then the
+     * overlap is not added. Both series are passed only once, see
+     * {@code join}.
+     *
+     * @param <W> type of values of other series
+     * @param <R> type of values of new series
+     * @param other other series
+     * @param combiner function to create value of overlap from value of this
+     * series and value of other series
+     * @return new series with overlaps
+     * @throws ArgumentNullException if other series or combiner is null
+     * @see #join(net.adamjak.intervals.IntervalsSeries, boolean, net.adamjak.intervals.JoinConsumer)
+     */
+    public <W, R> IntervalsSeries<T, R> intersection(IntervalsSeries<T, W> other, final BiFunction<? super V, ? super W, ? extends R> combiner) {
+        if (combiner == null) {
+            throw new ArgumentNullException("Combiner can not be null", "combiner");
+        }
+        final List<Entry<Interval<T>, R>> pairs = new ArrayList<>();
+        join(other, false, new JoinConsumer<T, V, W>() {
+            @Override
+            public void accept(Interval<T> interval, V value, Interval<T> otherInterval, W otherValue, Interval<T> overlap) {
+                R combined = combiner.apply(value, otherValue);
+                if (combined != null) {
+                    pairs.add(new SimpleImmutableEntry<>(overlap, combined));
+                }
+            }
+        });
+        IntervalsSeries<T, R> output = new IntervalsSeries<>();
+        output.replacePairs(pairs);
+        return output;
+    }
+
+    /**
+     * Create new series that contains parts of intervals from this series
+     * which do not overlap any interval of other series. Intervals are cut by
+     * the same rules as in {@code erase} method and they keep their values.
+     * Both series are passed only once.
+     *
+     * @param <W> type of values of other series
+     * @param other other series
+     * @return new series with parts of this series not covered by other
+     * series
+     * @throws ArgumentNullException if other series is null
+     * @see #eraseAll(java.util.Collection)
+     */
+    public <W> IntervalsSeries<T, V> difference(IntervalsSeries<T, W> other) {
+        if (other == null) {
+            throw new ArgumentNullException("Other series can not be null", "other");
+        }
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.replacePairs(eraseSorted(new ArrayList<>(other.intervalValueMap.keySet())));
+        return output;
+    }
+
+    /**
+     * Create new series that contains all intervals of this series and other
+     * series. Parts covered only by one series keep their values, value of
+     * overlaps is created by combiner (if combiner returns null then value of
+     * this series is kept). Parts are found by passing both series a few
+     * times and sorted parts are merged in linear time, new series is built at
+     * once, not by putting single pairs.
+     *
+     * @param other other series
+     * @param combiner function to create value of overlap from value of this
+     * series and value of other series
+     * @return new series with union of both series
+     * @throws ArgumentNullException if other series or combiner is null
+     * @see #difference(net.adamjak.intervals.IntervalsSeries)
+     * @see #intersection(net.adamjak.intervals.IntervalsSeries, java.util.function.BiFunction)
+     */
+    public IntervalsSeries<T, V> union(IntervalsSeries<T, V> other, final BiFunction<? super V, ? super V, ? extends V> combiner) {
+        if (combiner == null) {
+            throw new ArgumentNullException("Combiner can not be null", "combiner");
+        }
+        IntervalsSeries<T, V> overlaps = intersection(other, new BiFunction<V, V, V>() {
+            @Override
+            public V apply(V value, V otherValue) {
+                V output = combiner.apply(value, otherValue);
+                return (output == null) ? value : output;
+            }
+        });
+        List<Entry<Interval<T>, V>> pairs = mergeSorted(difference(other).intervalValueMap.entrySet(), other.difference(this).intervalValueMap.entrySet());
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.replacePairs(mergeSorted(pairs, overlaps.intervalValueMap.entrySet()));
+        return output;
+    }
+
+    /**
+     * Merge two collections of pairs sorted by the order of series in linear
+     * time.
+     */
+    private List<Entry<Interval<T>, V>> mergeSorted(Collection<Entry<Interval<T>, V>> first, Collection<Entry<Interval<T>, V>> second) {
+        List<Entry<Interval<T>, V>> output = new ArrayList<>(first.size() + second.size());
+        Iterator<Entry<Interval<T>, V>> firstIterator = first.iterator();
+        Iterator<Entry<Interval<T>, V>> secondIterator = second.iterator();
+        Entry<Interval<T>, V> firstPair = firstIterator.hasNext() ? firstIterator.next() : null;
+        Entry<Interval<T>, V> secondPair = secondIterator.hasNext() ? secondIterator.next() : null;
+        while (firstPair != null || secondPair != null) {
+            if (secondPair == null || (firstPair != null && intervalValueMap.comparator().compare(firstPair.getKey(), secondPair.getKey()) <= 0)) {
+                output.add(firstPair);
+                firstPair = firstIterator.hasNext() ? firstIterator.next() : null;
+            } else {
+                output.add(secondPair);
+                secondPair = secondIterator.hasNext() ? secondIterator.next() : null;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Create view of the part of this series. View contains pairs whose
+     * intervals overlap given range (edges are not included into overlap
+     * testing). Intervals are not clipped by the range.
+     *
+     * @param range range of the view
+     * @return live view of the part of series
+     * @throws ArgumentNullException if range is null
+     * @see #subSeries(net.adamjak.intervals.Interval, boolean)
+     */
+    public SubSeries subSeries(Interval<T> range) {
+        return subSeries(range, false);
+    }
+
+    /**
+     * Create view of the part of this series. View contains pairs whose
+     * intervals overlap given range (edges are not included into overlap
+     * testing). If clip is true then intervals that exceed the range are cut
+     * at its edges. Pairs are not copied, view reflects all changes of the
+     * series and its pairs are found in logarithmic time.
+     *
+     * @param range range of the view
+     * @param clip if it is true then intervals are cut by edges of the range
+     * @return live view of the part of series
+     * @throws ArgumentNullException if range is null
+     * @see SubSeries
+     */
+    public SubSeries subSeries(Interval<T> range, boolean clip) {
+        if (range == null) {
+            throw new ArgumentNullException("Range can not be null", "range");
+        }
+        return new SubSeries(range, clip);
+    }
+
+    /**
+     * Returns a sequential Stream of pairs sorted by start edge of intervals.
+     * Stream works with copy of pairs taken when method is called (the copy is
+     * shared with point lookups and next calls until series is changed), so
+     * changes of series are not visible in the stream.
+     *
+     * @return sequential Stream of pairs
+     * @see #spliterator()
+     */
+    public Stream<Entry<Interval<T>, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel Stream of pairs sorted by start edge of intervals.
+     * Pairs are split into balanced parts of known size.
+     *
+     * @return parallel Stream of pairs
+     * @see #stream()
+     */
+    public Stream<Entry<Interval<T>, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Create Spliterator over copy of pairs sorted by start edge of intervals.
+     * Copy is built lazily after the series has been changed and it is shared
+     * with point lookups ({@code getValuesByPoints}), so writes do not copy
+     * pairs. Spliterator splits the copy by index, it is ORDERED, SORTED,
+     * SIZED, SUBSIZED, NONNULL and IMMUTABLE.
+     *
+     * @return Spliterator over pairs
+     */
+    public Spliterator<Entry<Interval<T>, V>> spliterator() {
+        updateLookupCache();
+        return new PairsSpliterator<>(lookupPairs, 0, lookupPairs.length);
+    }
+
+    /**
+     * Create index to aggregate values of pairs whose intervals overlap given
+     * range. Values are mapped by mapper and combined by monoid. Index follows
+     * changes of this series.
+     *
+     * @param <R> type of aggregated values
+     * @param monoid operation to combine mapped values
+     * @param mapper function to map value of pair to aggregated value
+     * @return new index
+     * @throws ArgumentNullException if monoid or mapper is null
+     * @see AggregationIndex
+     */
+    public <R> AggregationIndex<T, V, R> aggregationIndex(Monoid<R> monoid, Function<? super V, ? extends R> mapper) {
+        return registerIndex(new AggregationIndex<>(this, monoid, mapper, null));
+    }
+
+    /**
+     * Create weighted index to aggregate values of pairs whose intervals
+     * overlap given range. Mapped value of interval that overlaps range only
+     * partially is passed to weight function together with the part of
+     * interval length inside the range (number from 0 to 1).
+     *
+     * @param <R> type of aggregated values
+     * @param monoid operation to combine mapped values
+     * @param mapper function to map value of pair to aggregated value
+     * @param weight function to weight mapped value by the part of interval
+     * inside range
+     * @return new index
+     * @throws ArgumentNullException if monoid, mapper or weight is null
+     * @see AggregationIndex
+     */
+    public <R> AggregationIndex<T, V, R> aggregationIndex(Monoid<R> monoid, Function<? super V, ? extends R> mapper, BiFunction<? super R, Double, ? extends R> weight) {
+        if (weight == null) {
+            throw new ArgumentNullException("Weight can not be null", "weight");
+        }
+        return registerIndex(new AggregationIndex<>(this, monoid, mapper, weight));
+    }
+
+    /**
+     * Roll up series into buckets given by sorted boundaries (n boundaries
+     * create n - 1 buckets, e.g. hours or days). For every bucket length
+     * covered by intervals and aggregated value of intervals that overlap the
+     * bucket (edges are not included into overlap testing) are computed.
+     * Buckets and intervals are passed in one sorted sweep and no interval is
+     * created for parts of intervals inside buckets.
+     *
+     * @param <R> type of aggregated values
+     * @param boundaries edges of buckets sorted in ascending order
+     * @param monoid operation to combine mapped values
+     * @param mapper function to map value of pair to aggregated value
+     * @return List of buckets sorted by start edge
+     * @throws ArgumentNullException if any argument or boundary is null
+     * @throws IllegalArgumentException if boundaries are not sorted or they
+     * are not distinct
+     * @see RollupBucket
+     */
+    public <R> List<RollupBucket<T, R>> rollup(List<T> boundaries, Monoid<R> monoid, Function<? super V, ? extends R> mapper) {
+        return rollupSorted(boundaries, monoid, mapper, null);
+    }
+
+    /**
+     * Roll up series into buckets given by sorted boundaries. Mapped value of
+     * interval that overlaps bucket only partially is passed to weight
+     * function together with the part of interval length inside the bucket
+     * (number from 0 to 1).
+     *
+     * @param <R> type of aggregated values
+     * @param boundaries edges of buckets sorted in ascending order
+     * @param monoid operation to combine mapped values
+     * @param mapper function to map value of pair to aggregated value
+     * @param weight function to weight mapped value by the part of interval
+     * inside bucket
+     * @return List of buckets sorted by start edge
+     * @throws ArgumentNullException if any argument or boundary is null
+     * @throws IllegalArgumentException if boundaries are not sorted or they
+     * are not distinct
+     * @throws UnsupportedOperationException if type of edges does not support
+     * length computation
+     * @see #rollup(java.util.List, net.adamjak.intervals.Monoid, java.util.function.Function)
+     */
+    public <R> List<RollupBucket<T, R>> rollup(List<T> boundaries, Monoid<R> monoid, Function<? super V, ? extends R> mapper, BiFunction<? super R, Double, ? extends R> weight) {
+        if (weight == null) {
+            throw new ArgumentNullException("Weight can not be null", "weight");
+        }
+        return rollupSorted(boundaries, monoid, mapper, weight);
+    }
+
+    /**
+     * Roll up series into buckets with fixed step. Boundaries are created from
+     * {@code from} by repeated call of step function until {@code to} is
+     * reached, the last bucket ends at {@code to} (e.g. for Long edges in
+     * milliseconds and hourly buckets step can add 3600000 to edge).
+     *
+     * @param <R> type of aggregated values
+     * @param from start edge of the first bucket
+     * @param to end edge of the last bucket
+     * @param step function to create next boundary from previous one
+     * @param monoid operation to combine mapped values
+     * @param mapper function to map value of pair to aggregated value
+     * @return List of buckets sorted by start edge
+     * @throws ArgumentNullException if any argument is null
+     * @throws IllegalArgumentException if from is not lower than to or step
+     * does not create higher boundary
+     * @see #rollup(java.util.List, net.adamjak.intervals.Monoid, java.util.function.Function)
+     */
+    public <R> List<RollupBucket<T, R>> rollup(T from, T to, UnaryOperator<T> step, Monoid<R> monoid, Function<? super V, ? extends R> mapper) {
+        if (from == null) {
+            throw new ArgumentNullException("From can not be null", "from");
+        }
+        if (to == null) {
+            throw new ArgumentNullException("To can not be null", "to");
+        }
+        if (step == null) {
+            throw new ArgumentNullException("Step can not be null", "step");
+        }
+        if (from.compareTo(to) >= 0) {
+            throw new IllegalArgumentException("From must be lower than to");
+        }
+        List<T> boundaries = new ArrayList<>();
+        T edge = from;
+        while (edge.compareTo(to) < 0) {
+            boundaries.add(edge);
+            T next = step.apply(edge);
+            if (next == null || next.compareTo(edge) <= 0) {
+                throw new IllegalArgumentException("Step must create higher boundary");
             }
-        } else if (s2 == null) {
-            output = 1;
+            edge = next;
+        }
+        boundaries.add(to);
+        return rollupSorted(boundaries, monoid, mapper, null);
+    }
+
+    /**
+     * Create read-only copy of this series stored in flat sorted arrays. Gaps,
+     * extent and total length are computed once. Next changes of this series
+     * are not visible in the frozen series.
+     *
+     * @return frozen copy of this series
+     * @see FrozenIntervalsSeries
+     */
+    public FrozenIntervalsSeries<T, V> freeze() {
+        return new FrozenIntervalsSeries<>(this);
+    }
+
+    /**
+     * Returns the part of series with pairs whose intervals can overlap or
+     * touch given interval. The first pair is the last one which starts before
+     * given interval (it is the only one that can reach given interval from
+     * left side) and the last pair is the last one which starts before or at
+     * end edge of given interval.
+     *
+     * @param interval specified interval
+     * @return sorted view of pairs that can overlap or touch given interval
+     */
+    private NavigableMap<Interval<T>, V> getNeighbours(Interval<T> interval) {
+        if (intervalValueMap.isEmpty()) {
+            return Collections.emptyNavigableMap();
+        }
+        Interval<T> from = null;
+        if (interval.isInfiniteStart() == false) {
+            from = intervalValueMap.lowerKey(new Interval<>(interval.getStart(), interval.getStart()));
+        }
+        if (from == null) {
+            from = intervalValueMap.firstKey();
+        }
+        Interval<T> to;
+        if (interval.isInfiniteEnd()) {
+            to = intervalValueMap.lastKey();
         } else {
-            output = s1.compareTo(s2);
+            to = intervalValueMap.floorKey(new Interval<>(interval.getEnd(), null));
+        }
+        if (to == null || intervalValueMap.comparator().compare(from, to) > 0) {
+            return Collections.emptyNavigableMap();
+        }
+        return intervalValueMap.subMap(from, true, to, true);
+    }
+
+    private <R> List<RollupBucket<T, R>> rollupSorted(List<T> boundaries, Monoid<R> monoid, Function<? super V, ? extends R> mapper, BiFunction<? super R, Double, ? extends R> weight) {
+        if (boundaries == null) {
+            throw new ArgumentNullException("Boundaries can not be null", "boundaries");
+        }
+        if (monoid == null) {
+            throw new ArgumentNullException("Monoid can not be null", "monoid");
+        }
+        if (mapper == null) {
+            throw new ArgumentNullException("Mapper can not be null", "mapper");
+        }
+        for (int i = 0; i < boundaries.size(); i++) {
+            if (boundaries.get(i) == null) {
+                throw new ArgumentNullException("Boundary can not be null", "boundaries");
+            }
+            if (i > 0 && boundaries.get(i - 1).compareTo(boundaries.get(i)) >= 0) {
+                throw new IllegalArgumentException("Boundaries must be sorted in ascending order and distinct");
+            }
+        }
+        List<RollupBucket<T, R>> output = new ArrayList<>(Math.max(boundaries.size() - 1, 0));
+        if (boundaries.size() < 2) {
+            return output;
+        }
+        boolean measurable = Edges.hasMetrics(boundaries.get(0));
+        if (weight != null && measurable == false) {
+            throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+        }
+        List<Entry<Interval<T>, V>> pairs = new ArrayList<>(getNeighbours(new Interval<>(boundaries.get(0), boundaries.get(boundaries.size() - 1))).entrySet());
+        int first = 0;
+        for (int i = 0; i + 1 < boundaries.size(); i++) {
+            T start = boundaries.get(i);
+            T end = boundaries.get(i + 1);
+            while (first < pairs.size() && Edges.compareEndToStart(pairs.get(first).getKey().getEnd(), start) <= 0) {
+                first++;
+            }
+            double covered = 0;
+            int count = 0;
+            R value = monoid.identity();
+            for (int j = first; j < pairs.size(); j++) {
+                Interval<T> interval = pairs.get(j).getKey();
+                if (Edges.compareEndToStart(end, interval.getStart()) <= 0) {
+                    break;
+                }
+                count++;
+                R mapped = mapper.apply(pairs.get(j).getValue());
+                if (measurable) {
+                    T partStart = Edges.compareStarts(interval.getStart(), start) > 0 ? interval.getStart() : start;
+                    T partEnd = Edges.compareEnds(interval.getEnd(), end) < 0 ? interval.getEnd() : end;
+                    double length = Edges.metrics(partEnd) - Edges.metrics(partStart);
+                    covered += length;
+                    if (weight != null) {
+                        double total = (interval.isInfiniteStart() || interval.isInfiniteEnd())
+                                ? Double.POSITIVE_INFINITY
+                                : Edges.metrics(interval.getEnd()) - Edges.metrics(interval.getStart());
+                        mapped = weight.apply(mapped, total == 0 ? 1.0 : length / total);
+                    }
+                }
+                value = monoid.combine(value, mapped);
+            }
+            output.add(new RollupBucket<>(start, end, measurable ? covered : null, count, value));
+        }
+        return output;
+    }
+
+    /**
+     * Merge touching sorted pairs with equal values.
+     *
+     * @param sortedPairs pairs sorted by start edge
+     * @return sorted pairs after merge
+     */
+    private List<Entry<Interval<T>, V>> coalesceSorted(List<Entry<Interval<T>, V>> sortedPairs) {
+        List<Entry<Interval<T>, V>> output = new ArrayList<>(sortedPairs.size());
+        Entry<Interval<T>, V> previous = null;
+        for (Entry<Interval<T>, V> pair : sortedPairs) {
+            if (previous != null && isTouching(previous.getKey(), pair.getKey())
+                    && Objects.equals(previous.getValue(), pair.getValue())) {
+                previous = new SimpleImmutableEntry<>(new Interval<>(previous.getKey().getStart(), pair.getKey().getEnd()), pair.getValue());
+                output.set(output.size() - 1, previous);
+            } else {
+                output.add(pair);
+                previous = pair;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Register index to be updated by changes of this series. Series keeps
+     * only weak references, so index which is not used any more is not kept
+     * in memory by the series.
+     */
+    private <R> AggregationIndex<T, V, R> registerIndex(AggregationIndex<T, V, R> index) {
+        indexes.add(new WeakReference<AggregationIndex<T, V, ?>>(index));
+        return index;
+    }
+
+    private void putIntoIndexes(Interval<T> interval, V value) {
+        for (AggregationIndex<T, V, ?> index : liveIndexes()) {
+            index.put(interval, value);
+        }
+    }
+
+    private void removeFromIndexes(Interval<T> interval) {
+        for (AggregationIndex<T, V, ?> index : liveIndexes()) {
+            index.remove(interval);
+        }
+    }
+
+    private void invalidateIndexes() {
+        for (AggregationIndex<T, V, ?> index : liveIndexes()) {
+            index.invalidate();
+        }
+    }
+
+    /**
+     * Registered indexes which have not been garbage collected, references of
+     * collected indexes are removed.
+     */
+    private List<AggregationIndex<T, V, ?>> liveIndexes() {
+        if (indexes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<AggregationIndex<T, V, ?>> output = new ArrayList<>(indexes.size());
+        Iterator<WeakReference<AggregationIndex<T, V, ?>>> iterator = indexes.iterator();
+        while (iterator.hasNext()) {
+            AggregationIndex<T, V, ?> index = iterator.next().get();
+            if (index == null) {
+                iterator.remove();
+            } else {
+                output.add(index);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Merge pair with given interval with touching pairs with equal values.
+     *
+     * @param interval interval contained in series
+     */
+    private void coalesceAround(Interval<T> interval) {
+        V value = intervalValueMap.get(interval);
+        T start = interval.getStart();
+        T end = interval.getEnd();
+        boolean changed = false;
+        Entry<Interval<T>, V> lower = intervalValueMap.lowerEntry(interval);
+        while (lower != null && isTouching(lower.getKey(), new Interval<>(start, end)) && Objects.equals(lower.getValue(), value)) {
+            removeFromIndexes(lower.getKey());
+            intervalValueMap.remove(lower.getKey());
+            start = lower.getKey().getStart();
+            changed = true;
+            lower = intervalValueMap.lowerEntry(lower.getKey());
+        }
+        Entry<Interval<T>, V> higher = intervalValueMap.higherEntry(interval);
+        while (higher != null && isTouching(new Interval<>(start, end), higher.getKey()) && Objects.equals(higher.getValue(), value)) {
+            removeFromIndexes(higher.getKey());
+            intervalValueMap.remove(higher.getKey());
+            end = higher.getKey().getEnd();
+            changed = true;
+            higher = intervalValueMap.higherEntry(higher.getKey());
+        }
+        if (changed) {
+            version++;
+            removeFromIndexes(interval);
+            putIntoIndexes(new Interval<>(start, end), value);
+            intervalValueMap.remove(interval);
+            intervalValueMap.put(new Interval<>(start, end), value);
+        }
+    }
+
+    /**
+     * Return true if end edge of the first interval is equal to start edge of
+     * the second interval.
+     */
+    private static <T extends Comparable<T>> boolean isTouching(Interval<T> first, Interval<T> second) {
+        return Edges.compareEndToStart(first.getEnd(), second.getStart()) == 0;
+    }
+
+    /**
+     * Cut all pairs of series by given intervals. Pairs of series and given
+     * intervals are sorted, so both are passed only once. Intervals are cut by
+     * the same rules as in {@code erase} method.
+     *
+     * @param eraseIntervals sorted intervals that do not overlap each other
+     * @return sorted pairs that remain after cutting
+     */
+    private List<Entry<Interval<T>, V>> eraseSorted(List<Interval<T>> eraseIntervals) {
+        List<Entry<Interval<T>, V>> output = new ArrayList<>(intervalValueMap.size());
+        int first = 0;
+        for (Entry<Interval<T>, V> pair : intervalValueMap.entrySet()) {
+            Interval<T> rest = pair.getKey();
+            while (first < eraseIntervals.size() && Edges.compareEndToStart(eraseIntervals.get(first).getEnd(), rest.getStart()) <= 0) {
+                first++;
+            }
+            for (int i = first; rest != null && i < eraseIntervals.size(); i++) {
+                Interval<T> eraseInterval = eraseIntervals.get(i);
+                if (Edges.compareEndToStart(rest.getEnd(), eraseInterval.getStart()) <= 0) {
+                    break;
+                }
+                Interval<T> erase = rest.overlap(eraseInterval);
+                if (erase == null || (erase.getStart() != null && erase.getEnd() != null && erase.getStart().compareTo(erase.getEnd()) == 0)) {
+                    continue;
+                }
+                if (erase.isEqualStart(rest) == false) {
+                    output.add(new SimpleImmutableEntry<>(new Interval<>(rest.getStart(), erase.getStart()), pair.getValue()));
+                }
+                rest = erase.isEqualEnd(rest) ? null : new Interval<>(erase.getEnd(), rest.getEnd());
+            }
+            if (rest == pair.getKey()) {
+                output.add(pair);
+            } else if (rest != null) {
+                output.add(new SimpleImmutableEntry<>(rest, pair.getValue()));
+            }
         }
         return output;
     }
 
+    /**
+     * Replace all pairs of the series by given sorted pairs. Pairs are copied
+     * into the series in linear time.
+     *
+     * @param sortedPairs sorted pairs that do not overlap each other
+     */
+    private void replacePairs(List<Entry<Interval<T>, V>> sortedPairs) {
+        ImmutableSortedMap.Builder<Interval<T>, V> builder = new ImmutableSortedMap.Builder<>(intervalValueMap.comparator());
+        for (Entry<Interval<T>, V> pair : sortedPairs) {
+            builder.put(pair);
+        }
+        ImmutableSortedMap<Interval<T>, V> pairs = builder.build();
+        version++;
+        invalidateIndexes();
+        intervalValueMap.clear();
+        intervalValueMap.putAll(pairs);
+    }
+
+    /**
+     * Sort given pairs by the order of this series and test that sorted
+     * intervals do not overlap each other. Because intervals are sorted by
+     * start edge, it is enough to compare every interval with the previous one.
+     *
+     * @param pairs pairs to sort
+     * @return sorted pairs
+     * @throws ArgumentNullException if an interval or a value is null
+     * @throws IllegalOvelapException if two intervals overlap
+     */
+    private TreeMap<Interval<T>, V> sortPairs(Map<Interval<T>, ? extends V> pairs) {
+        TreeMap<Interval<T>, V> sortedPairs = new TreeMap<>(intervalValueMap.comparator());
+        for (Entry<Interval<T>, ? extends V> pair : pairs.entrySet()) {
+            if (pair.getKey() == null) {
+                throw new ArgumentNullException("Interval can not be null", "pairs");
+            }
+            if (pair.getValue() == null) {
+                throw new ArgumentNullException("Value can not be null", "pairs");
+            }
+            sortedPairs.put(pair.getKey(), pair.getValue());
+        }
+        Interval<T> previous = null;
+        for (Interval<T> current : sortedPairs.keySet()) {
+            if (previous != null && Edges.compareEndToStart(previous.getEnd(), current.getStart()) > 0) {
+                throw new IllegalOvelapException("Can not put values if there is overlap between input intervals", current, previous);
+            }
+            previous = current;
+        }
+        return sortedPairs;
+    }
+
+    private static <T extends Comparable<T>> boolean containsPoint(Interval<T> interval, T point, boolean includeEdge) {
+        Interval.PositionAgainstInterval position = interval.positionAgainstInterval(point);
+        if (position == Interval.PositionAgainstInterval.Between) {
+            return true;
+        }
+        return includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd);
+    }
+
+    /**
+     * Returns unmodifiable sorted view of pairs, it is used by other series
+     * built on top of this one.
+     */
+    NavigableMap<Interval<T>, V> navigablePairs() {
+        return Collections.unmodifiableNavigableMap(intervalValueMap);
+    }
+
+    /**
+     * Recompute gaps and extent of the series if series has been changed
+     * since the last computation.
+     */
+    private void updateCache() {
+        if (cacheVersion == version) {
+            return;
+        }
+        List<Interval<T>> gaps = new ArrayList<>();
+        Interval<T> previous = null;
+        for (Interval<T> current : intervalValueMap.keySet()) {
+            if (previous != null && Edges.compareEndToStart(previous.getEnd(), current.getStart()) < 0) {
+                gaps.add(new Interval<>(previous.getEnd(), current.getStart()));
+            }
+            previous = current;
+        }
+        cachedGaps = gaps;
+        cachedExtent = new Interval<>(getStartMinimum(), getEndMaximum());
+        cacheVersion = version;
+    }
+
     private <T> Optional<T> getFirstElement(final Collection<T> c) {
         if (c.isEmpty()) {
             return Optional.absent();
@@ -709,16 +1717,269 @@ public class IntervalsSeries<T extends Comparable<T>, V> {
         return Optional.fromNullable(element);
     }
 
-    private <T> Optional<T> getLastElement(final Collection<T> c) {
-        if (c.isEmpty()) {
-            return Optional.absent();
+    /**
+     * Cursor to find pairs by points (finger search). Cursor works with the
+     * same rules as {@code getValueByPoint}. If the searched point is not lower
+     * than previous one, search continues from the last found position,
+     * otherwise (or if series has been changed) position is found again in the
+     * sorted map. Cursor is not thread safe.
+     *
+     * <p>
+     * Code example:<br>
+     * <code>
+     * IntervalsSeries&lt;Long, String&gt;.PointCursor cursor = series.getPointCursor(false);<br>
+     * for (Long time : sortedTimes) {<br>
+     * &nbsp;&nbsp;&nbsp;&nbsp;if (cursor.seek(time)) {<br>
+     * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;System.out.println(time + " " + cursor.getValue());<br>
+     * &nbsp;&nbsp;&nbsp;&nbsp;}<br>
+     * }<br>
+     * </code>
+     * </p>
+     */
+    public class PointCursor {
+
+        /**
+         * Maximum number of pairs skipped sequentially, longer jumps are found
+         * in the sorted map.
+         */
+        private static final int MAX_SEQUENTIAL_STEPS = 16;
+
+        private final boolean includeEdge;
+        private long cursorVersion = -1;
+        private Iterator<Entry<Interval<T>, V>> iterator;
+        private Entry<Interval<T>, V> current;
+        private T lastPoint;
+        private boolean found;
+
+        private PointCursor(boolean includeEdge) {
+            this.includeEdge = includeEdge;
         }
-        final Iterator<T> itr = c.iterator();
-        T lastElement = itr.next();
-        while (itr.hasNext()) {
-            lastElement = itr.next();
+
+        /**
+         * Move cursor to the pair whose interval contains specified point.
+         *
+         * @param point The point that is used to find pair
+         * @return true if pair has been found, otherwise false
+         * @throws ArgumentNullException if point is null
+         */
+        public boolean seek(T point) {
+            if (point == null) {
+                throw new ArgumentNullException("Search point can not be null", "point");
+            }
+            if (cursorVersion != version || lastPoint == null || point.compareTo(lastPoint) < 0) {
+                reset(point);
+            }
+            lastPoint = point;
+            int steps = 0;
+            while (current != null) {
+                Interval<T> interval = current.getKey();
+                if (containsPoint(interval, point, includeEdge)) {
+                    found = true;
+                    return true;
+                }
+                if (Edges.compareEndToStart(interval.getEnd(), point) > 0) {
+                    break;
+                }
+                if (++steps > MAX_SEQUENTIAL_STEPS) {
+                    reset(point);
+                    steps = 0;
+                } else {
+                    current = iterator.hasNext() ? iterator.next() : null;
+                }
+            }
+            found = false;
+            return false;
+        }
+
+        /**
+         * Return interval of pair found by last call of {@code seek}.
+         *
+         * @return found interval or null if last search has not found pair
+         */
+        public Interval<T> getInterval() {
+            return found ? current.getKey() : null;
+        }
+
+        /**
+         * Return value of pair found by last call of {@code seek}.
+         *
+         * @return found value or null if last search has not found pair
+         */
+        public V getValue() {
+            return found ? current.getValue() : null;
+        }
+
+        private void reset(T point) {
+            cursorVersion = version;
+            current = null;
+            if (intervalValueMap.isEmpty()) {
+                return;
+            }
+            Interval<T> from = intervalValueMap.lowerKey(new Interval<>(point, point));
+            if (from == null) {
+                from = intervalValueMap.firstKey();
+            }
+            iterator = intervalValueMap.tailMap(from, true).entrySet().iterator();
+            current = iterator.next();
+        }
+    }
+
+    /**
+     * Live view of the part of series created by {@code subSeries}. Pairs of
+     * the view are not stored, every call finds them in the sorted map of the
+     * series again, so the view reflects all changes of the series. Iteration
+     * costs O(log n + k) where k is number of pairs in the view, in both
+     * directions.
+     */
+    public class SubSeries implements Iterable<Entry<Interval<T>, V>> {
+
+        private final Interval<T> range;
+        private final boolean clip;
+
+        private SubSeries(Interval<T> range, boolean clip) {
+            this.range = range;
+            this.clip = clip;
+        }
+
+        /**
+         * Return range of the view.
+         *
+         * @return range of the view
+         */
+        public Interval<T> getRange() {
+            return range;
+        }
+
+        /**
+         * Return true if intervals are cut by edges of the range.
+         *
+         * @return true if intervals are cut by edges of the range
+         */
+        public boolean isClipped() {
+            return clip;
+        }
+
+        /**
+         * Returns iterator over pairs of the view sorted by start edge in
+         * ascending order. Iterator does not support remove.
+         *
+         * @return iterator over pairs of the view
+         */
+        @Override
+        public Iterator<Entry<Interval<T>, V>> iterator() {
+            return pairsOf(getNeighbours(range).entrySet().iterator());
+        }
+
+        /**
+         * Returns iterator over pairs of the view sorted by start edge in
+         * descending order. Iterator does not support remove.
+         *
+         * @return iterator over pairs of the view in descending order
+         */
+        public Iterator<Entry<Interval<T>, V>> descendingIterator() {
+            return pairsOf(getNeighbours(range).descendingMap().entrySet().iterator());
+        }
+
+        /**
+         * Return true if no pair is in the view.
+         *
+         * @return true if view is empty
+         */
+        public boolean isEmpty() {
+            return iterator().hasNext() == false;
+        }
+
+        /**
+         * Returns the number of pairs in the view. Pairs are counted by every
+         * call.
+         *
+         * @return the number of pairs in the view
+         */
+        public int size() {
+            int output = 0;
+            for (Iterator<Entry<Interval<T>, V>> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                output++;
+            }
+            return output;
+        }
+
+        /**
+         * Return a List of gaps among intervals of the view.
+         *
+         * @return List of gaps
+         * @see IntervalsSeries#getGaps()
+         */
+        public List<Interval<T>> getGaps() {
+            List<Interval<T>> gaps = new ArrayList<>();
+            Interval<T> previous = null;
+            for (Entry<Interval<T>, V> pair : this) {
+                Interval<T> current = pair.getKey();
+                if (previous != null && Edges.compareEndToStart(previous.getEnd(), current.getStart()) < 0) {
+                    gaps.add(new Interval<>(previous.getEnd(), current.getStart()));
+                }
+                previous = current;
+            }
+            return gaps;
+        }
+
+        /**
+         * Return interval cretaed from start edge of the first interval and end
+         * edge of the last interval of the view.
+         *
+         * @return extent of the view or interval (null, null) if view is
+         * empty, the same as extent of empty series
+         * @see IntervalsSeries#getExtent()
+         */
+        public Interval<T> getExtent() {
+            Iterator<Entry<Interval<T>, V>> first = iterator();
+            if (first.hasNext() == false) {
+                return new Interval<>(null, null);
+            }
+            return new Interval<>(first.next().getKey().getStart(), descendingIterator().next().getKey().getEnd());
+        }
+
+        /**
+         * Return sum of all lengths of intervals of the view.
+         *
+         * @return sum of all lengths of intervals or null if view is empty
+         * @throws UnsupportedOperationException if type of intervals edge does
+         * not support length computation
+         * @see IntervalsSeries#getTotalLength()
+         */
+        public Double getTotalLength() {
+            boolean empty = true;
+            double output = 0;
+            for (Entry<Interval<T>, V> pair : this) {
+                if (empty && pair.getKey().hasLength() == false) {
+                    throw new UnsupportedOperationException("This method can not be used for this type of Interval.");
+                }
+                empty = false;
+                double lenght = pair.getKey().lengthAsDouble();
+                if (lenght == Double.POSITIVE_INFINITY) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                output += lenght;
+            }
+            return empty ? null : output;
+        }
+
+        private Iterator<Entry<Interval<T>, V>> pairsOf(final Iterator<Entry<Interval<T>, V>> neighbours) {
+            return new AbstractIterator<Entry<Interval<T>, V>>() {
+                @Override
+                protected Entry<Interval<T>, V> computeNext() {
+                    while (neighbours.hasNext()) {
+                        Entry<Interval<T>, V> pair = neighbours.next();
+                        if (pair.getKey().isOverlap(range)) {
+                            if (clip) {
+                                return new SimpleImmutableEntry<>(pair.getKey().overlap(range), pair.getValue());
+                            }
+                            return new SimpleImmutableEntry<>(pair);
+                        }
+                    }
+                    return endOfData();
+                }
+            };
         }
-        return Optional.fromNullable(lastElement);
     }
 
 }
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+
+/**
+ * Class writes series into compact binary stream and reads it back. Stream is
+ * written and read through NIO channels by buffer of fixed size, so the whole
+ * stream never has to be kept in memory.
+ *
+ * <p>
+ * Edges are converted to keys by {@link EdgeCodec} and values are written by
+ * {@link ValueSerializer}. Stream starts with magic number, format version,
+ * infinite keys of edge codec and number of pairs (all as varints). Each pair
+ * is written in this way:
+ * </p>
+ * <ul>
+ * <li>flags (1 byte) - infinite start edge, infinite end edge and start edge
+ * equal to previous end edge</li>
+ * <li>start edge - zig-zag varint of difference to the previous written edge,
+ * it is omitted if it is infinite or equal to previous end edge</li>
+ * <li>end edge - zig-zag varint of difference to start edge (or to the
+ * previous written edge if start is infinite), it is omitted if it is
+ * infinite</li>
+ * <li>value - varint length followed by bytes of value</li>
+ * </ul>
+ *
+ * <p>
+ * Edges are sorted, so differences are usually small numbers written into one
+ * or two bytes. Decoder reads channel ahead by its buffer, so the stream should
+ * be the last data in the channel.
+ * </p>
+ *
+ * <p>
+ * Channels have to be blocking, selectable channels in non-blocking mode are
+ * rejected because codec does not wait for readiness of the channel.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see MappedIntervalsSeries
+ */
+public final class IntervalsSeriesCodec<T extends Comparable<T>, V> {
+
+    /**
+     * Default size of buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int MAGIC = 0x534c5643;
+    private static final int FORMAT_VERSION = 1;
+    private static final int INFINITE_START = 1;
+    private static final int INFINITE_END = 2;
+    private static final int SHARED_START = 4;
+    private static final int MAX_VARINT_SIZE = 10;
+
+    private final EdgeCodec<T> edgeCodec;
+    private final ValueSerializer<V> valueSerializer;
+    private final int bufferSize;
+
+    /**
+     * Create codec with default size of buffer.
+     *
+     * @param edgeCodec codec of edges
+     * @param valueSerializer serializer of values
+     * @throws ArgumentNullException if edgeCodec or valueSerializer is null
+     */
+    public IntervalsSeriesCodec(EdgeCodec<T> edgeCodec, ValueSerializer<V> valueSerializer) {
+        this(edgeCodec, valueSerializer, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create codec.
+     *
+     * @param edgeCodec codec of edges
+     * @param valueSerializer serializer of values
+     * @param bufferSize size of buffer used by encoding and decoding
+     * @throws ArgumentNullException if edgeCodec or valueSerializer is null
+     * @throws IllegalArgumentException if bufferSize is lower than 64 bytes
+     */
+    public IntervalsSeriesCodec(EdgeCodec<T> edgeCodec, ValueSerializer<V> valueSerializer, int bufferSize) {
+        if (edgeCodec == null) {
+            throw new ArgumentNullException("Edge codec can not be null", "edgeCodec");
+        }
+        if (valueSerializer == null) {
+            throw new ArgumentNullException("Value serializer can not be null", "valueSerializer");
+        }
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size can not be lower than 64 bytes");
+        }
+        this.edgeCodec = edgeCodec;
+        this.valueSerializer = valueSerializer;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Write series into channel. Channel is not closed.
+     *
+     * @param series series to write
+     * @param channel target channel
+     * @throws ArgumentNullException if series or channel is null
+     * @throws IllegalArgumentException if an edge can not be encoded or if
+     * channel is in non-blocking mode
+     * @throws IOException if channel can not be written
+     */
+    public void encode(IntervalsSeries<T, V> series, WritableByteChannel channel) throws IOException {
+        if (series == null) {
+            throw new ArgumentNullException("Series can not be null", "series");
+        }
+        checkChannel(channel);
+        Encoder encoder = new Encoder(channel);
+        encoder.putVarint(MAGIC);
+        encoder.putVarint(FORMAT_VERSION);
+        encoder.putVarint(zigZag(edgeCodec.getInfiniteStartKey()));
+        encoder.putVarint(zigZag(edgeCodec.getInfiniteEndKey()));
+        encoder.putVarint(series.size());
+        long previous = 0;
+        boolean hasPrevious = false;
+        for (Entry<Interval<T>, V> pair : series.getPairs()) {
+            Interval<T> interval = pair.getKey();
+            long start = edgeCodec.encodeStart(interval.getStart());
+            long end = edgeCodec.encodeEnd(interval.getEnd());
+            int flags = 0;
+            if (interval.isInfiniteStart()) {
+                flags |= INFINITE_START;
+            } else if (hasPrevious && start == previous) {
+                flags |= SHARED_START;
+            }
+            if (interval.isInfiniteEnd()) {
+                flags |= INFINITE_END;
+            }
+            encoder.putByte(flags);
+            if ((flags & (INFINITE_START | SHARED_START)) == 0) {
+                encoder.putVarint(zigZag(start - previous));
+                previous = start;
+            }
+            if ((flags & INFINITE_END) == 0) {
+                encoder.putVarint(zigZag(end - previous));
+                previous = end;
+                hasPrevious = true;
+            } else {
+                hasPrevious = false;
+            }
+            byte[] value = valueSerializer.serialize(pair.getValue());
+            encoder.putVarint(value.length);
+            encoder.putBytes(value);
+        }
+        encoder.flush();
+    }
+
+    /**
+     * Read series from channel. Channel is not closed.
+     *
+     * @param channel source channel
+     * @return read series
+     * @throws ArgumentNullException if channel is null
+     * @throws IllegalArgumentException if edge codec does not match the stream
+     * or if channel is in non-blocking mode
+     * @throws IOException if channel can not be read or stream is not valid
+     */
+    public IntervalsSeries<T, V> decode(ReadableByteChannel channel) throws IOException {
+        final Map<Interval<T>, V> pairs = new LinkedHashMap<>();
+        decode(channel, new BiConsumer<Interval<T>, V>() {
+            @Override
+            public void accept(Interval<T> interval, V value) {
+                pairs.put(interval, value);
+            }
+        });
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    /**
+     * Read pairs from channel and pass them to consumer in sorted order
+     * without building a series. Channel is not closed.
+     *
+     * @param channel source channel
+     * @param consumer consumer of pairs
+     * @throws ArgumentNullException if channel or consumer is null
+     * @throws IllegalArgumentException if edge codec does not match the stream
+     * or if channel is in non-blocking mode
+     * @throws IOException if channel can not be read or stream is not valid
+     */
+    public void decode(ReadableByteChannel channel, BiConsumer<Interval<T>, V> consumer) throws IOException {
+        checkChannel(channel);
+        if (consumer == null) {
+            throw new ArgumentNullException("Consumer can not be null", "consumer");
+        }
+        Decoder decoder = new Decoder(channel);
+        if (decoder.getVarint() != MAGIC) {
+            throw new IOException("Stream does not contain series");
+        }
+        long formatVersion = decoder.getVarint();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + formatVersion);
+        }
+        if (unZigZag(decoder.getVarint()) != edgeCodec.getInfiniteStartKey()
+                || unZigZag(decoder.getVarint()) != edgeCodec.getInfiniteEndKey()) {
+            throw new IllegalArgumentException("Edge codec does not match the stream");
+        }
+        long size = decoder.getVarint();
+        long previous = 0;
+        for (long i = 0; i < size; i++) {
+            int flags = decoder.getByte();
+            if ((flags & ~(INFINITE_START | INFINITE_END | SHARED_START)) != 0) {
+                throw new IOException("Stream contains bad flags " + flags);
+            }
+            long start = edgeCodec.getInfiniteStartKey();
+            if ((flags & INFINITE_START) == 0) {
+                if ((flags & SHARED_START) == 0) {
+                    previous += unZigZag(decoder.getVarint());
+                }
+                start = previous;
+            }
+            long end = edgeCodec.getInfiniteEndKey();
+            if ((flags & INFINITE_END) == 0) {
+                previous += unZigZag(decoder.getVarint());
+                end = previous;
+            }
+            long length = decoder.getVarint();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Stream contains too large value");
+            }
+            byte[] value = decoder.getBytes((int) length);
+            consumer.accept(new Interval<>(edgeCodec.decodeStart(start), edgeCodec.decodeEnd(end)),
+                    valueSerializer.deserialize(ByteBuffer.wrap(value), 0, value.length));
+        }
+    }
+
+    /**
+     * Test that channel is not null and that it is blocking, codec does not
+     * wait for non-blocking channel and it would spin on it.
+     */
+    private static void checkChannel(Channel channel) {
+        if (channel == null) {
+            throw new ArgumentNullException("Channel can not be null", "channel");
+        }
+        if (channel instanceof SelectableChannel && ((SelectableChannel) channel).isBlocking() == false) {
+            throw new IllegalArgumentException("Channel has to be in blocking mode");
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Buffered writer of stream.
+     */
+    private final class Encoder {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+        Encoder(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(int value) throws IOException {
+            reserve(1);
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Write unsigned varint, 7 bits in each byte.
+         */
+        void putVarint(long value) throws IOException {
+            reserve(MAX_VARINT_SIZE);
+            while ((value & ~0x7fL) != 0) {
+                buffer.put((byte) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] value) throws IOException {
+            int offset = 0;
+            while (offset < value.length) {
+                if (buffer.hasRemaining() == false) {
+                    flush();
+                }
+                int length = Math.min(value.length - offset, buffer.remaining());
+                buffer.put(value, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            ((Buffer) buffer).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            ((Buffer) buffer).clear();
+        }
+
+        private void reserve(int length) throws IOException {
+            if (buffer.remaining() < length) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Buffered reader of stream.
+     */
+    private final class Decoder {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+        Decoder(ReadableByteChannel channel) {
+            this.channel = channel;
+            ((Buffer) buffer).flip();
+        }
+
+        int getByte() throws IOException {
+            if (buffer.hasRemaining() == false) {
+                fill();
+            }
+            return buffer.get() & 0xff;
+        }
+
+        /**
+         * Read unsigned varint, 7 bits in each byte.
+         */
+        long getVarint() throws IOException {
+            long output = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int value = getByte();
+                output |= (long) (value & 0x7f) << shift;
+                if ((value & 0x80) == 0) {
+                    return output;
+                }
+            }
+            throw new IOException("Stream contains bad varint");
+        }
+
+        byte[] getBytes(int length) throws IOException {
+            byte[] output = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                if (buffer.hasRemaining() == false) {
+                    fill();
+                }
+                int count = Math.min(length - offset, buffer.remaining());
+                buffer.get(output, offset, count);
+                offset += count;
+            }
+            return output;
+        }
+
+        private void fill() throws IOException {
+            ((Buffer) buffer).clear();
+            int count;
+            do {
+                count = channel.read(buffer);
+            } while (count == 0);
+            ((Buffer) buffer).flip();
+            if (count < 0) {
+                throw new EOFException("Unexpected end of stream");
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.adamjak.intervals;
+
+/**
+ * Receiver of pairs found by
+ * {@link IntervalsSeries#join(net.adamjak.intervals.IntervalsSeries, boolean, net.adamjak.intervals.JoinConsumer)}.
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values of the first series
+ * @param <W> type of values of the second series
+ */
+public interface JoinConsumer<T extends Comparable<T>, V, W> {
+
+    /**
+     * Receive one pair of overlapping intervals. Pairs are received sorted by
+     * start edge of the first interval and then by start edge of the second
+     * interval.
+     *
+     * @param interval interval of the first series
+     * @param value value of the first series
+     * @param otherInterval interval of the second series
+     * @param otherValue value of the second series
+     * @param overlap common part of both intervals, if intervals only touch on
+     * edges then overlap has equal edges
+     */
+    void accept(Interval<T> interval, V value, Interval<T> otherInterval, W otherValue, Interval<T> overlap);
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import net.adamjak.intervals.Interval.PositionAgainstInterval;
+
+/**
+ * Class represents interval with primitive {@code long} edges (typically epoch
+ * milliseconds). It is specialized version of {@code Interval<Long>} that does
+ * not box edges. Infinite start edge is represented by
+ * {@link #INFINITE_START} ({@code Long.MIN_VALUE}) and infinite end edge is
+ * represented by {@link #INFINITE_END} ({@code Long.MAX_VALUE}), so these
+ * values can not be used as finite edges.
+ *
+ * @author Marian Adamjak
+ */
+public final class LongInterval {
+
+    /**
+     * Value of infinite start edge
+     */
+    public static final long INFINITE_START = Long.MIN_VALUE;
+    /**
+     * Value of infinite end edge
+     */
+    public static final long INFINITE_END = Long.MAX_VALUE;
+
+    private final long start;
+    private final long end;
+
+    /**
+     * Create instance from edges. If start &gt; end, then edges will change
+     *
+     * @param start start edge, {@link #INFINITE_START} represents infinity
+     * @param end end edge, {@link #INFINITE_END} represents infinity
+     */
+    public LongInterval(long start, long end) {
+        if (start > end) {
+            this.start = end;
+            this.end = start;
+        } else {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Create instance from interval with {@code Long} edges. Null edges are
+     * converted to infinite edges.
+     *
+     * @param interval input interval
+     * @return new instance
+     * @throws ArgumentNullException if the interval is null
+     */
+    public static LongInterval fromInterval(Interval<Long> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        long start = interval.isInfiniteStart() ? INFINITE_START : interval.getStart();
+        long end = interval.isInfiniteEnd() ? INFINITE_END : interval.getEnd();
+        return new LongInterval(start, end);
+    }
+
+    /**
+     * Return value of start edge.
+     *
+     * @return start edge
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Return value of end edge
+     *
+     * @return end edge
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Informs about infinity of start edge of instace.
+     *
+     * @return true if start edge is {@link #INFINITE_START}, otherwise false
+     */
+    public boolean isInfiniteStart() {
+        return start == INFINITE_START;
+    }
+
+    /**
+     * Informs about infinity of end edge of instace.
+     *
+     * @return true if end edge is {@link #INFINITE_END}, otherwise false
+     */
+    public boolean isInfiniteEnd() {
+        return end == INFINITE_END;
+    }
+
+    /**
+     * Return the position given value against instance
+     *
+     * @param position compared value
+     * @return position against interval
+     * @see Interval#positionAgainstInterval(java.lang.Comparable)
+     */
+    public PositionAgainstInterval positionAgainstInterval(long position) {
+        return positionAgainstInterval(start, end, position);
+    }
+
+    /**
+     * Checks, if is there is any overlap with other interval. If intervals only
+     * touch on edges then no overlap is identified (e.g intervals (10,20) and
+     * (20,30) have no overlap.
+     *
+     * @param other tested interval (if null false is returned)
+     * @return true if overalap other false
+     */
+    public boolean isOverlap(LongInterval other) {
+        if (other == null) {
+            return false;
+        }
+        return start < other.end && other.start < end;
+    }
+
+    /**
+     * Return Length of interval (subtract end - start). If one of edges is
+     * infinite or length is higher than {@code Long.MAX_VALUE}, then
+     * {@code Long.MAX_VALUE} is returned.
+     *
+     * @return subtract end - start
+     */
+    public long getLength() {
+        return length(start, end);
+    }
+
+    /**
+     * Convert instance to interval with {@code Long} edges. Infinite edges are
+     * converted to null.
+     *
+     * @return new interval
+     */
+    public Interval<Long> toInterval() {
+        return new Interval<>(isInfiniteStart() ? null : start, isInfiniteEnd() ? null : end);
+    }
+
+    /**
+     * Return string prepresentation of instance
+     *
+     * @return - string representation of instance
+     */
+    @Override
+    public String toString() {
+        String startStr = (isInfiniteStart()) ? "INF" : Long.toString(start);
+        String endStr = (isInfiniteEnd()) ? "INF" : Long.toString(end);
+        return "Start: " + startStr + " End: " + endStr;
+    }
+
+    /**
+     * Return hash code of instance
+     *
+     * @return - hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + Long.hashCode(this.start);
+        hash = 59 * hash + Long.hashCode(this.end);
+        return hash;
+    }
+
+    /**
+     * Tests if instance is equal to other. Instances are equal if they have the
+     * same edges
+     *
+     * @param other compared object
+     * @return true if other object is LongInterval with the same edges
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == null) {
+            return false;
+        }
+        if (getClass() != other.getClass()) {
+            return false;
+        }
+        final LongInterval otherInterval = (LongInterval) other;
+        return this.start == otherInterval.start && this.end == otherInterval.end;
+    }
+
+    static PositionAgainstInterval positionAgainstInterval(long start, long end, long position) {
+        if (start == end) {
+            if (position < start) {
+                return PositionAgainstInterval.Before;
+            } else if (position == start) {
+                return PositionAgainstInterval.Between;
+            } else {
+                return PositionAgainstInterval.After;
+            }
+        }
+        if (start != INFINITE_START) {
+            if (position < start) {
+                return PositionAgainstInterval.Before;
+            } else if (position == start) {
+                return PositionAgainstInterval.AtStart;
+            }
+        }
+        if (end == INFINITE_END || position < end) {
+            return PositionAgainstInterval.Between;
+        } else if (position == end) {
+            return PositionAgainstInterval.AtEnd;
+        } else {
+            return PositionAgainstInterval.After;
+        }
+    }
+
+    static long length(long start, long end) {
+        if (start == INFINITE_START || end == INFINITE_END) {
+            return Long.MAX_VALUE;
+        }
+        long length = end - start;
+        return (length < 0) ? Long.MAX_VALUE : length;
+    }
+}
@@ -0,0 +1,625 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import net.adamjak.intervals.Interval.PositionAgainstInterval;
+
+/**
+ * Class represents collection of intervals with primitive {@code long} edges
+ * and values related to them. It is specialized version of
+ * {@code IntervalsSeries<Long, V>} with the same rules: registered intervals
+ * must not overlap, but they can touch at edges. Infinite edges are
+ * represented by {@link LongInterval#INFINITE_START} and
+ * {@link LongInterval#INFINITE_END}.
+ *
+ * <p>
+ * Edges are stored in parallel arrays {@code long[]} sorted by start edge.
+ * Because intervals do not overlap, array of end edges is sorted, too. Lookups
+ * use binary search on these arrays and they do not box edges or create any
+ * objects. Pairs can be read without allocation by index of pair, see
+ * {@link #indexOfPoint(long, boolean)}. Put and remove operations shift the
+ * arrays, so they are suitable for series that are read more often than
+ * changed.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <V> type of values
+ * @see IntervalsSeries
+ */
+public class LongIntervalsSeries<V> {
+
+    private final PrimitivePairs<long[]> arrays = new PrimitivePairs<>(long.class);
+
+    /**
+     * Create series from series with {@code Long} edges. Null edges are
+     * converted to infinite edges.
+     *
+     * @param <V> type of values
+     * @param series input series
+     * @return new series with the same pairs
+     * @throws ArgumentNullException if series is null
+     */
+    public static <V> LongIntervalsSeries<V> fromIntervalsSeries(IntervalsSeries<Long, V> series) {
+        if (series == null) {
+            throw new ArgumentNullException("Series can not be null", "series");
+        }
+        LongIntervalsSeries<V> output = new LongIntervalsSeries<>();
+        output.arrays.ensureCapacity(series.size());
+        for (Entry<Interval<Long>, V> pair : series.getPairs()) {
+            LongInterval interval = LongInterval.fromInterval(pair.getKey());
+            output.arrays.starts[output.arrays.size] = interval.getStart();
+            output.arrays.ends[output.arrays.size] = interval.getEnd();
+            output.arrays.values[output.arrays.size] = pair.getValue();
+            output.arrays.size++;
+        }
+        return output;
+    }
+
+    /**
+     * Convert series to series with {@code Long} edges. Infinite edges are
+     * converted to null.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<Long, V> toIntervalsSeries() {
+        Map<Interval<Long>, V> pairs = new HashMap<>();
+        for (int i = 0; i < arrays.size; i++) {
+            pairs.put(getInterval(i).toInterval(), getValueAt(i));
+        }
+        IntervalsSeries<Long, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return arrays.size;
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return arrays.size == 0;
+    }
+
+    /**
+     * Returns the version of this series. Version is changed by every
+     * modification of the series.
+     *
+     * @return the version of this series
+     * @see IntervalsSeries#getVersion()
+     */
+    public long getVersion() {
+        return arrays.version;
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @return true if series contain pair interval-value whit given interval
+     */
+    public boolean containsInterval(long start, long end) {
+        return indexOf(Math.min(start, end), Math.max(start, end)) >= 0;
+    }
+
+    /**
+     * Returns true if this series has one or more intervals with the specified
+     * value.
+     *
+     * @param value value whose presence in this series is to be tested
+     * @return true if this series has one or more intervals with the specified
+     * value
+     */
+    public boolean containsValue(V value) {
+        for (int i = 0; i < arrays.size; i++) {
+            if (Objects.equals(arrays.values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     */
+    public V getValue(long start, long end) {
+        int index = indexOf(Math.min(start, end), Math.max(start, end));
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Return start edge of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return start edge
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public long getStart(int index) {
+        arrays.checkIndex(index);
+        return arrays.starts[index];
+    }
+
+    /**
+     * Return end edge of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return end edge
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public long getEnd(int index) {
+        arrays.checkIndex(index);
+        return arrays.ends[index];
+    }
+
+    /**
+     * Return interval of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return interval
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public LongInterval getInterval(int index) {
+        arrays.checkIndex(index);
+        return new LongInterval(arrays.starts[index], arrays.ends[index]);
+    }
+
+    /**
+     * Return value of pair on given position. Pairs are sorted by start edge.
+     *
+     * @param index position of pair
+     * @return value
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public V getValueAt(int index) {
+        arrays.checkIndex(index);
+        return (V) arrays.values[index];
+    }
+
+    /**
+     * Put new pair (interval - value) into series. If there is pair with given
+     * interval in the series then value will be replaced by given value. If
+     * there is inetrval in series overlaped given interval then
+     * {@link IllegalOvelapException} will be thrown.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @param value value to be associated with the specified interval
+     * @throws ArgumentNullException if value is null
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     */
+    public V putValue(long start, long end, V value) {
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        long low = Math.min(start, end);
+        long high = Math.max(start, end);
+        int index = indexOf(low, high);
+        if (index >= 0) {
+            V output = getValueAt(index);
+            arrays.values[index] = value;
+            arrays.version++;
+            return output;
+        }
+        int first = PrimitivePairs.upperBound(arrays.ends, arrays.size, low);
+        if (first < PrimitivePairs.lowerBound(arrays.starts, arrays.size, high)) {
+            throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series",
+                    new LongInterval(low, high).toInterval(), getInterval(first).toInterval());
+        }
+        index = PrimitivePairs.lowerBound(arrays.starts, arrays.size, low);
+        while (index < arrays.size && arrays.starts[index] == low && arrays.ends[index] < high) {
+            index++;
+        }
+        arrays.insert(index);
+        arrays.starts[index] = low;
+        arrays.ends[index] = high;
+        arrays.values[index] = value;
+        return null;
+    }
+
+    /**
+     * Put new pair (interval - value) into series.
+     *
+     * @param interval interval with which the specified value is to be
+     * associated
+     * @param value value to be associated with the specified interval
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if specified interval or value is null
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @see #putValue(long, long, java.lang.Object)
+     */
+    public V putValue(LongInterval interval, V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return putValue(interval.getStart(), interval.getEnd(), value);
+    }
+
+    /**
+     * Remove specified interval and associated value from this series if
+     * present.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     */
+    public V remove(long start, long end) {
+        int index = indexOf(Math.min(start, end), Math.max(start, end));
+        if (index < 0) {
+            return null;
+        }
+        V output = getValueAt(index);
+        arrays.replace(index, index + 1, null, null, null, 0);
+        return output;
+    }
+
+    /**
+     * Remove all pair interval - value from this series
+     */
+    public void clear() {
+        arrays.clear();
+    }
+
+    /**
+     * Returns a sorted List of the intervals contained in this series.
+     *
+     * @return a List of intervals sorted by start edge
+     */
+    public List<LongInterval> getIntervals() {
+        List<LongInterval> output = new ArrayList<>(arrays.size);
+        for (int i = 0; i < arrays.size; i++) {
+            output.add(new LongInterval(arrays.starts[i], arrays.ends[i]));
+        }
+        return output;
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @throws ArgumentNullException if specified interval is null
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(LongInterval interval, boolean edgesIncluded) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return firstOverlaped(interval.getStart(), edgesIncluded) < lastOverlaped(interval.getEnd(), edgesIncluded);
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in this series is to be tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @throws ArgumentNullException - if specified interval is null
+     * @return a List of intervals that overlap with the specified interval.
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<LongInterval> getOverlapedWith(LongInterval interval, boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int first = firstOverlaped(interval.getStart(), includeEdges);
+        int last = lastOverlaped(interval.getEnd(), includeEdges);
+        List<LongInterval> output = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            output.add(new LongInterval(arrays.starts[i], arrays.ends[i]));
+        }
+        return output;
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<LongInterval> getGaps() {
+        List<LongInterval> output = new ArrayList<>();
+        for (int i = 1; i < arrays.size; i++) {
+            if (arrays.ends[i - 1] < arrays.starts[i]) {
+                output.add(new LongInterval(arrays.ends[i - 1], arrays.starts[i]));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return the lowest start edge of all intervals contained in series. If
+     * series is empty then {@link LongInterval#INFINITE_START} is returned.
+     *
+     * @return the lowest start edge of all intervals contained in series.
+     */
+    public long getStartMinimum() {
+        return isEmpty() ? LongInterval.INFINITE_START : arrays.starts[0];
+    }
+
+    /**
+     * Return the lowest end edge of all intervals contained in series. If
+     * series is empty then {@link LongInterval#INFINITE_END} is returned.
+     *
+     * @return the lowest end edge of all intervals contained in series.
+     */
+    public long getEndMinimum() {
+        return isEmpty() ? LongInterval.INFINITE_END : arrays.ends[0];
+    }
+
+    /**
+     * Return the highest start edge of all intervals contained in series. If
+     * series is empty then {@link LongInterval#INFINITE_START} is returned.
+     *
+     * @return the highest start edge of all intervals contained in series.
+     */
+    public long getStartMaximum() {
+        return isEmpty() ? LongInterval.INFINITE_START : arrays.starts[arrays.size - 1];
+    }
+
+    /**
+     * Return the highest end edge of all intervals contained in series. If
+     * series is empty then {@link LongInterval#INFINITE_END} is returned.
+     *
+     * @return the highest end edge of all intervals contained in series.
+     */
+    public long getEndMaximum() {
+        return isEmpty() ? LongInterval.INFINITE_END : arrays.ends[arrays.size - 1];
+    }
+
+    /**
+     * Return interval cretaed from getStartMinimum and getEndMaximum.
+     *
+     * @return interval cretaed from getStartMinimum and getEndMaximum.
+     */
+    public LongInterval getExtent() {
+        return new LongInterval(getStartMinimum(), getEndMaximum());
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<LongInterval> getIntervalByPoint(long point, boolean includeEdge) {
+        List<LongInterval> output = new ArrayList<>();
+        for (int i = PrimitivePairs.lowerBound(arrays.ends, arrays.size, point); i < arrays.size && arrays.starts[i] <= point; i++) {
+            PositionAgainstInterval position = LongInterval.positionAgainstInterval(arrays.starts[i], arrays.ends[i], point);
+            if (position == PositionAgainstInterval.Between) {
+                output.add(new LongInterval(arrays.starts[i], arrays.ends[i]));
+                return output;
+            }
+            if (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd)) {
+                output.add(new LongInterval(arrays.starts[i], arrays.ends[i]));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Find position of pair whose interval contains specified point. If more
+     * intervals contain the point then position of the lower one is returned.
+     * Method does not create any object.
+     *
+     * @param point The point that is used to find pair
+     * @param includeEdge if it is true then edges are included into test.
+     * @return position of found pair or -1 if no interval contains the point
+     */
+    public int indexOfPoint(long point, boolean includeEdge) {
+        for (int i = PrimitivePairs.lowerBound(arrays.ends, arrays.size, point); i < arrays.size && arrays.starts[i] <= point; i++) {
+            PositionAgainstInterval position = LongInterval.positionAgainstInterval(arrays.starts[i], arrays.ends[i], point);
+            if (position == PositionAgainstInterval.Between
+                    || (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point. Method
+     * does not create any object.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(long point, boolean includeEdge) {
+        int index = indexOfPoint(point, includeEdge);
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Return sum of all lengths of intervals. If one of interval has infinity
+     * edge or the sum is higher than {@code Long.MAX_VALUE}, then
+     * {@code Long.MAX_VALUE} is returned. If series is empty then 0 is
+     * returned.
+     *
+     * @return sum of all lengths of intervals
+     */
+    public long getTotalLength() {
+        long output = 0;
+        for (int i = 0; i < arrays.size; i++) {
+            long length = LongInterval.length(arrays.starts[i], arrays.ends[i]);
+            if (length == Long.MAX_VALUE || output > Long.MAX_VALUE - length) {
+                return Long.MAX_VALUE;
+            }
+            output += length;
+        }
+        return output;
+    }
+
+    /**
+     * Safely changes the edges of interval.
+     *
+     * @param oldInterval current interval
+     * @param newInterval new interval
+     * @return true if opertion is done with change edges, otherwise false
+     * @throws ArgumentNullException if oldInterval or newInterval is null
+     * @see IntervalsSeries#changeEdges(net.adamjak.intervals.Interval, net.adamjak.intervals.Interval)
+     */
+    public boolean changeEdges(LongInterval oldInterval, LongInterval newInterval) {
+        if (oldInterval == null) {
+            throw new ArgumentNullException("oldInterval can not be null", "oldInterval");
+        }
+        if (newInterval == null) {
+            throw new ArgumentNullException("newInterval can not be null", "newInterval");
+        }
+        if (containsInterval(oldInterval.getStart(), oldInterval.getEnd()) == false) {
+            return false;
+        }
+        V value = remove(oldInterval.getStart(), oldInterval.getEnd());
+        if (isOverlapWith(newInterval, false)) {
+            putValue(oldInterval, value);
+            return false;
+        } else {
+            putValue(newInterval, value);
+            return true;
+        }
+    }
+
+    /**
+     * Insert new pair interval-value into series. Erase method with specified
+     * interval is called before. New pair is put into created gap.
+     *
+     * @param start start edge of interval
+     * @param end end edge of interval
+     * @param value value maped with interval
+     * @throws ArgumentNullException if value is null
+     */
+    public void insertNew(long start, long end, V value) {
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        erase(start, end);
+        putValue(start, end, value);
+    }
+
+    /**
+     * Make gap in series. Interval that is fully overlaped by specified
+     * interval will be removed. If the interval is overlaped partialy then its
+     * edges will be chenaged properly.
+     *
+     * @param start start edge of interval to make gap
+     * @param end end edge of interval to make gap
+     * @see IntervalsSeries#erase(net.adamjak.intervals.Interval)
+     */
+    public void erase(long start, long end) {
+        long low = Math.min(start, end);
+        long high = Math.max(start, end);
+        int first = firstOverlaped(low, false);
+        int last = lastOverlaped(high, false);
+        if (first >= last) {
+            return;
+        }
+        int count = 0;
+        long[] newStarts = new long[last - first + 2];
+        long[] newEnds = new long[last - first + 2];
+        Object[] newValues = new Object[last - first + 2];
+        for (int i = first; i < last; i++) {
+            if (Math.max(arrays.starts[i], low) == Math.min(arrays.ends[i], high)) {
+                newStarts[count] = arrays.starts[i];
+                newEnds[count] = arrays.ends[i];
+                newValues[count++] = arrays.values[i];
+                continue;
+            }
+            if (arrays.starts[i] < low) {
+                newStarts[count] = arrays.starts[i];
+                newEnds[count] = low;
+                newValues[count++] = arrays.values[i];
+            }
+            if (high < arrays.ends[i]) {
+                newStarts[count] = high;
+                newEnds[count] = arrays.ends[i];
+                newValues[count++] = arrays.values[i];
+            }
+        }
+        arrays.replace(first, last, newStarts, newEnds, newValues, count);
+    }
+
+    private int indexOf(long start, long end) {
+        for (int i = PrimitivePairs.lowerBound(arrays.starts, arrays.size, start); i < arrays.size && arrays.starts[i] == start; i++) {
+            if (arrays.ends[i] == end) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Position of the first pair that overlaps interval with given start edge.
+     */
+    private int firstOverlaped(long start, boolean includeEdges) {
+        return includeEdges ? PrimitivePairs.lowerBound(arrays.ends, arrays.size, start) : PrimitivePairs.upperBound(arrays.ends, arrays.size, start);
+    }
+
+    /**
+     * Position after the last pair that overlaps interval with given end edge.
+     */
+    private int lastOverlaped(long end, boolean includeEdges) {
+        return includeEdges ? PrimitivePairs.upperBound(arrays.starts, arrays.size, end) : PrimitivePairs.lowerBound(arrays.starts, arrays.size, end);
+    }
+}
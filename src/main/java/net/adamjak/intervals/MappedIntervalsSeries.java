@@ -0,0 +1,755 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import net.adamjak.intervals.Interval.PositionAgainstInterval;
+
+/**
+ * Class represents read-only series stored in a file. The file is mapped into
+ * memory and all queries are answered directly from mapped pages, so opening
+ * of the file does not depend on number of pairs and only touched pages are
+ * read from disk.
+ *
+ * <p>
+ * File is written by {@link #write(IntervalsSeries, Path, EdgeCodec, ValueCodec)}
+ * or {@link #write(IntervalsSeries, Path, EdgeCodec, ValueSerializer)}. All
+ * numbers are little-endian and the file has these sections:
+ * </p>
+ * <ul>
+ * <li>header (128 bytes) - magic number, format version, widths, infinite
+ * keys of edge codec, number of pairs and offsets of sections</li>
+ * <li>start edges - sorted keys of start edges (see {@link EdgeCodec})</li>
+ * <li>end edges - keys of end edges in the same order</li>
+ * <li>sparse index - start and end key (8 + 8 bytes) of every
+ * {@value #INDEX_STRIDE}th pair, it is searched before edge columns so binary
+ * search touches only few pages of edge columns</li>
+ * <li>values - fixed-width slots written by {@link ValueCodec}, or
+ * {@code size + 1} offsets (8 bytes) to value data followed by value data
+ * written by {@link ValueSerializer}</li>
+ * </ul>
+ *
+ * <p>
+ * Mapping is released by garbage collector after the series is closed and it
+ * is not referenced. One section can not be larger than 2 GB.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see OffHeapIntervalsSeries
+ */
+public final class MappedIntervalsSeries<T extends Comparable<T>, V> implements Closeable {
+
+    /**
+     * Number of pairs covered by one entry of sparse index.
+     */
+    public static final int INDEX_STRIDE = 64;
+
+    private static final int MAGIC = 0x534c564d;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 128;
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final FileChannel channel;
+    private final EdgeCodec<T> edgeCodec;
+    private final ValueCodec<V> valueCodec;
+    private final ValueSerializer<V> valueSerializer;
+    private final int size;
+    private final int indexCount;
+    private final ByteBuffer starts;
+    private final ByteBuffer ends;
+    private final ByteBuffer index;
+    private final ByteBuffer values;
+    private final ByteBuffer data;
+
+    private MappedIntervalsSeries(FileChannel channel, EdgeCodec<T> edgeCodec, ValueCodec<V> valueCodec,
+            ValueSerializer<V> valueSerializer) throws IOException {
+        this.channel = channel;
+        this.edgeCodec = edgeCodec;
+        this.valueCodec = valueCodec;
+        this.valueSerializer = valueSerializer;
+        ByteBuffer header = map(channel, 0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("File is not series file");
+        }
+        if (header.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + header.getInt(4));
+        }
+        if (header.getInt(40) != INDEX_STRIDE) {
+            throw new IOException("Unsupported index stride " + header.getInt(40));
+        }
+        if (header.getInt(8) != edgeCodec.getWidth() || header.getLong(16) != edgeCodec.getInfiniteStartKey()
+                || header.getLong(24) != edgeCodec.getInfiniteEndKey()) {
+            throw new IllegalArgumentException("Edge codec does not match the file");
+        }
+        int valueWidth = (valueCodec == null) ? 0 : valueCodec.getWidth();
+        if (header.getInt(12) != valueWidth) {
+            throw new IllegalArgumentException("Value codec does not match the file");
+        }
+        size = (int) header.getLong(32);
+        indexCount = header.getInt(44);
+        long edgesLength = (long) size * edgeCodec.getWidth();
+        starts = map(channel, header.getLong(48), edgesLength);
+        ends = map(channel, header.getLong(56), edgesLength);
+        index = map(channel, header.getLong(64), (long) indexCount * INDEX_ENTRY_SIZE);
+        if (valueCodec != null) {
+            values = map(channel, header.getLong(72), (long) size * valueWidth);
+            data = null;
+        } else {
+            values = map(channel, header.getLong(72), (size + 1L) * 8);
+            data = map(channel, header.getLong(80), header.getLong(88));
+        }
+    }
+
+    /**
+     * Open series file with values in fixed-width slots.
+     *
+     * @param <T> type of edges
+     * @param <V> type of values
+     * @param file series file
+     * @param edgeCodec codec of edges used for writing of file
+     * @param valueCodec codec of values used for writing of file
+     * @return opened series
+     * @throws ArgumentNullException if one of arguments is null
+     * @throws IllegalArgumentException if codecs do not match the file
+     * @throws IOException if file can not be read or it is not series file
+     */
+    public static <T extends Comparable<T>, V> MappedIntervalsSeries<T, V> open(Path file, EdgeCodec<T> edgeCodec,
+            ValueCodec<V> valueCodec) throws IOException {
+        if (valueCodec == null) {
+            throw new ArgumentNullException("Value codec can not be null", "valueCodec");
+        }
+        return open(file, edgeCodec, valueCodec, null);
+    }
+
+    /**
+     * Open series file with values of variable length.
+     *
+     * @param <T> type of edges
+     * @param <V> type of values
+     * @param file series file
+     * @param edgeCodec codec of edges used for writing of file
+     * @param valueSerializer serializer of values used for writing of file
+     * @return opened series
+     * @throws ArgumentNullException if one of arguments is null
+     * @throws IllegalArgumentException if codec or serializer do not match the
+     * file
+     * @throws IOException if file can not be read or it is not series file
+     */
+    public static <T extends Comparable<T>, V> MappedIntervalsSeries<T, V> open(Path file, EdgeCodec<T> edgeCodec,
+            ValueSerializer<V> valueSerializer) throws IOException {
+        if (valueSerializer == null) {
+            throw new ArgumentNullException("Value serializer can not be null", "valueSerializer");
+        }
+        return open(file, edgeCodec, null, valueSerializer);
+    }
+
+    /**
+     * Write series into file, values are written into fixed-width slots.
+     * Dictionary codec can not be used, because its entries are not part of
+     * the file.
+     *
+     * @param <T> type of edges
+     * @param <V> type of values
+     * @param series series to write
+     * @param file target file, it is replaced if it exists
+     * @param edgeCodec codec of edges
+     * @param valueCodec codec of values
+     * @throws ArgumentNullException if one of arguments is null
+     * @throws IllegalArgumentException if an edge can not be encoded or if
+     * dictionary codec is used
+     * @throws IOException if file can not be written
+     */
+    public static <T extends Comparable<T>, V> void write(IntervalsSeries<T, V> series, Path file, EdgeCodec<T> edgeCodec,
+            ValueCodec<V> valueCodec) throws IOException {
+        if (valueCodec == null) {
+            throw new ArgumentNullException("Value codec can not be null", "valueCodec");
+        }
+        if (valueCodec instanceof ValueCodec.Dictionary) {
+            throw new IllegalArgumentException("Dictionary codec can not be used for file, use ValueSerializer");
+        }
+        write(series, file, edgeCodec, valueCodec, null);
+    }
+
+    /**
+     * Write series into file, values are written by serializer as values of
+     * variable length.
+     *
+     * @param <T> type of edges
+     * @param <V> type of values
+     * @param series series to write
+     * @param file target file, it is replaced if it exists
+     * @param edgeCodec codec of edges
+     * @param valueSerializer serializer of values
+     * @throws ArgumentNullException if one of arguments is null
+     * @throws IllegalArgumentException if an edge can not be encoded
+     * @throws IOException if file can not be written
+     */
+    public static <T extends Comparable<T>, V> void write(IntervalsSeries<T, V> series, Path file, EdgeCodec<T> edgeCodec,
+            ValueSerializer<V> valueSerializer) throws IOException {
+        if (valueSerializer == null) {
+            throw new ArgumentNullException("Value serializer can not be null", "valueSerializer");
+        }
+        write(series, file, edgeCodec, null, valueSerializer);
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param interval interval whose presence in this series is to be tested
+     * @return true if series contain pair interval-value whit given interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public boolean containsInterval(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return indexOf(interval) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param interval the interval whose associated value is to be returned
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public V getValue(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int position = indexOf(interval);
+        return (position < 0) ? null : getValueAt(position);
+    }
+
+    /**
+     * Return interval of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param position position of pair
+     * @return interval
+     * @throws IndexOutOfBoundsException if position is out of range
+     */
+    public Interval<T> getInterval(int position) {
+        checkPosition(position);
+        return toInterval(startKey(position), endKey(position));
+    }
+
+    /**
+     * Return value of pair on given position. Pairs are sorted by start edge.
+     *
+     * @param position position of pair
+     * @return value
+     * @throws IndexOutOfBoundsException if position is out of range
+     */
+    public V getValueAt(int position) {
+        checkPosition(position);
+        if (valueCodec != null) {
+            return valueCodec.read(values, position * valueCodec.getWidth());
+        }
+        long from = values.getLong(position << 3);
+        long to = values.getLong((position + 1) << 3);
+        return valueSerializer.deserialize(data, (int) from, (int) (to - from));
+    }
+
+    /**
+     * Returns a sorted List of the intervals contained in this series.
+     *
+     * @return a List of intervals sorted by start edge
+     */
+    public List<Interval<T>> getIntervals() {
+        List<Interval<T>> output = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            output.add(toInterval(startKey(i), endKey(i)));
+        }
+        return output;
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(Interval<T> interval, boolean edgesIncluded) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return search(false, edgeCodec.encodeStart(interval.getStart()), !edgesIncluded)
+                < search(true, edgeCodec.encodeEnd(interval.getEnd()), edgesIncluded);
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<T>> getOverlapedWith(Interval<T> interval, boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int first = search(false, edgeCodec.encodeStart(interval.getStart()), !includeEdges);
+        int last = search(true, edgeCodec.encodeEnd(interval.getEnd()), includeEdges);
+        List<Interval<T>> output = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            output.add(toInterval(startKey(i), endKey(i)));
+        }
+        return output;
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<T>> getGaps() {
+        List<Interval<T>> output = new ArrayList<>();
+        for (int i = 1; i < size; i++) {
+            long end = endKey(i - 1);
+            long start = startKey(i);
+            if (end < start) {
+                output.add(new Interval<>(edgeCodec.decodeEnd(end), edgeCodec.decodeStart(start)));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return the lowest start edge of all intervals contained in series.
+     *
+     * @return the lowest start edge of all intervals contained in series or
+     * null if series is empty or the edge is infinite.
+     */
+    public T getStartMinimum() {
+        return isEmpty() ? null : edgeCodec.decodeStart(startKey(0));
+    }
+
+    /**
+     * Return the highest end edge of all intervals contained in series.
+     *
+     * @return the highest end edge of all intervals contained in series or
+     * null if series is empty or the edge is infinite.
+     */
+    public T getEndMaximum() {
+        return isEmpty() ? null : edgeCodec.decodeEnd(endKey(size - 1));
+    }
+
+    /**
+     * Return interval cretaed from getStartMinimum and getEndMaximum.
+     *
+     * @return interval cretaed from getStartMinimum and getEndMaximum, it is
+     * interval (null, null) if series is empty (the same as in
+     * {@link IntervalsSeries#getExtent()}).
+     */
+    public Interval<T> getExtent() {
+        return isEmpty() ? new Interval<T>(null, null) : toInterval(startKey(0), endKey(size - 1));
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<T>> getIntervalByPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Point can not be null", "point");
+        }
+        long key = edgeCodec.encode(point);
+        List<Interval<T>> output = new ArrayList<>();
+        for (int i = search(false, key, false); i < size && startKey(i) <= key; i++) {
+            PositionAgainstInterval position = OffHeapIntervalsSeries.positionAgainstInterval(startKey(i), endKey(i), key);
+            if (position == PositionAgainstInterval.Between) {
+                output.add(toInterval(startKey(i), endKey(i)));
+                return output;
+            }
+            if (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd)) {
+                output.add(toInterval(startKey(i), endKey(i)));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Find position of pair whose interval contains specified point. If more
+     * intervals contain the point then position of the lower one is returned.
+     *
+     * @param point The point that is used to find pair
+     * @param includeEdge if it is true then edges are included into test.
+     * @return position of found pair or -1 if no interval contains the point
+     * @throws ArgumentNullException if point is null
+     */
+    public int indexOfPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Point can not be null", "point");
+        }
+        long key = edgeCodec.encode(point);
+        for (int i = search(false, key, false); i < size && startKey(i) <= key; i++) {
+            PositionAgainstInterval position = OffHeapIntervalsSeries.positionAgainstInterval(startKey(i), endKey(i), key);
+            if (position == PositionAgainstInterval.Between
+                    || (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(T point, boolean includeEdge) {
+        int position = indexOfPoint(point, includeEdge);
+        return (position < 0) ? null : getValueAt(position);
+    }
+
+    /**
+     * Read whole file into on-heap {@link IntervalsSeries}.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<T, V> toIntervalsSeries() {
+        Map<Interval<T>, V> pairs = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            pairs.put(getInterval(i), getValueAt(i));
+        }
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    /**
+     * Close file of series.
+     *
+     * @throws IOException if file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long startKey(int position) {
+        return edgeCodec.read(starts, position);
+    }
+
+    private long endKey(int position) {
+        return edgeCodec.read(ends, position);
+    }
+
+    private Interval<T> toInterval(long start, long end) {
+        return new Interval<>(edgeCodec.decodeStart(start), edgeCodec.decodeEnd(end));
+    }
+
+    private int indexOf(Interval<T> interval) {
+        long start = edgeCodec.encodeStart(interval.getStart());
+        long end = edgeCodec.encodeEnd(interval.getEnd());
+        for (int i = search(true, start, false); i < size && startKey(i) == start; i++) {
+            if (endKey(i) == end) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Position of the first start (or end) key that is higher or equal to key
+     * (or higher than key if upper is true). Sparse index is searched first,
+     * then only one block of edge column is searched.
+     */
+    private int search(boolean startColumn, long key, boolean upper) {
+        int indexBase = startColumn ? 0 : 8;
+        int low = 0;
+        int high = indexCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long indexKey = index.getLong(middle * INDEX_ENTRY_SIZE + indexBase);
+            if (indexKey < key || (upper && indexKey == key)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        ByteBuffer column = startColumn ? starts : ends;
+        high = Math.min(low * INDEX_STRIDE, size);
+        low = (low == 0) ? 0 : (low - 1) * INDEX_STRIDE + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long columnKey = edgeCodec.read(column, middle);
+            if (columnKey < key || (upper && columnKey == key)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+    }
+
+    private static <T extends Comparable<T>, V> MappedIntervalsSeries<T, V> open(Path file, EdgeCodec<T> edgeCodec,
+            ValueCodec<V> valueCodec, ValueSerializer<V> valueSerializer) throws IOException {
+        if (file == null) {
+            throw new ArgumentNullException("File can not be null", "file");
+        }
+        if (edgeCodec == null) {
+            throw new ArgumentNullException("Edge codec can not be null", "edgeCodec");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("File is not series file");
+            }
+            return new MappedIntervalsSeries<>(channel, edgeCodec, valueCodec, valueSerializer);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Section of file is larger than 2 GB");
+        }
+        return channel.map(MapMode.READ_ONLY, offset, length).order(ORDER);
+    }
+
+    private static <T extends Comparable<T>, V> void write(IntervalsSeries<T, V> series, Path file, EdgeCodec<T> edgeCodec,
+            ValueCodec<V> valueCodec, ValueSerializer<V> valueSerializer) throws IOException {
+        if (series == null) {
+            throw new ArgumentNullException("Series can not be null", "series");
+        }
+        if (file == null) {
+            throw new ArgumentNullException("File can not be null", "file");
+        }
+        if (edgeCodec == null) {
+            throw new ArgumentNullException("Edge codec can not be null", "edgeCodec");
+        }
+        int size = series.size();
+        int edgeWidth = edgeCodec.getWidth();
+        int indexCount = (size + INDEX_STRIDE - 1) / INDEX_STRIDE;
+        long startsOffset = HEADER_SIZE;
+        long endsOffset = startsOffset + (long) size * edgeWidth;
+        long indexOffset = endsOffset + (long) size * edgeWidth;
+        long valuesOffset = indexOffset + (long) indexCount * INDEX_ENTRY_SIZE;
+        long dataOffset = valuesOffset + (long) size * ((valueCodec == null) ? 8 : valueCodec.getWidth())
+                + ((valueCodec == null) ? 8 : 0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            SectionWriter writer = new SectionWriter(channel, startsOffset);
+            for (Entry<Interval<T>, V> pair : series.getPairs()) {
+                writer.putKey(edgeCodec, edgeCodec.encodeStart(pair.getKey().getStart()));
+            }
+            writer.flush(endsOffset);
+            for (Entry<Interval<T>, V> pair : series.getPairs()) {
+                writer.putKey(edgeCodec, edgeCodec.encodeEnd(pair.getKey().getEnd()));
+            }
+            writer.flush(indexOffset);
+            int position = 0;
+            for (Entry<Interval<T>, V> pair : series.getPairs()) {
+                if (position++ % INDEX_STRIDE == 0) {
+                    writer.putLong(edgeCodec.encodeStart(pair.getKey().getStart()));
+                    writer.putLong(edgeCodec.encodeEnd(pair.getKey().getEnd()));
+                }
+            }
+            writer.flush(valuesOffset);
+            long dataLength = 0;
+            if (valueCodec != null) {
+                for (Entry<Interval<T>, V> pair : series.getPairs()) {
+                    writer.putValue(valueCodec, pair.getValue());
+                }
+                writer.flush(dataOffset);
+            } else {
+                SectionWriter dataWriter = new SectionWriter(channel, dataOffset);
+                writer.putLong(0);
+                for (Entry<Interval<T>, V> pair : series.getPairs()) {
+                    byte[] value = valueSerializer.serialize(pair.getValue());
+                    dataWriter.putBytes(value);
+                    dataLength += value.length;
+                    writer.putLong(dataLength);
+                }
+                writer.flush(dataOffset);
+                dataWriter.flush(dataOffset + dataLength);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            header.putInt(0, MAGIC);
+            header.putInt(4, FORMAT_VERSION);
+            header.putInt(8, edgeWidth);
+            header.putInt(12, (valueCodec == null) ? 0 : valueCodec.getWidth());
+            header.putLong(16, edgeCodec.getInfiniteStartKey());
+            header.putLong(24, edgeCodec.getInfiniteEndKey());
+            header.putLong(32, size);
+            header.putInt(40, INDEX_STRIDE);
+            header.putInt(44, indexCount);
+            header.putLong(48, startsOffset);
+            header.putLong(56, endsOffset);
+            header.putLong(64, indexOffset);
+            header.putLong(72, valuesOffset);
+            header.putLong(80, (valueCodec == null) ? dataOffset : -1);
+            header.putLong(88, dataLength);
+            writeFully(channel, header, 0);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Buffered writer of file sections.
+     */
+    private static final class SectionWriter {
+
+        private final FileChannel channel;
+        private final byte[] bytes = new byte[WRITE_BUFFER_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ORDER);
+        private long filePosition;
+        private int used = 0;
+
+        SectionWriter(FileChannel channel, long filePosition) {
+            this.channel = channel;
+            this.filePosition = filePosition;
+        }
+
+        <T extends Comparable<T>> void putKey(EdgeCodec<T> edgeCodec, long key) throws IOException {
+            reserve(edgeCodec.getWidth());
+            if (edgeCodec.getWidth() == 4) {
+                buffer.putInt(used, (int) key);
+            } else {
+                buffer.putLong(used, key);
+            }
+            used += edgeCodec.getWidth();
+        }
+
+        void putLong(long value) throws IOException {
+            reserve(8);
+            buffer.putLong(used, value);
+            used += 8;
+        }
+
+        <V> void putValue(ValueCodec<V> valueCodec, V value) throws IOException {
+            if (value == null) {
+                throw new ArgumentNullException("Value can not be null", "value");
+            }
+            reserve(valueCodec.getWidth());
+            valueCodec.write(buffer, used, value);
+            used += valueCodec.getWidth();
+        }
+
+        void putBytes(byte[] value) throws IOException {
+            int offset = 0;
+            while (offset < value.length) {
+                if (used == bytes.length) {
+                    flush(filePosition + used);
+                }
+                int length = Math.min(value.length - offset, bytes.length - used);
+                System.arraycopy(value, offset, bytes, used, length);
+                used += length;
+                offset += length;
+            }
+        }
+
+        /**
+         * Write buffered bytes and continue at given position of file.
+         */
+        void flush(long nextPosition) throws IOException {
+            writeFully(channel, ByteBuffer.wrap(bytes, 0, used), filePosition);
+            used = 0;
+            filePosition = nextPosition;
+        }
+
+        private void reserve(int length) throws IOException {
+            if (used + length > bytes.length) {
+                if (length > bytes.length) {
+                    throw new IllegalArgumentException("Value is larger than " + bytes.length + " bytes");
+                }
+                flush(filePosition + used);
+            }
+        }
+    }
+}
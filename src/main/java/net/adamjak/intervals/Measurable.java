@@ -39,4 +39,25 @@ public interface Measurable {
      * @return double representation of obejct's value
      */
     Double getMetrics();
+
+    /**
+     * Return measurable value of object as primitive number, so length of
+     * interval can be computed without boxing. Default implementation unboxes
+     * value returned by getMetrics(), implementing class should override it if
+     * value is stored as primitive.
+     * @return double representation of object's value
+     */
+    default double getMetricsAsDouble() {
+        return getMetrics();
+    }
+
+    /**
+     * Return measurable value of object as primitive long (e.g. number of
+     * milliseconds). Default implementation truncates value returned by
+     * getMetricsAsDouble().
+     * @return long representation of object's value
+     */
+    default long getMetricsAsLong() {
+        return (long) getMetricsAsDouble();
+    }
 }
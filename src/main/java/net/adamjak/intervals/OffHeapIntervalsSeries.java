@@ -0,0 +1,727 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import net.adamjak.intervals.Interval.PositionAgainstInterval;
+
+/**
+ * Class represents collection of intervals and values related to them stored
+ * out of Java heap. It has the same rules as {@link IntervalsSeries}:
+ * registered intervals must not overlap, but they can touch at edges.
+ *
+ * <p>
+ * Start edges, end edges and values are stored in three direct
+ * {@link ByteBuffer} columns sorted by start edge. Edges are converted to
+ * fixed-width keys by {@link EdgeCodec} and values are written by
+ * {@link ValueCodec}, so one pair takes only {@code 2 * edgeWidth + valueWidth}
+ * bytes and it does not create any object on heap. Lookups use binary search
+ * over keys. Put and remove have to move the tail of columns, so series is
+ * suitable for data loaded in sorted order (see
+ * {@link #fromIntervalsSeries(IntervalsSeries, EdgeCodec, ValueCodec)}) and
+ * queried many times. One column can not be larger than 2 GB.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see EdgeCodec
+ * @see ValueCodec
+ */
+public class OffHeapIntervalsSeries<T extends Comparable<T>, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final EdgeCodec<T> edgeCodec;
+    private final ValueCodec<V> valueCodec;
+    private ByteBuffer starts;
+    private ByteBuffer ends;
+    private ByteBuffer values;
+    private int capacity = 0;
+    private int size = 0;
+    private long version = 0;
+
+    /**
+     * Create empty series.
+     *
+     * @param edgeCodec codec of edges
+     * @param valueCodec codec of values
+     * @throws ArgumentNullException if one of codecs is null
+     */
+    public OffHeapIntervalsSeries(EdgeCodec<T> edgeCodec, ValueCodec<V> valueCodec) {
+        this(edgeCodec, valueCodec, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create empty series with given initial capacity.
+     *
+     * @param edgeCodec codec of edges
+     * @param valueCodec codec of values
+     * @param initialCapacity number of pairs that can be put without
+     * reallocation of columns
+     * @throws ArgumentNullException if one of codecs is null
+     * @throws IllegalArgumentException if initialCapacity is negative
+     */
+    public OffHeapIntervalsSeries(EdgeCodec<T> edgeCodec, ValueCodec<V> valueCodec, int initialCapacity) {
+        if (edgeCodec == null) {
+            throw new ArgumentNullException("Edge codec can not be null", "edgeCodec");
+        }
+        if (valueCodec == null) {
+            throw new ArgumentNullException("Value codec can not be null", "valueCodec");
+        }
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity can not be negative");
+        }
+        this.edgeCodec = edgeCodec;
+        this.valueCodec = valueCodec;
+        ensureCapacity(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Create series from another series. Pairs are appended in sorted order
+     * without any shifting of columns.
+     *
+     * @param <T> type of edges
+     * @param <V> type of values
+     * @param series input series
+     * @param edgeCodec codec of edges
+     * @param valueCodec codec of values
+     * @return new series with the same pairs
+     * @throws ArgumentNullException if one of arguments is null
+     * @throws IllegalArgumentException if an edge can not be encoded
+     */
+    public static <T extends Comparable<T>, V> OffHeapIntervalsSeries<T, V> fromIntervalsSeries(IntervalsSeries<T, V> series,
+            EdgeCodec<T> edgeCodec, ValueCodec<V> valueCodec) {
+        if (series == null) {
+            throw new ArgumentNullException("Series can not be null", "series");
+        }
+        OffHeapIntervalsSeries<T, V> output = new OffHeapIntervalsSeries<>(edgeCodec, valueCodec, series.size());
+        for (Map.Entry<Interval<T>, V> pair : series.getPairs()) {
+            output.append(edgeCodec.encodeStart(pair.getKey().getStart()), edgeCodec.encodeEnd(pair.getKey().getEnd()), pair.getValue());
+        }
+        return output;
+    }
+
+    /**
+     * Convert series to on-heap {@link IntervalsSeries}.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<T, V> toIntervalsSeries() {
+        Map<Interval<T>, V> pairs = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            pairs.put(getInterval(i), getValueAt(i));
+        }
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    /**
+     * Return codec of edges.
+     *
+     * @return codec of edges
+     */
+    public EdgeCodec<T> getEdgeCodec() {
+        return edgeCodec;
+    }
+
+    /**
+     * Return codec of values.
+     *
+     * @return codec of values
+     */
+    public ValueCodec<V> getValueCodec() {
+        return valueCodec;
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the version of this series. Version is changed by every
+     * modification of the series.
+     *
+     * @return the version of this series
+     * @see IntervalsSeries#getVersion()
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Return number of bytes allocated out of heap by this series.
+     *
+     * @return number of bytes allocated out of heap
+     */
+    public long getAllocatedBytes() {
+        return (long) capacity * (2 * edgeCodec.getWidth() + valueCodec.getWidth());
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param interval interval whose presence in this series is to be tested
+     * @return true if series contain pair interval-value whit given interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public boolean containsInterval(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return indexOf(interval) >= 0;
+    }
+
+    /**
+     * Returns true if this series has one or more intervals with the specified
+     * value.
+     *
+     * @param value value whose presence in this series is to be tested
+     * @return true if this series has one or more intervals with the specified
+     * value
+     */
+    public boolean containsValue(V value) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(getValueAt(i), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param interval the interval whose associated value is to be returned
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public V getValue(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int index = indexOf(interval);
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    /**
+     * Return interval of pair on given position. Pairs are sorted by start
+     * edge.
+     *
+     * @param index position of pair
+     * @return interval
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Interval<T> getInterval(int index) {
+        checkIndex(index);
+        return toInterval(startKey(index), endKey(index));
+    }
+
+    /**
+     * Return value of pair on given position. Pairs are sorted by start edge.
+     *
+     * @param index position of pair
+     * @return value
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public V getValueAt(int index) {
+        checkIndex(index);
+        return valueCodec.read(values, index * valueCodec.getWidth());
+    }
+
+    /**
+     * Put new pair (interval - value) into series. If there is pair with given
+     * interval in the series then value will be replaced by given value. If
+     * there is inetrval in series overlaped given interval then
+     * {@link IllegalOvelapException} will be thrown.
+     *
+     * @param interval interval with which the specified value is to be
+     * associated
+     * @param value value to be associated with the specified interval
+     * @throws ArgumentNullException if interval or value is null
+     * @throws IllegalArgumentException if an edge can not be encoded
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     */
+    public V putValue(Interval<T> interval, V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        long start = edgeCodec.encodeStart(interval.getStart());
+        long end = edgeCodec.encodeEnd(interval.getEnd());
+        int index = indexOf(start, end);
+        if (index >= 0) {
+            V output = getValueAt(index);
+            valueCodec.write(values, index * valueCodec.getWidth(), value);
+            version++;
+            return output;
+        }
+        int first = upperBound(false, start);
+        if (first < lowerBound(true, end)) {
+            throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series",
+                    interval, getInterval(first));
+        }
+        index = lowerBound(true, start);
+        while (index < size && startKey(index) == start && endKey(index) < end) {
+            index++;
+        }
+        ensureCapacity(size + 1);
+        move(index, index + 1, size - index);
+        write(index, start, end, value);
+        size++;
+        version++;
+        return null;
+    }
+
+    /**
+     * Remove specified interval and associated value from this series if
+     * present.
+     *
+     * @param interval interval whose mapping is to be removed from the series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval is null
+     */
+    public V remove(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int index = indexOf(interval);
+        if (index < 0) {
+            return null;
+        }
+        V output = getValueAt(index);
+        move(index + 1, index, size - index - 1);
+        size--;
+        version++;
+        return output;
+    }
+
+    /**
+     * Remove all pair interval - value from this series. Allocated memory is
+     * kept for next pairs.
+     */
+    public void clear() {
+        size = 0;
+        version++;
+    }
+
+    /**
+     * Returns a sorted List of the intervals contained in this series.
+     *
+     * @return a List of intervals sorted by start edge
+     */
+    public List<Interval<T>> getIntervals() {
+        List<Interval<T>> output = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            output.add(toInterval(startKey(i), endKey(i)));
+        }
+        return output;
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(Interval<T> interval, boolean edgesIncluded) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return firstOverlaped(edgeCodec.encodeStart(interval.getStart()), edgesIncluded)
+                < lastOverlaped(edgeCodec.encodeEnd(interval.getEnd()), edgesIncluded);
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<T>> getOverlapedWith(Interval<T> interval, boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int first = firstOverlaped(edgeCodec.encodeStart(interval.getStart()), includeEdges);
+        int last = lastOverlaped(edgeCodec.encodeEnd(interval.getEnd()), includeEdges);
+        List<Interval<T>> output = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            output.add(toInterval(startKey(i), endKey(i)));
+        }
+        return output;
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<T>> getGaps() {
+        List<Interval<T>> output = new ArrayList<>();
+        for (int i = 1; i < size; i++) {
+            long end = endKey(i - 1);
+            long start = startKey(i);
+            if (end < start) {
+                output.add(new Interval<>(edgeCodec.decodeEnd(end), edgeCodec.decodeStart(start)));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return the lowest start edge of all intervals contained in series.
+     *
+     * @return the lowest start edge of all intervals contained in series or
+     * null if series is empty or the edge is infinite.
+     */
+    public T getStartMinimum() {
+        return isEmpty() ? null : edgeCodec.decodeStart(startKey(0));
+    }
+
+    /**
+     * Return the lowest end edge of all intervals contained in series.
+     *
+     * @return the lowest end edge of all intervals contained in series or null
+     * if series is empty or the edge is infinite.
+     */
+    public T getEndMinimum() {
+        return isEmpty() ? null : edgeCodec.decodeEnd(endKey(0));
+    }
+
+    /**
+     * Return the highest start edge of all intervals contained in series.
+     *
+     * @return the highest start edge of all intervals contained in series or
+     * null if series is empty or the edge is infinite.
+     */
+    public T getStartMaximum() {
+        return isEmpty() ? null : edgeCodec.decodeStart(startKey(size - 1));
+    }
+
+    /**
+     * Return the highest end edge of all intervals contained in series.
+     *
+     * @return the highest end edge of all intervals contained in series or
+     * null if series is empty or the edge is infinite.
+     */
+    public T getEndMaximum() {
+        return isEmpty() ? null : edgeCodec.decodeEnd(endKey(size - 1));
+    }
+
+    /**
+     * Return interval cretaed from getStartMinimum and getEndMaximum.
+     *
+     * @return interval cretaed from getStartMinimum and getEndMaximum, it is
+     * interval (null, null) if series is empty (the same as in
+     * {@link IntervalsSeries#getExtent()}).
+     */
+    public Interval<T> getExtent() {
+        return isEmpty() ? new Interval<T>(null, null) : toInterval(startKey(0), endKey(size - 1));
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<T>> getIntervalByPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Point can not be null", "point");
+        }
+        long key = edgeCodec.encode(point);
+        List<Interval<T>> output = new ArrayList<>();
+        for (int i = lowerBound(false, key); i < size && startKey(i) <= key; i++) {
+            PositionAgainstInterval position = positionAgainstInterval(startKey(i), endKey(i), key);
+            if (position == PositionAgainstInterval.Between) {
+                output.add(toInterval(startKey(i), endKey(i)));
+                return output;
+            }
+            if (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd)) {
+                output.add(toInterval(startKey(i), endKey(i)));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Find position of pair whose interval contains specified point. If more
+     * intervals contain the point then position of the lower one is returned.
+     * Method does not create any object.
+     *
+     * @param point The point that is used to find pair
+     * @param includeEdge if it is true then edges are included into test.
+     * @return position of found pair or -1 if no interval contains the point
+     * @throws ArgumentNullException if point is null
+     */
+    public int indexOfPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Point can not be null", "point");
+        }
+        long key = edgeCodec.encode(point);
+        for (int i = lowerBound(false, key); i < size && startKey(i) <= key; i++) {
+            PositionAgainstInterval position = positionAgainstInterval(startKey(i), endKey(i), key);
+            if (position == PositionAgainstInterval.Between
+                    || (includeEdge && position.isIn(PositionAgainstInterval.AtStart, PositionAgainstInterval.AtEnd))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(T point, boolean includeEdge) {
+        int index = indexOfPoint(point, includeEdge);
+        return (index < 0) ? null : getValueAt(index);
+    }
+
+    long startKey(int index) {
+        return edgeCodec.read(starts, index);
+    }
+
+    long endKey(int index) {
+        return edgeCodec.read(ends, index);
+    }
+
+    private Interval<T> toInterval(long start, long end) {
+        return new Interval<>(edgeCodec.decodeStart(start), edgeCodec.decodeEnd(end));
+    }
+
+    private int indexOf(Interval<T> interval) {
+        return indexOf(edgeCodec.encodeStart(interval.getStart()), edgeCodec.encodeEnd(interval.getEnd()));
+    }
+
+    private int indexOf(long start, long end) {
+        for (int i = lowerBound(true, start); i < size && startKey(i) == start; i++) {
+            if (endKey(i) == end) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Position of the first pair that overlaps interval with given start key.
+     */
+    private int firstOverlaped(long start, boolean includeEdges) {
+        return includeEdges ? lowerBound(false, start) : upperBound(false, start);
+    }
+
+    /**
+     * Position after the last pair that overlaps interval with given end key.
+     */
+    private int lastOverlaped(long end, boolean includeEdges) {
+        return includeEdges ? upperBound(true, end) : lowerBound(true, end);
+    }
+
+    /**
+     * Position of the first start (or end) key that is higher or equal to key.
+     */
+    private int lowerBound(boolean startColumn, long key) {
+        ByteBuffer column = startColumn ? starts : ends;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (edgeCodec.read(column, middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Position of the first start (or end) key that is higher than key.
+     */
+    private int upperBound(boolean startColumn, long key) {
+        ByteBuffer column = startColumn ? starts : ends;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (edgeCodec.read(column, middle) <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void append(long start, long end, V value) {
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        ensureCapacity(size + 1);
+        write(size, start, end, value);
+        size++;
+        version++;
+    }
+
+    private void write(int index, long start, long end, V value) {
+        edgeCodec.write(starts, index, start);
+        edgeCodec.write(ends, index, end);
+        valueCodec.write(values, index * valueCodec.getWidth(), value);
+    }
+
+    /**
+     * Move count pairs from position from to position to.
+     */
+    private void move(int from, int to, int count) {
+        int edgeWidth = edgeCodec.getWidth();
+        int valueWidth = valueCodec.getWidth();
+        copyBytes(starts, from * edgeWidth, starts, to * edgeWidth, count * edgeWidth);
+        copyBytes(ends, from * edgeWidth, ends, to * edgeWidth, count * edgeWidth);
+        copyBytes(values, from * valueWidth, values, to * valueWidth, count * valueWidth);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+        int newCapacity = (int) Math.min(Math.max((long) minCapacity, capacity + ((long) capacity >> 1)),
+                Integer.MAX_VALUE / Math.max(edgeCodec.getWidth(), valueCodec.getWidth()));
+        if (newCapacity < minCapacity) {
+            throw new IllegalStateException("Series can not contain more than " + newCapacity + " pairs");
+        }
+        starts = reallocate(starts, newCapacity * edgeCodec.getWidth(), size * edgeCodec.getWidth());
+        ends = reallocate(ends, newCapacity * edgeCodec.getWidth(), size * edgeCodec.getWidth());
+        values = reallocate(values, newCapacity * valueCodec.getWidth(), size * valueCodec.getWidth());
+        capacity = newCapacity;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static ByteBuffer reallocate(ByteBuffer buffer, int newBytes, int usedBytes) {
+        ByteBuffer output = ByteBuffer.allocateDirect(newBytes).order(ByteOrder.nativeOrder());
+        if (buffer != null) {
+            copyBytes(buffer, 0, output, 0, usedBytes);
+        }
+        return output;
+    }
+
+    /**
+     * Copy bytes by absolute positions, source and target can overlap if they
+     * are the same buffer.
+     */
+    static void copyBytes(ByteBuffer source, int from, ByteBuffer target, int to, int length) {
+        if (source == target && from == to) {
+            return;
+        }
+        if (source != target || to < from) {
+            int i = 0;
+            for (; i + 8 <= length; i += 8) {
+                target.putLong(to + i, source.getLong(from + i));
+            }
+            for (; i < length; i++) {
+                target.put(to + i, source.get(from + i));
+            }
+        } else {
+            int i = length;
+            for (; i >= 8; i -= 8) {
+                target.putLong(to + i - 8, source.getLong(from + i - 8));
+            }
+            for (; i > 0; i--) {
+                target.put(to + i - 1, source.get(from + i - 1));
+            }
+        }
+    }
+
+    static PositionAgainstInterval positionAgainstInterval(long start, long end, long position) {
+        if (position < start) {
+            return PositionAgainstInterval.Before;
+        } else if (start == end && position == start) {
+            return PositionAgainstInterval.Between;
+        } else if (position == start) {
+            return PositionAgainstInterval.AtStart;
+        } else if (position < end) {
+            return PositionAgainstInterval.Between;
+        } else if (position == end) {
+            return PositionAgainstInterval.AtEnd;
+        } else {
+            return PositionAgainstInterval.After;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.Comparator;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over pairs of series stored in array sorted by start edge of
+ * intervals. Array is split into halves, so parts are balanced and their sizes
+ * are known exactly.
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ */
+final class PairsSpliterator<T extends Comparable<T>, V> implements Spliterator<Entry<Interval<T>, V>> {
+
+    /**
+     * Characteristics of the spliterator.
+     */
+    static final int CHARACTERISTICS = ORDERED | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+    private final Object[] pairs;
+    private final Comparator<Entry<Interval<T>, V>> comparator;
+    private int index;
+    private final int end;
+
+    /**
+     * Create spliterator over part of array.
+     *
+     * @param pairs pairs sorted by start edge of intervals, array must not be
+     * changed
+     * @param from index of the first pair
+     * @param end index after the last pair
+     */
+    PairsSpliterator(Object[] pairs, int from, int end) {
+        this(pairs, from, end, new Comparator<Entry<Interval<T>, V>>() {
+            private final Comparator<Interval<T>> intervals = Edges.startOrder();
+
+            @Override
+            public int compare(Entry<Interval<T>, V> o1, Entry<Interval<T>, V> o2) {
+                return intervals.compare(o1.getKey(), o2.getKey());
+            }
+        });
+    }
+
+    private PairsSpliterator(Object[] pairs, int from, int end, Comparator<Entry<Interval<T>, V>> comparator) {
+        this.pairs = pairs;
+        this.index = from;
+        this.end = end;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Entry<Interval<T>, V>> action) {
+        Objects.requireNonNull(action);
+        if (index >= end) {
+            return false;
+        }
+        action.accept(pair(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Entry<Interval<T>, V>> action) {
+        Objects.requireNonNull(action);
+        for (; index < end; index++) {
+            action.accept(pair(index));
+        }
+    }
+
+    @Override
+    public Spliterator<Entry<Interval<T>, V>> trySplit() {
+        int middle = (index + end) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        Spliterator<Entry<Interval<T>, V>> prefix = new PairsSpliterator<>(pairs, index, middle, comparator);
+        index = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    @Override
+    public Comparator<? super Entry<Interval<T>, V>> getComparator() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<Interval<T>, V> pair(int position) {
+        return (Entry<Interval<T>, V>) pairs[position];
+    }
+}
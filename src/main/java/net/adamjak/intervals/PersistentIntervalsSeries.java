@@ -0,0 +1,625 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.adamjak.intervals.Interval.IntevalComparison;
+
+/**
+ * Series of intervals and values stored in persistent (immutable) balanced
+ * tree. It has the same rules as {@link IntervalsSeries}: registered
+ * intervals must not overlap, but they can touch at edges.
+ *
+ * <p>
+ * Nodes of the tree are never changed. Every write creates copies of nodes on
+ * the path from root to changed node (O(log n) nodes) and it publishes new root
+ * at the end, so compound writes (e.g. {@code erase} or {@code insertNew}) are
+ * atomic. Writes are synchronized, reads only take current root and they do
+ * not use any lock. Method {@link #snapshot()} returns new series that shares
+ * all nodes with this series in O(1) time, next writes into either series do
+ * not change the other one.
+ * </p>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see IntervalsSeries
+ */
+public class PersistentIntervalsSeries<T extends Comparable<T>, V> {
+
+    private final Comparator<Interval<T>> comparator = Edges.startOrder();
+    private volatile Node<T, V> root;
+
+    /**
+     * Create empty series.
+     */
+    public PersistentIntervalsSeries() {
+        this(null);
+    }
+
+    private PersistentIntervalsSeries(Node<T, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Return snapshot of this series. Snapshot shares nodes with this series,
+     * so it is created in O(1) time and it does not copy any pair. Snapshot is
+     * independent series, writes into this series are not visible in snapshot
+     * and vice versa.
+     *
+     * @return snapshot of this series
+     */
+    public PersistentIntervalsSeries<T, V> snapshot() {
+        return new PersistentIntervalsSeries<>(root);
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param interval interval whose presence in this series is to be tested
+     * @return true if series contain pair interval-value whit given interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public boolean containsInterval(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return find(root, interval) != null;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param interval the interval whose associated value is to be returned
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public V getValue(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        Node<T, V> node = find(root, interval);
+        return (node == null) ? null : node.value;
+    }
+
+    /**
+     * Returns a List of the intervals contained in this series sorted by start
+     * edge.
+     *
+     * @return a sorted List of intervals
+     */
+    public List<Interval<T>> getIntervalsSorted() {
+        List<Node<T, V>> nodes = new ArrayList<>();
+        collectAll(root, nodes);
+        List<Interval<T>> output = new ArrayList<>(nodes.size());
+        for (Node<T, V> node : nodes) {
+            output.add(node.key);
+        }
+        return output;
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(Interval<T> interval, boolean edgesIncluded) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return getOverlaped(root, interval, edgesIncluded).isEmpty() == false;
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<T>> getOverlapedWith(Interval<T> interval, boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return getOverlaped(root, interval, includeEdges);
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<T>> getGaps() {
+        List<Interval<T>> output = new ArrayList<>();
+        Interval<T> previous = null;
+        for (Interval<T> current : getIntervalsSorted()) {
+            if (previous != null && Edges.compareEndToStart(previous.getEnd(), current.getStart()) < 0) {
+                output.add(new Interval<>(previous.getEnd(), current.getStart()));
+            }
+            previous = current;
+        }
+        return output;
+    }
+
+    /**
+     * Return interval cretaed from the lowest start edge and the highest end
+     * edge of intervals contained in series.
+     *
+     * @return extent of series or interval (null, null) if series is empty
+     * @see IntervalsSeries#getExtent()
+     */
+    public Interval<T> getExtent() {
+        Node<T, V> current = root;
+        if (current == null) {
+            return new Interval<>(null, null);
+        }
+        return new Interval<>(first(current).key.getStart(), last(current).key.getEnd());
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<T>> getIntervalByPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        List<Interval<T>> output = new ArrayList<>();
+        for (Node<T, V> node : getNeighbours(root, new Interval<>(point, point))) {
+            Interval.PositionAgainstInterval position = node.key.positionAgainstInterval(point);
+            if (position == Interval.PositionAgainstInterval.Between) {
+                output.add(node.key);
+                return output;
+            }
+            if (includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd)) {
+                output.add(node.key);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(T point, boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        for (Node<T, V> node : getNeighbours(root, new Interval<>(point, point))) {
+            Interval.PositionAgainstInterval position = node.key.positionAgainstInterval(point);
+            if (position == Interval.PositionAgainstInterval.Between
+                    || (includeEdge && position.isIn(Interval.PositionAgainstInterval.AtStart, Interval.PositionAgainstInterval.AtEnd))) {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create copy of this series as {@link IntervalsSeries}.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<T, V> toIntervalsSeries() {
+        List<Node<T, V>> nodes = new ArrayList<>();
+        collectAll(root, nodes);
+        Map<Interval<T>, V> pairs = new LinkedHashMap<>();
+        for (Node<T, V> node : nodes) {
+            pairs.put(node.key, node.value);
+        }
+        IntervalsSeries<T, V> output = new IntervalsSeries<>();
+        output.putAll(pairs);
+        return output;
+    }
+
+    /**
+     * Put new pair (interval - value) into series.
+     *
+     * @param interval interval with which the specified value is to be
+     * associated
+     * @param value value to be associated with the specified interval
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval or value is null
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @see IntervalsSeries#putValue(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public synchronized V putValue(Interval<T> interval, V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        Node<T, V> current = root;
+        Node<T, V> node = find(current, interval);
+        if (node == null) {
+            List<Interval<T>> overlaped = getOverlaped(current, interval, false);
+            if (overlaped.isEmpty() == false) {
+                throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series",
+                        interval, overlaped.get(0));
+            }
+        }
+        root = put(current, interval, value);
+        return (node == null) ? null : node.value;
+    }
+
+    /**
+     * Remove specified interval and associated value from this series if
+     * present.
+     *
+     * @param interval interval whose mapping is to be removed from the series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval is null
+     */
+    public synchronized V remove(Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        Node<T, V> current = root;
+        Node<T, V> node = find(current, interval);
+        if (node == null) {
+            return null;
+        }
+        root = remove(current, interval);
+        return node.value;
+    }
+
+    /**
+     * Remove all pair interval - value from this series
+     */
+    public synchronized void clear() {
+        root = null;
+    }
+
+    /**
+     * Safely changes the edges of interval. Change is atomic.
+     *
+     * @param oldInterval current interval
+     * @param newInterval new interval
+     * @return true if opertion is done with change edges, otherwise false
+     * @throws ArgumentNullException if oldInterval or newInterval is null
+     * @see IntervalsSeries#changeEdges(net.adamjak.intervals.Interval, net.adamjak.intervals.Interval)
+     */
+    public synchronized boolean changeEdges(Interval<T> oldInterval, Interval<T> newInterval) {
+        if (oldInterval == null) {
+            throw new ArgumentNullException("oldInterval can not be null", "oldInterval");
+        }
+        if (newInterval == null) {
+            throw new ArgumentNullException("newInterval can not be null", "newInterval");
+        }
+        Node<T, V> node = find(root, oldInterval);
+        if (node == null) {
+            return false;
+        }
+        Node<T, V> changed = remove(root, oldInterval);
+        if (getOverlaped(changed, newInterval, false).isEmpty() == false) {
+            return false;
+        }
+        root = put(changed, newInterval, node.value);
+        return true;
+    }
+
+    /**
+     * Insert new pair interval-value into series. Erase and put are done
+     * atomically.
+     *
+     * @param interval interval to insert
+     * @param value value maped with interval
+     * @throws ArgumentNullException if interval or value is null
+     * @see IntervalsSeries#insertNew(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public synchronized void insertNew(Interval<T> interval, V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        Node<T, V> erased = erase(root, interval);
+        List<Interval<T>> overlaped = getOverlaped(erased, interval, false);
+        if (overlaped.isEmpty() == false) {
+            throw new IllegalOvelapException("Can not put value if there is overal input interval with another interval in series",
+                    interval, overlaped.get(0));
+        }
+        root = put(erased, interval, value);
+    }
+
+    /**
+     * Make gap in series atomically.
+     *
+     * @param eraseInterval interval to make gap
+     * @throws ArgumentNullException if eraseInterval is null
+     * @see IntervalsSeries#erase(net.adamjak.intervals.Interval)
+     */
+    public synchronized void erase(Interval<T> eraseInterval) {
+        if (eraseInterval == null) {
+            throw new ArgumentNullException("eraseInterval can not be null", "eraseInterval");
+        }
+        root = erase(root, eraseInterval);
+    }
+
+    private Node<T, V> erase(Node<T, V> current, Interval<T> eraseInterval) {
+        for (Interval<T> overlaped : getOverlaped(current, eraseInterval, false)) {
+            Interval<T> erase = overlaped.overlap(eraseInterval);
+            if (erase.getStart() != null && erase.getEnd() != null && erase.getStart().compareTo(erase.getEnd()) == 0) {
+                continue;
+            }
+            V value = find(current, overlaped).value;
+            current = remove(current, overlaped);
+            if (erase.isEqualStart(overlaped) == false) {
+                current = put(current, new Interval<>(overlaped.getStart(), erase.getStart()), value);
+            }
+            if (erase.isEqualEnd(overlaped) == false) {
+                current = put(current, new Interval<>(erase.getEnd(), overlaped.getEnd()), value);
+            }
+        }
+        return current;
+    }
+
+    private List<Interval<T>> getOverlaped(Node<T, V> current, Interval<T> interval, boolean includeEdges) {
+        List<Interval<T>> output = new ArrayList<>();
+        for (Node<T, V> node : getNeighbours(current, interval)) {
+            boolean overlap = includeEdges
+                    ? node.key.compareToOther(interval).isIn(IntevalComparison.AfterAfter, IntevalComparison.BeforeBefore) == false
+                    : node.key.isOverlap(interval);
+            if (overlap) {
+                output.add(node.key);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return sorted nodes that can overlap given interval, it is the same range
+     * as neighbours in {@code IntervalsSeries}.
+     */
+    private List<Node<T, V>> getNeighbours(Node<T, V> current, Interval<T> interval) {
+        List<Node<T, V>> output = new ArrayList<>();
+        if (current == null) {
+            return output;
+        }
+        Node<T, V> from = null;
+        if (interval.isInfiniteStart() == false) {
+            from = lower(current, new Interval<>(interval.getStart(), interval.getStart()), false);
+        }
+        if (from == null) {
+            from = first(current);
+        }
+        Node<T, V> to = interval.isInfiniteEnd() ? last(current) : lower(current, new Interval<T>(interval.getEnd(), null), true);
+        if (to != null && comparator.compare(from.key, to.key) <= 0) {
+            collectRange(current, from.key, to.key, output);
+        }
+        return output;
+    }
+
+    private Node<T, V> find(Node<T, V> node, Interval<T> key) {
+        while (node != null) {
+            int compare = comparator.compare(key, node.key);
+            if (compare == 0) {
+                return node;
+            }
+            node = (compare < 0) ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * The greatest node lower (or lower or equal if inclusive is true) than
+     * given key.
+     */
+    private Node<T, V> lower(Node<T, V> node, Interval<T> key, boolean inclusive) {
+        Node<T, V> output = null;
+        while (node != null) {
+            int compare = comparator.compare(node.key, key);
+            if (compare < 0 || (inclusive && compare == 0)) {
+                output = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return output;
+    }
+
+    private void collectRange(Node<T, V> node, Interval<T> from, Interval<T> to, List<Node<T, V>> output) {
+        if (node == null) {
+            return;
+        }
+        boolean afterFrom = comparator.compare(node.key, from) >= 0;
+        boolean beforeTo = comparator.compare(node.key, to) <= 0;
+        if (afterFrom) {
+            collectRange(node.left, from, to, output);
+        }
+        if (afterFrom && beforeTo) {
+            output.add(node);
+        }
+        if (beforeTo) {
+            collectRange(node.right, from, to, output);
+        }
+    }
+
+    private void collectAll(Node<T, V> node, List<Node<T, V>> output) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, output);
+        output.add(node);
+        collectAll(node.right, output);
+    }
+
+    private Node<T, V> put(Node<T, V> node, Interval<T> key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int compare = comparator.compare(key, node.key);
+        if (compare == 0) {
+            return new Node<>(key, value, node.left, node.right);
+        }
+        if (compare < 0) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        return balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+
+    private Node<T, V> remove(Node<T, V> node, Interval<T> key) {
+        if (node == null) {
+            return null;
+        }
+        int compare = comparator.compare(key, node.key);
+        if (compare < 0) {
+            return balance(node.key, node.value, remove(node.left, key), node.right);
+        }
+        if (compare > 0) {
+            return balance(node.key, node.value, node.left, remove(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<T, V> next = first(node.right);
+        return balance(next.key, next.value, node.left, remove(node.right, next.key));
+    }
+
+    /**
+     * Create node and restore AVL balance by rotations, only new nodes are
+     * created.
+     */
+    private static <T extends Comparable<T>, V> Node<T, V> balance(Interval<T> key, V value, Node<T, V> left, Node<T, V> right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = new Node<>(left.right.key, left.right.value,
+                        new Node<>(left.key, left.value, left.left, left.right.left), left.right.right);
+            }
+            return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = new Node<>(right.left.key, right.left.value, right.left.left,
+                        new Node<>(right.key, right.value, right.left.right, right.right));
+            }
+            return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static <T extends Comparable<T>, V> Node<T, V> first(Node<T, V> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static <T extends Comparable<T>, V> Node<T, V> last(Node<T, V> node) {
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Immutable node of AVL tree.
+     */
+    private static final class Node<T extends Comparable<T>, V> {
+
+        final Interval<T> key;
+        final V value;
+        final Node<T, V> left;
+        final Node<T, V> right;
+        final int height;
+        final int size;
+
+        Node(Interval<T> key, V value, Node<T, V> left, Node<T, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Find intervals that contain many points in one pass. Points are sorted (if
+ * they are not sorted yet) and merged with intervals sorted by start edge, so
+ * every interval and every point is visited only once. Large batches can be
+ * split into parts which are processed in a ForkJoinPool, each part starts by
+ * binary search.
+ *
+ * @author Marian Adamjak
+ */
+final class PointsLookup {
+
+    /**
+     * Number of points processed by one task when lookup runs in pool.
+     */
+    static final int TASK_SIZE = 8192;
+
+    private PointsLookup() {
+    }
+
+    /**
+     * Find position of the interval that contains each point. Intervals are
+     * given by edges sorted by start edge and they must not overlap. The
+     * interval is found by the same rules as in
+     * {@link IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)}.
+     *
+     * @param <T> type of edges
+     * @param starts start edges of intervals sorted by start edge
+     * @param ends end edges of intervals sorted by start edge
+     * @param points points to find
+     * @param includeEdge if it is true then edges are included into test.
+     * @param pool pool used to split work or null to process points in the
+     * current thread
+     * @return positions of found intervals in the same order as points, -1 if
+     * no interval contains the point
+     * @throws ArgumentNullException if points or any point is null
+     */
+    static <T extends Comparable<T>> int[] lookup(Object[] starts, Object[] ends, List<T> points, boolean includeEdge, ForkJoinPool pool) {
+        if (points == null) {
+            throw new ArgumentNullException("Points can not be null", "points");
+        }
+        final Object[] sorted = points.toArray();
+        boolean isSorted = true;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] == null) {
+                throw new ArgumentNullException("Search point can not be null", "points");
+            }
+            if (i > 0 && point(sorted, i - 1).compareTo(point(sorted, i)) > 0) {
+                isSorted = false;
+            }
+        }
+        Integer[] order = null;
+        if (isSorted == false) {
+            order = new Integer[sorted.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return PointsLookup.<T>point(sorted, o1).compareTo(PointsLookup.<T>point(sorted, o2));
+                }
+            });
+        }
+        int[] output = new int[sorted.length];
+        Lookup<T> task = new Lookup<>(starts, ends, sorted, order, includeEdge, output, 0, sorted.length);
+        if (pool == null || sorted.length <= TASK_SIZE) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return output;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> T point(Object[] points, int index) {
+        return (T) points[index];
+    }
+
+    /**
+     * Task that finds intervals for the part of sorted points.
+     *
+     * @param <T> type of edges
+     */
+    private static final class Lookup<T extends Comparable<T>> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] starts;
+        private final Object[] ends;
+        private final Object[] points;
+        private final Integer[] order;
+        private final boolean includeEdge;
+        private final int[] output;
+        private final int from;
+        private final int to;
+
+        Lookup(Object[] starts, Object[] ends, Object[] points, Integer[] order, boolean includeEdge, int[] output, int from, int to) {
+            this.starts = starts;
+            this.ends = ends;
+            this.points = points;
+            this.order = order;
+            this.includeEdge = includeEdge;
+            this.output = output;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TASK_SIZE && getPool() != null) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Lookup<T>(starts, ends, points, order, includeEdge, output, from, middle),
+                        new Lookup<T>(starts, ends, points, order, includeEdge, output, middle, to));
+                return;
+            }
+            if (from == to) {
+                return;
+            }
+            int first = firstReaching(pointAt(from));
+            for (int i = from; i < to; i++) {
+                T point = pointAt(i);
+                while (first < ends.length && compareEnd(first, point) < 0) {
+                    first++;
+                }
+                int found = -1;
+                for (int j = first; j < starts.length && compareStart(j, point) <= 0; j++) {
+                    if (contains(j, point)) {
+                        found = j;
+                        break;
+                    }
+                }
+                output[index(i)] = found;
+            }
+        }
+
+        private int index(int position) {
+            return (order == null) ? position : order[position];
+        }
+
+        private T pointAt(int position) {
+            return PointsLookup.<T>point(points, index(position));
+        }
+
+        /**
+         * Position of the first interval whose end edge is not lower than the
+         * point. End edges of intervals that do not overlap are sorted too.
+         */
+        private int firstReaching(T point) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareEnd(middle, point) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int compareStart(int index, T point) {
+            return Edges.compareStarts(PointsLookup.<T>point(starts, index), point);
+        }
+
+        private int compareEnd(int index, T point) {
+            return Edges.compareEnds(PointsLookup.<T>point(ends, index), point);
+        }
+
+        /**
+         * Test the point by the same rules as
+         * {@link Interval#positionAgainstInterval(java.lang.Comparable)}, the
+         * interval whose edges are equal contains its edge always.
+         */
+        private boolean contains(int index, T point) {
+            int start = compareStart(index, point);
+            int end = compareEnd(index, point);
+            if (start > 0 || end < 0) {
+                return false;
+            }
+            if (start < 0 && end > 0) {
+                return true;
+            }
+            return includeEdge || (start == 0 && end == 0);
+        }
+    }
+}
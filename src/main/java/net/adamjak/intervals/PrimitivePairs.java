@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Parallel arrays of primitive edges and values shared by series with
+ * primitive edges ({@link LongIntervalsSeries} and
+ * {@link DoubleIntervalsSeries}). Arrays are sorted by start edge, class keeps
+ * size and version of the series, grows the arrays and shifts pairs, so the
+ * series only search and compare edges.
+ *
+ * @author Marian Adamjak
+ * @param <A> type of arrays of edges ({@code long[]} or {@code double[]})
+ */
+final class PrimitivePairs<A> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    A starts;
+    A ends;
+    Object[] values = new Object[DEFAULT_CAPACITY];
+    int size = 0;
+    long version = 0;
+
+    /**
+     * Create empty arrays.
+     *
+     * @param edgeType primitive type of edges
+     */
+    PrimitivePairs(Class<?> edgeType) {
+        starts = newArray(edgeType, DEFAULT_CAPACITY);
+        ends = newArray(edgeType, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Shift pairs from given position to make place for new pair. Caller sets
+     * edges and value on the position.
+     */
+    void insert(int index) {
+        ensureCapacity(size + 1);
+        System.arraycopy(starts, index, starts, index + 1, size - index);
+        System.arraycopy(ends, index, ends, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        size++;
+        version++;
+    }
+
+    /**
+     * Replace pairs from position first (inclusive) to last (exclusive) by
+     * given pairs.
+     */
+    void replace(int first, int last, A newStarts, A newEnds, Object[] newValues, int count) {
+        int newSize = size - (last - first) + count;
+        ensureCapacity(newSize);
+        System.arraycopy(starts, last, starts, first + count, size - last);
+        System.arraycopy(ends, last, ends, first + count, size - last);
+        System.arraycopy(values, last, values, first + count, size - last);
+        if (count > 0) {
+            System.arraycopy(newStarts, 0, starts, first, count);
+            System.arraycopy(newEnds, 0, ends, first, count);
+            System.arraycopy(newValues, 0, values, first, count);
+        }
+        if (newSize < size) {
+            Arrays.fill(values, newSize, size, null);
+        }
+        size = newSize;
+        version++;
+    }
+
+    void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        version++;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity <= values.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, values.length + (values.length >> 1));
+        starts = copyOf(starts, newCapacity);
+        ends = copyOf(ends, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private A newArray(Class<?> edgeType, int length) {
+        return (A) Array.newInstance(edgeType, length);
+    }
+
+    private A copyOf(A array, int length) {
+        A output = newArray(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, output, 0, size);
+        return output;
+    }
+
+    /**
+     * Position of the first item that is higher or equal to key.
+     */
+    static int lowerBound(long[] array, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Position of the first item that is higher than key.
+     */
+    static int upperBound(long[] array, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Position of the first item that is higher or equal to key.
+     */
+    static int lowerBound(double[] array, int size, double key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Position of the first item that is higher than key.
+     */
+    static int upperBound(double[] array, int size, double key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+/**
+ * One bucket created by rollup of series (e.g. one hour or one day). Bucket
+ * holds length of its part covered by intervals of series and aggregated
+ * values of intervals that overlap the bucket.
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <R> type of aggregated values
+ * @see IntervalsSeries#rollup(java.util.List, net.adamjak.intervals.Monoid, java.util.function.Function)
+ */
+public final class RollupBucket<T extends Comparable<T>, R> {
+
+    private final T start;
+    private final T end;
+    private final Double coveredLength;
+    private final int count;
+    private final R value;
+
+    RollupBucket(T start, T end, Double coveredLength, int count, R value) {
+        this.start = start;
+        this.end = end;
+        this.coveredLength = coveredLength;
+        this.count = count;
+        this.value = value;
+    }
+
+    /**
+     * Return start edge of bucket.
+     *
+     * @return start edge of bucket
+     */
+    public T getStart() {
+        return start;
+    }
+
+    /**
+     * Return end edge of bucket.
+     *
+     * @return end edge of bucket
+     */
+    public T getEnd() {
+        return end;
+    }
+
+    /**
+     * Return interval cretaed from edges of bucket.
+     *
+     * @return interval of bucket
+     */
+    public Interval<T> getInterval() {
+        return new Interval<>(start, end);
+    }
+
+    /**
+     * Return length of the part of bucket covered by intervals of series.
+     *
+     * @return covered length or null if type of edges does not support length
+     * computation
+     */
+    public Double getCoveredLength() {
+        return coveredLength;
+    }
+
+    /**
+     * Return number of intervals that overlap bucket.
+     *
+     * @return number of intervals that overlap bucket
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Return aggregated value of intervals that overlap bucket.
+     *
+     * @return aggregated value or identity element if no interval overlaps
+     * bucket
+     */
+    public R getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "Start: " + start + " End: " + end + " Covered: " + coveredLength + " Count: " + count + " Value: " + value;
+    }
+}
@@ -0,0 +1,840 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread safe series split into shards by ranges of edges. It has the same
+ * rules as {@link IntervalsSeries}: registered intervals must not overlap, but
+ * they can touch at edges.
+ *
+ * <p>
+ * Shards are defined by sorted boundaries, boundaries {@code b1 < b2} create
+ * shards {@code (-inf, b1)}, {@code (b1, b2)} and {@code (b2, +inf)}. Every
+ * shard has own {@link IntervalsSeries} and own lock. Interval that lies in
+ * one shard (its edges can be equal to boundaries of shard) is stored in the
+ * shard, interval that crosses a boundary is spanning interval and it is
+ * registered in series of spanning intervals of every shard it touches.
+ * </p>
+ *
+ * <p>
+ * There is no global lock, locking works in this way:
+ * </p>
+ * <ul>
+ * <li>write of interval that lies in one shard and does not overlap any
+ * spanning interval takes only write lock of the shard, so writes into
+ * different shards run in parallel</li>
+ * <li>other writes (e.g. erase across a boundary) take write locks of all
+ * touched shards in ascending order, if a spanning interval touched by the
+ * write reaches out of locked shards then locks are released and taken again
+ * for wider range, spanning interval is changed only under write locks of all
+ * shards it touches</li>
+ * <li>reads take read locks of touched shards in ascending order, so reads of
+ * the whole series (e.g. getGaps or getExtent) see consistent state</li>
+ * </ul>
+ *
+ * @author Marian Adamjak
+ * @param <T> type of edges
+ * @param <V> type of values
+ * @see IntervalsSeries
+ */
+public class ShardedIntervalsSeries<T extends Comparable<T>, V> {
+
+    private final Comparator<Interval<T>> comparator = Edges.startOrder();
+    private final List<T> boundaries;
+    private final List<IntervalsSeries<T, V>> shards = new ArrayList<>();
+    private final List<ReadWriteLock> shardLocks = new ArrayList<>();
+    private final List<IntervalsSeries<T, V>> spanning = new ArrayList<>();
+
+    /**
+     * Create empty series with shards defined by given boundaries.
+     *
+     * @param boundaries sorted boundaries of shards, n boundaries create n + 1
+     * shards
+     * @throws ArgumentNullException if boundaries or a boundary is null
+     * @throws IllegalArgumentException if boundaries are not sorted in
+     * ascending order or if they are not distinct
+     */
+    public ShardedIntervalsSeries(List<T> boundaries) {
+        if (boundaries == null) {
+            throw new ArgumentNullException("Boundaries can not be null", "boundaries");
+        }
+        for (int i = 0; i < boundaries.size(); i++) {
+            if (boundaries.get(i) == null) {
+                throw new ArgumentNullException("Boundary can not be null", "boundaries");
+            }
+            if (i > 0 && boundaries.get(i - 1).compareTo(boundaries.get(i)) >= 0) {
+                throw new IllegalArgumentException("Boundaries have to be sorted in ascending order and distinct");
+            }
+        }
+        this.boundaries = Collections.unmodifiableList(new ArrayList<>(boundaries));
+        for (int i = 0; i <= boundaries.size(); i++) {
+            shards.add(new IntervalsSeries<T, V>());
+            spanning.add(new IntervalsSeries<T, V>());
+            shardLocks.add(new ReentrantReadWriteLock());
+        }
+    }
+
+    /**
+     * Return boundaries of shards.
+     *
+     * @return unmodifiable List of boundaries
+     */
+    public List<T> getBoundaries() {
+        return boundaries;
+    }
+
+    /**
+     * Return number of shards.
+     *
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the number of interval-value pairs in this series.
+     *
+     * @return returns the number of interval-value pairs in this series
+     */
+    public int size() {
+        return read(0, shards.size() - 1, new Query<Integer>() {
+            @Override
+            Integer run(int first, int last) {
+                int output = 0;
+                for (int i = first; i <= last; i++) {
+                    output += shards.get(i).size();
+                    for (Interval<T> interval : spanning.get(i).getIntervalsSorted()) {
+                        if (isOwner(i, first, interval)) {
+                            output++;
+                        }
+                    }
+                }
+                return output;
+            }
+        });
+    }
+
+    /**
+     * Return true if series is empty (no interval-value pair is registered)
+     *
+     * @return true if series is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Return true if series contain pair interval-value whit given interval
+     *
+     * @param interval interval whose presence in this series is to be tested
+     * @return true if series contain pair interval-value whit given interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public boolean containsInterval(Interval<T> interval) {
+        return getValue(interval) != null;
+    }
+
+    /**
+     * Returns the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval.
+     *
+     * @param interval the interval whose associated value is to be returned
+     * @return the value to which the specified interval is mapped, or null if
+     * this series contains no mapping for the interval
+     * @throws ArgumentNullException if interval is null
+     */
+    public V getValue(final Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        int shard = startShard(interval.getStart());
+        return read(shard, shard, new Query<V>() {
+            @Override
+            V run(int first, int last) {
+                V output = shards.get(first).getValue(interval);
+                return (output != null) ? output : spanning.get(first).getValue(interval);
+            }
+        });
+    }
+
+    /**
+     * Returns a List of the intervals contained in this series sorted by start
+     * edge.
+     *
+     * @return a sorted List of intervals
+     */
+    public List<Interval<T>> getIntervalsSorted() {
+        return read(0, shards.size() - 1, new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(int first, int last) {
+                return collect(first, last, null, false);
+            }
+        });
+    }
+
+    /**
+     * Return true if specified interval overlaps another intervals in series.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param edgesIncluded control if edges are included into overlap testing.
+     * @return true if specified interval overlaps with another intervals in
+     * series
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#isOverlapWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public boolean isOverlapWith(Interval<T> interval, boolean edgesIncluded) {
+        return getOverlapedWith(interval, edgesIncluded).isEmpty() == false;
+    }
+
+    /**
+     * Returns a List of intervals that overlap with the given interval. Edges
+     * are used to overlap test by {@code includeEdges} argument. Intervals in
+     * the List are sorted by start edge.
+     *
+     * @param interval The interval whose overlap in series is tested
+     * @param includeEdges control if edges are included into overlap testing.
+     * @return a List of intervals that overlap with the specified interval.
+     * @throws ArgumentNullException if specified interval is null
+     * @see IntervalsSeries#getOverlapedWith(net.adamjak.intervals.Interval, boolean)
+     */
+    public List<Interval<T>> getOverlapedWith(final Interval<T> interval, final boolean includeEdges) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return read(firstShard(interval.getStart()), lastShard(interval.getEnd()), new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(int first, int last) {
+                return collect(first, last, interval, includeEdges);
+            }
+        });
+    }
+
+    /**
+     * Return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     *
+     * @return a List of interval(s) that represent gap(s) among intervals
+     * contained in this series.
+     * @see IntervalsSeries#getGaps()
+     */
+    public List<Interval<T>> getGaps() {
+        List<Interval<T>> output = new ArrayList<>();
+        Interval<T> previous = null;
+        for (Interval<T> current : getIntervalsSorted()) {
+            if (previous != null && Edges.compareEndToStart(previous.getEnd(), current.getStart()) < 0) {
+                output.add(new Interval<>(previous.getEnd(), current.getStart()));
+            }
+            previous = current;
+        }
+        return output;
+    }
+
+    /**
+     * Return interval cretaed from the lowest start edge and the highest end
+     * edge of intervals contained in series.
+     *
+     * @return extent of series or interval (null, null) if series is empty
+     * @see IntervalsSeries#getExtent()
+     */
+    public Interval<T> getExtent() {
+        return read(0, shards.size() - 1, new Query<Interval<T>>() {
+            @Override
+            Interval<T> run(int first, int last) {
+                Interval<T> lowest = null;
+                Interval<T> highest = null;
+                for (int i = first; i <= last; i++) {
+                    for (IntervalsSeries<T, V> one : Arrays.asList(shards.get(i), spanning.get(i))) {
+                        if (one.isEmpty()) {
+                            continue;
+                        }
+                        Interval<T> extent = one.getExtent();
+                        if (lowest == null || Edges.compareStarts(extent.getStart(), lowest.getStart()) < 0) {
+                            lowest = extent;
+                        }
+                        if (highest == null || Edges.compareEnds(extent.getEnd(), highest.getEnd()) > 0) {
+                            highest = extent;
+                        }
+                    }
+                }
+                return (lowest == null) ? new Interval<T>(null, null) : new Interval<>(lowest.getStart(), highest.getEnd());
+            }
+        });
+    }
+
+    /**
+     * Find interval(s) from series that contain specified point.
+     *
+     * @param point The point that is used to find interval(s)
+     * @param includeEdge if it is true then edges are included into test.
+     * @return List of found interval(s).
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getIntervalByPoint(java.lang.Comparable, boolean)
+     */
+    public List<Interval<T>> getIntervalByPoint(final T point, final boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        return read(firstShard(point), startShard(point), new Query<List<Interval<T>>>() {
+            @Override
+            List<Interval<T>> run(int first, int last) {
+                return getIntervalByPoint(first, last, point, includeEdge);
+            }
+        });
+    }
+
+    /**
+     * Find value mapped to the interval that contains specified point.
+     *
+     * @param point The point that is used to find value
+     * @param includeEdge if it is true then edges are included into test.
+     * @return found value or null if no interval contains specified point
+     * @throws ArgumentNullException if point is null
+     * @see IntervalsSeries#getValueByPoint(java.lang.Comparable, boolean)
+     */
+    public V getValueByPoint(final T point, final boolean includeEdge) {
+        if (point == null) {
+            throw new ArgumentNullException("Search point can not be null", "point");
+        }
+        return read(firstShard(point), startShard(point), new Query<V>() {
+            @Override
+            V run(int first, int last) {
+                List<Interval<T>> found = getIntervalByPoint(first, last, point, includeEdge);
+                if (found.isEmpty()) {
+                    return null;
+                }
+                for (int i = first; i <= last; i++) {
+                    V output = shards.get(i).getValue(found.get(0));
+                    if (output == null) {
+                        output = spanning.get(i).getValue(found.get(0));
+                    }
+                    if (output != null) {
+                        return output;
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Create copy of this series as {@link IntervalsSeries}. Copy is consistent
+     * snapshot of the series.
+     *
+     * @return new series with the same pairs
+     */
+    public IntervalsSeries<T, V> toIntervalsSeries() {
+        return read(0, shards.size() - 1, new Query<IntervalsSeries<T, V>>() {
+            @Override
+            IntervalsSeries<T, V> run(int first, int last) {
+                IntervalsSeries<T, V> output = new IntervalsSeries<>();
+                for (int i = first; i <= last; i++) {
+                    output.putAll(shards.get(i).navigablePairs());
+                    for (Entry<Interval<T>, V> pair : spanning.get(i).navigablePairs().entrySet()) {
+                        if (isOwner(i, first, pair.getKey())) {
+                            output.putValue(pair.getKey(), pair.getValue());
+                        }
+                    }
+                }
+                return output;
+            }
+        });
+    }
+
+    /**
+     * Put new pair (interval - value) into series.
+     *
+     * @param interval interval with which the specified value is to be
+     * associated
+     * @param value value to be associated with the specified interval
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval or value is null
+     * @throws IllegalOvelapException if specified interval overlaps another
+     * interval in series
+     * @see IntervalsSeries#putValue(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public V putValue(final Interval<T> interval, final V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return write(Collections.singletonList(interval), new Operation<V>() {
+            @Override
+            V run(IntervalsSeries<T, V> series) {
+                return series.putValue(interval, value);
+            }
+        });
+    }
+
+    /**
+     * Put all pairs from given map into series atomically. Pairs are put under
+     * write locks of all shards from the first to the last given interval.
+     *
+     * @param pairs map with intervals and values to be put into series
+     * @throws ArgumentNullException if pairs, an interval or a value is null
+     * @throws IllegalOvelapException if two given intervals overlap or a given
+     * interval overlaps another interval in series
+     * @see IntervalsSeries#putAll(java.util.Map)
+     */
+    public void putAll(final Map<Interval<T>, ? extends V> pairs) {
+        if (pairs == null) {
+            throw new ArgumentNullException("Pairs can not be null", "pairs");
+        }
+        for (Interval<T> interval : pairs.keySet()) {
+            if (interval == null) {
+                throw new ArgumentNullException("Interval can not be null", "pairs");
+            }
+        }
+        if (pairs.isEmpty()) {
+            return;
+        }
+        writeAcross(new ArrayList<>(pairs.keySet()), new Operation<Void>() {
+            @Override
+            Void run(IntervalsSeries<T, V> series) {
+                series.putAll(pairs);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Remove specified interval and associated value from this series if
+     * present.
+     *
+     * @param interval interval whose mapping is to be removed from the series
+     * @return the previous value associated with interval or null if there was
+     * no mapping interval.
+     * @throws ArgumentNullException if interval is null
+     */
+    public V remove(final Interval<T> interval) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        return write(Collections.singletonList(interval), new Operation<V>() {
+            @Override
+            V run(IntervalsSeries<T, V> series) {
+                return series.remove(interval);
+            }
+        });
+    }
+
+    /**
+     * Remove all pair interval - value from this series
+     */
+    public void clear() {
+        lock(0, shards.size() - 1, true);
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                shards.get(i).clear();
+                spanning.get(i).clear();
+            }
+        } finally {
+            unlock(0, shards.size() - 1, true);
+        }
+    }
+
+    /**
+     * Safely changes the edges of interval. Change is atomic.
+     *
+     * @param oldInterval current interval
+     * @param newInterval new interval
+     * @return true if opertion is done with change edges, otherwise false
+     * @throws ArgumentNullException if oldInterval or newInterval is null
+     * @see IntervalsSeries#changeEdges(net.adamjak.intervals.Interval, net.adamjak.intervals.Interval)
+     */
+    public boolean changeEdges(final Interval<T> oldInterval, final Interval<T> newInterval) {
+        if (oldInterval == null) {
+            throw new ArgumentNullException("oldInterval can not be null", "oldInterval");
+        }
+        if (newInterval == null) {
+            throw new ArgumentNullException("newInterval can not be null", "newInterval");
+        }
+        List<Interval<T>> areas = new ArrayList<>();
+        areas.add(oldInterval);
+        areas.add(newInterval);
+        return write(areas, new Operation<Boolean>() {
+            @Override
+            Boolean run(IntervalsSeries<T, V> series) {
+                return series.changeEdges(oldInterval, newInterval);
+            }
+        });
+    }
+
+    /**
+     * Insert new pair interval-value into series. Erase and put are done
+     * atomically.
+     *
+     * @param interval interval to insert
+     * @param value value maped with interval
+     * @throws ArgumentNullException if interval or value is null
+     * @see IntervalsSeries#insertNew(net.adamjak.intervals.Interval, java.lang.Object)
+     */
+    public void insertNew(final Interval<T> interval, final V value) {
+        if (interval == null) {
+            throw new ArgumentNullException("Interval can not be null", "interval");
+        }
+        if (value == null) {
+            throw new ArgumentNullException("Value can not be null", "value");
+        }
+        write(Collections.singletonList(interval), new Operation<Void>() {
+            @Override
+            Void run(IntervalsSeries<T, V> series) {
+                series.insertNew(interval, value);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Make gap in series atomically.
+     *
+     * @param eraseInterval interval to make gap
+     * @throws ArgumentNullException if eraseInterval is null
+     * @see IntervalsSeries#erase(net.adamjak.intervals.Interval)
+     */
+    public void erase(final Interval<T> eraseInterval) {
+        if (eraseInterval == null) {
+            throw new ArgumentNullException("eraseInterval can not be null", "eraseInterval");
+        }
+        write(Collections.singletonList(eraseInterval), new Operation<Void>() {
+            @Override
+            Void run(IntervalsSeries<T, V> series) {
+                series.erase(eraseInterval);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Run query under read locks of shards from first to last.
+     */
+    private <R> R read(int first, int last, Query<R> query) {
+        lock(first, last, false);
+        try {
+            return query.run(first, last);
+        } finally {
+            unlock(first, last, false);
+        }
+    }
+
+    /**
+     * Run write. If all given areas lie in one shard and they do not overlap
+     * spanning intervals then write is done only in the shard under its write
+     * lock, otherwise it is done across shards.
+     */
+    private <R> R write(List<Interval<T>> areas, Operation<R> operation) {
+        int shard = localShard(areas);
+        if (shard >= 0) {
+            ReadWriteLock lock = shardLocks.get(shard);
+            lock.writeLock().lock();
+            try {
+                if (overlapsSpanning(shard, areas) == false) {
+                    return operation.run(shards.get(shard));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return writeAcross(areas, operation);
+    }
+
+    /**
+     * Run write under write locks of all shards touched by given areas and by
+     * spanning intervals which touch the areas. Locks are taken in ascending
+     * order, if a spanning interval reaches out of locked shards then locks
+     * are released and range of locked shards is extended.
+     */
+    private <R> R writeAcross(List<Interval<T>> areas, Operation<R> operation) {
+        int first = shards.size() - 1;
+        int last = 0;
+        for (Interval<T> area : areas) {
+            first = Math.min(first, firstShard(area.getStart()));
+            last = Math.max(last, lastShard(area.getEnd()));
+        }
+        while (true) {
+            int lockedFirst = first;
+            int lockedLast = last;
+            lock(lockedFirst, lockedLast, true);
+            try {
+                for (Interval<T> interval : getSpanning(areas).keySet()) {
+                    first = Math.min(first, firstShard(interval.getStart()));
+                    last = Math.max(last, lastShard(interval.getEnd()));
+                }
+                if (first == lockedFirst && last == lockedLast) {
+                    return writeGlobally(areas, operation);
+                }
+            } finally {
+                unlock(lockedFirst, lockedLast, true);
+            }
+        }
+    }
+
+    /**
+     * Run write on temporary series with all intervals that overlap given
+     * areas (edges included) and move result back into shards and spanning
+     * series. It must be called under write locks of all shards touched by
+     * the areas and by spanning intervals which touch the areas. If write
+     * fails then nothing is changed.
+     */
+    private <R> R writeGlobally(List<Interval<T>> areas, Operation<R> operation) {
+        Map<Interval<T>, IntervalsSeries<T, V>> owners = new HashMap<>();
+        Map<Interval<T>, V> pairs = new LinkedHashMap<>();
+        for (Interval<T> area : areas) {
+            for (int i = firstShard(area.getStart()); i <= lastShard(area.getEnd()); i++) {
+                IntervalsSeries<T, V> shard = shards.get(i);
+                for (Interval<T> interval : shard.getOverlapedWith(area, true)) {
+                    owners.put(interval, shard);
+                    pairs.put(interval, shard.getValue(interval));
+                }
+            }
+        }
+        Map<Interval<T>, V> spanningPairs = getSpanning(areas);
+        pairs.putAll(spanningPairs);
+        IntervalsSeries<T, V> temporary = new IntervalsSeries<>();
+        temporary.putAll(pairs);
+        R output = operation.run(temporary);
+        for (Entry<Interval<T>, IntervalsSeries<T, V>> owner : owners.entrySet()) {
+            owner.getValue().remove(owner.getKey());
+        }
+        for (Interval<T> interval : spanningPairs.keySet()) {
+            for (int i = firstShard(interval.getStart()); i <= lastShard(interval.getEnd()); i++) {
+                spanning.get(i).remove(interval);
+            }
+        }
+        for (Entry<Interval<T>, V> pair : temporary.navigablePairs().entrySet()) {
+            int shard = localShard(Collections.singletonList(pair.getKey()));
+            if (shard >= 0) {
+                shards.get(shard).putValue(pair.getKey(), pair.getValue());
+                continue;
+            }
+            for (int i = firstShard(pair.getKey().getStart()); i <= lastShard(pair.getKey().getEnd()); i++) {
+                spanning.get(i).putValue(pair.getKey(), pair.getValue());
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Spanning intervals that overlap given areas (edges included) with their
+     * values. Areas have to be in locked shards.
+     */
+    private Map<Interval<T>, V> getSpanning(List<Interval<T>> areas) {
+        Map<Interval<T>, V> output = new LinkedHashMap<>();
+        for (Interval<T> area : areas) {
+            for (int i = firstShard(area.getStart()); i <= lastShard(area.getEnd()); i++) {
+                IntervalsSeries<T, V> series = spanning.get(i);
+                for (Interval<T> interval : series.getOverlapedWith(area, true)) {
+                    output.put(interval, series.getValue(interval));
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Return true if spanning interval registered in given shard is counted
+     * by read of shards from first. Spanning interval is registered in more
+     * shards, it is counted only in the first of them which is read.
+     */
+    private boolean isOwner(int shard, int first, Interval<T> interval) {
+        return Math.max(first, firstShard(interval.getStart())) == shard;
+    }
+
+    /**
+     * Intervals from shards and spanning series from first to last, which
+     * overlap given area (all intervals if area is null), sorted by start
+     * edge. Intervals of shards and counted spanning intervals are already
+     * sorted, so they are only merged.
+     */
+    private List<Interval<T>> collect(int first, int last, Interval<T> area, boolean includeEdges) {
+        List<Interval<T>> local = new ArrayList<>();
+        List<Interval<T>> across = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            local.addAll(intervalsOf(shards.get(i), area, includeEdges));
+            for (Interval<T> interval : intervalsOf(spanning.get(i), area, includeEdges)) {
+                if (isOwner(i, first, interval)) {
+                    across.add(interval);
+                }
+            }
+        }
+        if (across.isEmpty()) {
+            return local;
+        }
+        List<Interval<T>> output = new ArrayList<>(local.size() + across.size());
+        int l = 0;
+        int a = 0;
+        while (l < local.size() && a < across.size()) {
+            if (comparator.compare(local.get(l), across.get(a)) <= 0) {
+                output.add(local.get(l++));
+            } else {
+                output.add(across.get(a++));
+            }
+        }
+        output.addAll(local.subList(l, local.size()));
+        output.addAll(across.subList(a, across.size()));
+        return output;
+    }
+
+    private Collection<Interval<T>> intervalsOf(IntervalsSeries<T, V> series, Interval<T> area, boolean includeEdges) {
+        return (area == null) ? series.getIntervalsSorted() : series.getOverlapedWith(area, includeEdges);
+    }
+
+    private boolean overlapsSpanning(int shard, List<Interval<T>> areas) {
+        for (Interval<T> area : areas) {
+            if (spanning.get(shard).isOverlapWith(area, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Take read or write locks of shards from first to last in ascending
+     * order.
+     */
+    private void lock(int first, int last, boolean write) {
+        for (int i = first; i <= last; i++) {
+            ReadWriteLock lock = shardLocks.get(i);
+            (write ? lock.writeLock() : lock.readLock()).lock();
+        }
+    }
+
+    private void unlock(int first, int last, boolean write) {
+        for (int i = last; i >= first; i--) {
+            ReadWriteLock lock = shardLocks.get(i);
+            (write ? lock.writeLock() : lock.readLock()).unlock();
+        }
+    }
+
+    /**
+     * Return shard that contains all given intervals or -1.
+     */
+    private int localShard(List<Interval<T>> areas) {
+        int output = -1;
+        for (Interval<T> area : areas) {
+            int shard = startShard(area.getStart());
+            if (shard < boundaries.size() && Edges.compareEnds(area.getEnd(), boundaries.get(shard)) > 0) {
+                return -1;
+            }
+            if (output >= 0 && output != shard) {
+                return -1;
+            }
+            output = shard;
+        }
+        return output;
+    }
+
+    /**
+     * Shard whose range contains given start edge (or point).
+     */
+    private int startShard(T start) {
+        if (start == null) {
+            return 0;
+        }
+        int low = 0;
+        int high = boundaries.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (boundaries.get(middle).compareTo(start) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The first shard that can contain interval touching given start edge (or
+     * point), it is the previous shard if the edge is equal to boundary.
+     */
+    private int firstShard(T start) {
+        int shard = startShard(start);
+        if (shard > 0 && boundaries.get(shard - 1).compareTo(start) == 0) {
+            shard--;
+        }
+        return shard;
+    }
+
+    /**
+     * The last shard that can contain interval touching given end edge.
+     */
+    private int lastShard(T end) {
+        return (end == null) ? shards.size() - 1 : startShard(end);
+    }
+
+    private List<Interval<T>> getIntervalByPoint(int first, int last, T point, boolean includeEdge) {
+        List<Interval<T>> found = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            found.addAll(shards.get(i).getIntervalByPoint(point, includeEdge));
+            for (Interval<T> interval : spanning.get(i).getIntervalByPoint(point, includeEdge)) {
+                if (isOwner(i, first, interval)) {
+                    found.add(interval);
+                }
+            }
+        }
+        Collections.sort(found, comparator);
+        List<Interval<T>> output = new ArrayList<>();
+        for (Interval<T> interval : found) {
+            output.add(interval);
+            if (interval.positionAgainstInterval(point) == Interval.PositionAgainstInterval.Between) {
+                break;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Read operation over shards (and their spanning series) from first to
+     * last.
+     */
+    private abstract class Query<R> {
+
+        abstract R run(int first, int last);
+    }
+
+    /**
+     * Write operation over one series.
+     */
+    private abstract class Operation<R> {
+
+        abstract R run(IntervalsSeries<T, V> series);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.adamjak.intervals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class writes values of series into fixed-width slots of a buffer and reads
+ * them back. Codecs for {@code Long}, {@code Integer} and {@code Double} values
+ * are provided, values of other types can be stored by dictionary codec (see
+ * {@link #dictionary()}) or by own subclass.
+ *
+ * @author Marian Adamjak
+ * @param <V> type of values
+ * @see OffHeapIntervalsSeries
+ */
+public abstract class ValueCodec<V> {
+
+    /**
+     * Codec for {@code Long} values.
+     */
+    public static final ValueCodec<Long> LONG = new ValueCodec<Long>(8) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Long value) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    /**
+     * Codec for {@code Integer} values.
+     */
+    public static final ValueCodec<Integer> INTEGER = new ValueCodec<Integer>(4) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Integer value) {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    /**
+     * Codec for {@code Double} values.
+     */
+    public static final ValueCodec<Double> DOUBLE = new ValueCodec<Double>(8) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Double value) {
+            buffer.putDouble(offset, value);
+        }
+
+        @Override
+        public Double read(ByteBuffer buffer, int offset) {
+            return buffer.getDouble(offset);
+        }
+    };
+
+    private final int width;
+
+    /**
+     * Create codec with given width of slot.
+     *
+     * @param width number of bytes used by one value
+     * @throws IllegalArgumentException if width is not positive
+     */
+    protected ValueCodec(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Width has to be positive");
+        }
+        this.width = width;
+    }
+
+    /**
+     * Create new dictionary codec. Each distinct value is kept once on heap and
+     * only its 4-byte index is written into buffer. Dictionary is suitable for
+     * values with low cardinality (e.g. tenant or state names). Dictionary
+     * keeps all values that have been ever written and it must not be shared
+     * by series used from different threads.
+     *
+     * @param <V> type of values
+     * @return new empty dictionary codec
+     */
+    public static <V> Dictionary<V> dictionary() {
+        return new Dictionary<>();
+    }
+
+    /**
+     * Return number of bytes used by one value.
+     *
+     * @return number of bytes used by one value
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Write value into buffer.
+     *
+     * @param buffer target buffer
+     * @param offset absolute position of slot in buffer
+     * @param value value to write, it is never null
+     */
+    public abstract void write(ByteBuffer buffer, int offset, V value);
+
+    /**
+     * Read value from buffer.
+     *
+     * @param buffer source buffer
+     * @param offset absolute position of slot in buffer
+     * @return read value
+     */
+    public abstract V read(ByteBuffer buffer, int offset);
+
+    /**
+     * Dictionary codec, values are stored as indexes to list of distinct
+     * values.
+     *
+     * @param <V> type of values
+     */
+    public static final class Dictionary<V> extends ValueCodec<V> {
+
+        private final List<V> entries = new ArrayList<>();
+        private final Map<V, Integer> indexes = new HashMap<>();
+
+        private Dictionary() {
+            super(4);
+        }
+
+        /**
+         * Create dictionary codec with given distinct values, index of value is
+         * its position in the list.
+         *
+         * @param <V> type of values
+         * @param values distinct values
+         * @return new dictionary codec
+         * @throws ArgumentNullException if values or one of them is null
+         * @throws IllegalArgumentException if values are not distinct
+         */
+        public static <V> Dictionary<V> of(List<V> values) {
+            if (values == null) {
+                throw new ArgumentNullException("Values can not be null", "values");
+            }
+            Dictionary<V> output = new Dictionary<>();
+            for (V value : values) {
+                if (value == null) {
+                    throw new ArgumentNullException("Value can not be null", "values");
+                }
+                if (output.indexes.containsKey(value)) {
+                    throw new IllegalArgumentException("Value " + value + " is not distinct");
+                }
+                output.indexOf(value);
+            }
+            return output;
+        }
+
+        /**
+         * Return unmodifiable list of distinct values, index of value is its
+         * position in the list.
+         *
+         * @return list of distinct values
+         */
+        public List<V> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, V value) {
+            buffer.putInt(offset, indexOf(value));
+        }
+
+        @Override
+        public V read(ByteBuffer buffer, int offset) {
+            return entries.get(buffer.getInt(offset));
+        }
+
+        private int indexOf(V value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = entries.size();
+                entries.add(value);
+                indexes.put(value, index);
+            }
+            return index;
+        }
+    }
+}
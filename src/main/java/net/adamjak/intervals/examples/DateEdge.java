@@ -84,6 +84,16 @@ public class DateEdge extends Date implements Measurable, Cloneable {
         return (double) getTime();
     }
 
+    @Override
+    public double getMetricsAsDouble() {
+        return getTime();
+    }
+
+    @Override
+    public long getMetricsAsLong() {
+        return getTime();
+    }
+
     @Override
     public Object clone() {
         return super.clone(); 
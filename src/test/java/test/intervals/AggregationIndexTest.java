@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import net.adamjak.intervals.AggregationIndex;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.Monoid;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class AggregationIndexTest {
+
+    private static final Monoid<String> CONCAT = new Monoid<String>() {
+        @Override
+        public String identity() {
+            return "";
+        }
+
+        @Override
+        public String combine(String first, String second) {
+            return first + second;
+        }
+    };
+
+    private static final Monoid<Double> SUM = new Monoid<Double>() {
+        @Override
+        public Double identity() {
+            return 0.0;
+        }
+
+        @Override
+        public Double combine(Double first, Double second) {
+            return first + second;
+        }
+    };
+
+    /**
+     * Test that index gives the same result as values of getOverlapedWith
+     * combined in order, also after changes of series.
+     */
+    @Test
+    public void testAggregate() {
+        Random random = new Random(22);
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        AggregationIndex<Integer, String, String> index = series.aggregationIndex(CONCAT, new Function<String, String>() {
+            @Override
+            public String apply(String value) {
+                return value + ",";
+            }
+        });
+        assertEquals("Bad method aggregate - empty series", "", index.aggregate());
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                int start = random.nextInt(2000);
+                Interval<Integer> interval = new Interval<>(start, start + 1 + random.nextInt(40));
+                if (random.nextInt(4) == 0) {
+                    series.erase(interval);
+                } else {
+                    series.insertNew(interval, String.valueOf(random.nextInt(100)));
+                }
+            }
+            for (int i = 0; i < 50; i++) {
+                int start = random.nextInt(2100) - 50;
+                Interval<Integer> range = new Interval<>(start, start + random.nextInt(300));
+                StringBuilder expected = new StringBuilder();
+                for (Interval<Integer> interval : series.getOverlapedWith(range, false)) {
+                    expected.append(series.getValue(interval)).append(',');
+                }
+                assertEquals("Bad method aggregate - bad result for " + range, expected.toString(), index.aggregate(range));
+            }
+        }
+    }
+
+    /**
+     * Test that index is updated by changes of series without building the
+     * whole tree again.
+     */
+    @Test
+    public void testIncrementalUpdate() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        for (int i = 0; i < 100; i++) {
+            series.putValue(new Interval<>(i * 10, i * 10 + 5), String.valueOf(i % 10));
+        }
+        final int[] mapped = new int[1];
+        AggregationIndex<Integer, String, String> index = series.aggregationIndex(CONCAT, new Function<String, String>() {
+            @Override
+            public String apply(String value) {
+                mapped[0]++;
+                return value;
+            }
+        });
+        assertEquals("Bad method aggregate - bad result", "123", index.aggregate(new Interval<>(11, 38)));
+        assertEquals("Bad method aggregate - tree has not been built", 100, mapped[0]);
+        series.putValue(new Interval<>(25, 30), "x");
+        series.remove(new Interval<>(30, 35));
+        series.insertNew(new Interval<>(12, 22), "y");
+        assertEquals("Bad method aggregate - bad result after changes", "1y2x", index.aggregate(new Interval<>(11, 38)));
+        assertTrue("Bad method aggregate - tree has been built again", mapped[0] < 110);
+        series.clear();
+        series.putValue(new Interval<>(0, 10), "a");
+        series.putValue(new Interval<>(10, 20), "b");
+        assertEquals("Bad method aggregate - bad result after clear", "ab", index.aggregate());
+        series.setAutoCoalesce(true);
+        series.insertNew(new Interval<>(20, 30), "b");
+        assertEquals("Bad method aggregate - bad result after coalesce", "ab", index.aggregate());
+        assertEquals("Bad method aggregate - bad result after coalesce", "b", index.aggregate(new Interval<>(15, 25)));
+    }
+
+    /**
+     * Test of weighted index.
+     */
+    @Test
+    public void testWeightedAggregate() {
+        IntervalsSeries<Integer, Double> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(0, 10), 100.0);
+        series.putValue(new Interval<>(10, 20), 10.0);
+        series.putValue(new Interval<>(30, 40), 1.0);
+        AggregationIndex<Integer, Double, Double> index = series.aggregationIndex(SUM, new Function<Double, Double>() {
+            @Override
+            public Double apply(Double value) {
+                return value;
+            }
+        }, new BiFunction<Double, Double, Double>() {
+            @Override
+            public Double apply(Double value, Double part) {
+                return value * part;
+            }
+        });
+        assertTrue("Bad method isWeighted - bad result", index.isWeighted());
+        assertEquals("Bad method aggregate - bad result", 111.0, index.aggregate(), 1e-9);
+        assertEquals("Bad method aggregate - bad weighted result", 50.0 + 10.0 + 0.5, index.aggregate(new Interval<>(5, 35)), 1e-9);
+        assertEquals("Bad method aggregate - bad weighted result", 20.0, index.aggregate(new Interval<>(2, 4)), 1e-9);
+        assertEquals("Bad method aggregate - range in gap", 0.0, index.aggregate(new Interval<>(20, 30)), 0.0);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.adamjak.intervals.ConcurrentIntervalsSeries;
+import net.adamjak.intervals.IllegalOvelapException;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class ConcurrentIntervalsSeriesTest {
+
+    /**
+     * Test that ConcurrentIntervalsSeries gives the same results as
+     * IntervalsSeries after random writes.
+     */
+    @Test
+    public void testSameResults() {
+        Random random = new Random(42);
+        IntervalsSeries<Integer, Integer> expected = new IntervalsSeries<>();
+        ConcurrentIntervalsSeries<Integer, Integer> series = new ConcurrentIntervalsSeries<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(1000);
+            Interval<Integer> interval = new Interval<>(start, start + 1 + random.nextInt(30));
+            switch (random.nextInt(5)) {
+                case 0:
+                    try {
+                        expected.putValue(interval, i);
+                    } catch (IllegalOvelapException ex) {
+                        try {
+                            series.putValue(interval, i);
+                            fail("Bad method putValue - overlap has not been detected");
+                        } catch (IllegalOvelapException ex2) {
+                        }
+                        break;
+                    }
+                    series.putValue(interval, i);
+                    break;
+                case 1:
+                    expected.erase(interval);
+                    series.erase(interval);
+                    break;
+                case 2:
+                    Interval<Integer> changed = new Interval<>(interval.getStart() + 5, interval.getEnd() + 5);
+                    assertEquals("Bad method changeEdges - bad result", expected.changeEdges(interval, changed), series.changeEdges(interval, changed));
+                    break;
+                default:
+                    expected.insertNew(interval, i);
+                    series.insertNew(interval, i);
+            }
+            assertEquals("Bad series after step " + i, new ArrayList<>(expected.getIntervalsSorted()), series.getIntervalsSorted());
+        }
+        assertEquals("Bad method size - bad size", expected.size(), series.size());
+        assertEquals("Bad method getGaps - bad gaps", expected.getGaps(), series.getGaps());
+        assertEquals("Bad method getExtent - bad extent", expected.getExtent(), series.getExtent());
+        for (int point = 0; point < 1050; point++) {
+            assertEquals("Bad method getIntervalByPoint - bad intervals", expected.getIntervalByPoint(point, true), series.getIntervalByPoint(point, true));
+            assertEquals("Bad method getValueByPoint - bad value", expected.getValueByPoint(point, false), series.getValueByPoint(point, false));
+        }
+        Interval<Integer> window = new Interval<>(200, 400);
+        assertEquals("Bad method getOverlapedWith - bad intervals", expected.getOverlapedWith(window, true), series.getOverlapedWith(window, true));
+        assertEquals("Bad method getOverlapedWith - bad intervals", expected.getOverlapedWith(window, false), series.getOverlapedWith(window, false));
+        assertEquals("Bad method toIntervalsSeries - bad intervals", expected.getIntervalsSorted(), series.toIntervalsSeries().getIntervalsSorted());
+        series.clear();
+        assertTrue("Bad method clear - series is not empty", series.isEmpty());
+    }
+
+    /**
+     * Test that readers never see state between erase and put of insertNew.
+     *
+     * @throws InterruptedException if test is interrupted
+     */
+    @Test
+    public void testAtomicInsertNew() throws InterruptedException {
+        final ConcurrentIntervalsSeries<Integer, Integer> series = new ConcurrentIntervalsSeries<>();
+        series.putValue(new Interval<>(0, 1000), 0);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger misses = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            final Random random = new Random(r);
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (running.get()) {
+                        if (series.getValueByPoint(random.nextInt(1001), true) == null) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        Random random = new Random(7);
+        for (int i = 1; i < 3000; i++) {
+            int start = random.nextInt(990);
+            series.insertNew(new Interval<>(start, start + 1 + random.nextInt(10)), i);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals("Bad method insertNew - readers have seen erased state", 0, misses.get());
+        assertEquals("Bad method insertNew - series has gaps", 0, series.getGaps().size());
+    }
+}
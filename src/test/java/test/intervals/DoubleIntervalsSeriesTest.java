@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.List;
+import net.adamjak.intervals.ArgumentNullException;
+import net.adamjak.intervals.DoubleIntervalsSeries;
+import net.adamjak.intervals.IllegalOvelapException;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class DoubleIntervalsSeriesTest {
+
+    private static final double DELTA = 1e-9;
+
+    private DoubleIntervalsSeries<String> series;
+
+    @Before
+    public void setUp() {
+        series = new DoubleIntervalsSeries<>();
+        series.putValue(4.0, 5.0, "Third");
+        series.putValue(1.0, 2.0, "First");
+        series.putValue(7.0, 8.5, "Fifth");
+        series.putValue(2.0, 3.0, "Second");
+        series.putValue(6.0, 7.0, "Fourth");
+    }
+
+    /**
+     * Test of putValue method, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testPutValue01() {
+        assertEquals("Bad method putValue - bad size", 5, series.size());
+        assertEquals("Bad method putValue - bad order", 1.0, series.getStart(0), DELTA);
+        assertEquals("Bad method putValue - bad order", 8.5, series.getEnd(4), DELTA);
+        assertEquals("Bad method putValue - value has not been replaced", "Second", series.putValue(3.0, 2.0, "Second2"));
+        assertEquals("Bad method putValue - bad value", "Second2", series.getValue(2.0, 3.0));
+        assertEquals("Bad method putValue - bad size", 5, series.size());
+    }
+
+    /**
+     * Test of putValue method, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testPutValue02() {
+        try {
+            series.putValue(2.5, 3.5, "X");
+            fail("Bad method putValue - overlap has not been detected");
+        } catch (IllegalOvelapException ex) {
+            assertEquals("Bad method putValue - bad overlaped interval", new Interval<>(2.0, 3.0), ex.getOtherInterval());
+        }
+        try {
+            series.putValue(0.0, 1.0, null);
+            fail("Bad method putValue - null value has been accepted");
+        } catch (ArgumentNullException ex) {
+        }
+        series.putValue(3.0, 4.0, "Gap");
+        assertEquals("Bad method putValue - interval touching edges has not been put", 6, series.size());
+    }
+
+    /**
+     * Test of NaN and infinity handling, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testNaNAndInfinity() {
+        try {
+            series.putValue(Double.NaN, 1.0, "X");
+            fail("Bad method putValue - NaN has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            series.getValueByPoint(Double.NaN, true);
+            fail("Bad method getValueByPoint - NaN has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            series.putValue(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, "X");
+            fail("Bad method putValue - interval starting at positive infinity has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        series.putValue(Double.NEGATIVE_INFINITY, 0.0, "Low");
+        series.putValue(10.0, Double.POSITIVE_INFINITY, "High");
+        assertEquals("Bad method getValueByPoint - bad value", "Low", series.getValueByPoint(-1e300, false));
+        assertEquals("Bad method getValueByPoint - bad value", "High", series.getValueByPoint(1e300, false));
+        assertEquals("Bad method getExtent - bad extent", new Interval<Double>(null, null), series.getExtent());
+        assertTrue("Bad method getTotalLength - total length is not infinite", Double.isInfinite(series.getTotalLength()));
+        assertTrue("Bad method getLength - length is not infinite", Double.isInfinite(series.getLength(0)));
+        assertEquals("Bad method getInterval - infinity has not been converted", new Interval<Double>(null, 0.0), series.getInterval(0));
+        assertTrue("Bad method containsInterval - negative zero has not been normalized", series.containsInterval(Double.NEGATIVE_INFINITY, -0.0));
+    }
+
+    /**
+     * Test of getTotalLength method, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testGetTotalLength() {
+        assertEquals("Bad method getTotalLength - bad length", 5.5, series.getTotalLength(), DELTA);
+        assertEquals("Bad method getLength - bad length", 1.5, series.getLength(4), DELTA);
+        assertEquals("Bad method getTotalLength - bad length of empty series", 0.0, new DoubleIntervalsSeries<String>().getTotalLength(), DELTA);
+    }
+
+    /**
+     * Test of getIntervalByPoint and getValueByPoint methods, of class
+     * DoubleIntervalsSeries.
+     */
+    @Test
+    public void testGetByPoint() {
+        assertEquals("Bad method getIntervalByPoint - bad size", 2, series.getIntervalByPoint(2.0, true).size());
+        assertEquals("Bad method getIntervalByPoint - bad size", 0, series.getIntervalByPoint(2.0, false).size());
+        assertEquals("Bad method getValueByPoint - bad value", "Third", series.getValueByPoint(4.5, false));
+        assertEquals("Bad method getValueByPoint - bad value", "Fourth", series.getValueByPoint(7.0, true));
+        assertNull("Bad method getValueByPoint - value has been found", series.getValueByPoint(3.5, true));
+        assertEquals("Bad method indexOfPoint - bad index", -1, series.indexOfPoint(9.0, true));
+    }
+
+    /**
+     * Test of getOverlapedWith and getGaps methods, of class
+     * DoubleIntervalsSeries.
+     */
+    @Test
+    public void testGetOverlapedWith() {
+        List<Interval<Double>> overlaped = series.getOverlapedWith(2.0, 6.0, false);
+        assertEquals("Bad method getOverlapedWith - bad size", 2, overlaped.size());
+        assertEquals("Bad method getOverlapedWith - bad size", 4, series.getOverlapedWith(2.0, 6.0, true).size());
+        assertTrue("Bad method isOverlapWith - overlap has not been detected", series.isOverlapWith(5.0, 6.0, true));
+        assertFalse("Bad method isOverlapWith - overlap has been detected", series.isOverlapWith(5.0, 6.0, false));
+        List<Interval<Double>> gaps = series.getGaps();
+        assertEquals("Bad method getGaps - bad size", 2, gaps.size());
+        assertEquals("Bad method getGaps - bad gap", new Interval<>(3.0, 4.0), gaps.get(0));
+    }
+
+    /**
+     * Test of insertNew and erase methods, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testInsertNew() {
+        series.insertNew(4.5, 6.5, "New");
+        assertEquals("Bad method insertNew - bad size", 6, series.size());
+        assertEquals("Bad method insertNew - bad edge", 4.5, series.getEnd(2), DELTA);
+        assertEquals("Bad method insertNew - bad value", "New", series.getValueByPoint(5.0, false));
+        assertEquals("Bad method insertNew - bad edge", 6.5, series.getStart(4), DELTA);
+        series.erase(0.0, 10.0);
+        assertTrue("Bad method erase - series is not empty", series.isEmpty());
+    }
+
+    /**
+     * Test of changeEdges method, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testChangeEdges() {
+        assertTrue("Bad method changeEdges - edges have not been changed", series.changeEdges(new Interval<>(4.0, 5.0), new Interval<>(3.0, 6.0)));
+        assertEquals("Bad method changeEdges - bad value", "Third", series.getValue(3.0, 6.0));
+        assertFalse("Bad method changeEdges - overlap has not been detected", series.changeEdges(new Interval<>(3.0, 6.0), new Interval<>(3.0, 6.5)));
+        assertEquals("Bad method changeEdges - bad value", "Third", series.getValue(3.0, 6.0));
+    }
+
+    /**
+     * Test of conversion methods, of class DoubleIntervalsSeries.
+     */
+    @Test
+    public void testConversion() {
+        series.putValue(10.0, Double.POSITIVE_INFINITY, "High");
+        IntervalsSeries<Double, String> converted = series.toIntervalsSeries();
+        assertEquals("Bad method toIntervalsSeries - bad size", 6, converted.size());
+        assertEquals("Bad method toIntervalsSeries - bad value", "High", converted.getValue(new Interval<Double>(10.0, null)));
+        DoubleIntervalsSeries<String> back = DoubleIntervalsSeries.fromIntervalsSeries(converted);
+        assertEquals("Bad method fromIntervalsSeries - bad intervals", series.getIntervals(), back.getIntervals());
+        assertEquals("Bad method fromIntervalsSeries - bad edge", Double.POSITIVE_INFINITY, back.getEndMaximum(), DELTA);
+    }
+}
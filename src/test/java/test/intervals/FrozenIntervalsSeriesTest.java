@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.ArrayList;
+import java.util.Random;
+import net.adamjak.intervals.FrozenIntervalsSeries;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class FrozenIntervalsSeriesTest {
+
+    /**
+     * Test that frozen series gives the same results as source series.
+     */
+    @Test
+    public void testSameResults() {
+        Random random = new Random(15);
+        IntervalsSeries<Integer, Integer> series = new IntervalsSeries<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(5000);
+            series.insertNew(new Interval<>(start, start + 1 + random.nextInt(30)), i);
+        }
+        series.putValue(new Interval<>(null, -10), -1);
+        FrozenIntervalsSeries<Integer, Integer> frozen = series.freeze();
+        assertEquals("Bad method size - bad result", series.size(), frozen.size());
+        assertEquals("Bad method getIntervalsSorted - bad result", new ArrayList<>(series.getIntervalsSorted()), frozen.getIntervalsSorted());
+        assertEquals("Bad method getGaps - bad result", series.getGaps(), frozen.getGaps());
+        assertEquals("Bad method getExtent - bad result", series.getExtent(), frozen.getExtent());
+        for (Interval<Integer> interval : series.getIntervalsSorted()) {
+            assertEquals("Bad method getValue - bad result", series.getValue(interval), frozen.getValue(interval));
+        }
+        for (int i = 0; i < 1000; i++) {
+            int point = random.nextInt(5100) - 50;
+            boolean includeEdge = random.nextBoolean();
+            assertEquals("Bad method getIntervalByPoint - bad result", series.getIntervalByPoint(point, includeEdge), frozen.getIntervalByPoint(point, includeEdge));
+            assertEquals("Bad method getValueByPoint - bad result", series.getValueByPoint(point, includeEdge), frozen.getValueByPoint(point, includeEdge));
+            Interval<Integer> interval = new Interval<>(point, point + random.nextInt(50));
+            assertEquals("Bad method getOverlapedWith - bad result", series.getOverlapedWith(interval, includeEdge), frozen.getOverlapedWith(interval, includeEdge));
+            assertEquals("Bad method isOverlapWith - bad result", series.isOverlapWith(interval, includeEdge), frozen.isOverlapWith(interval, includeEdge));
+        }
+        assertFalse("Bad method containsInterval - bad result", frozen.containsInterval(new Interval<>(-5, -4)));
+    }
+
+    /**
+     * Test that frozen series is not changed by changes of source series.
+     */
+    @Test
+    public void testIndependence() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(0, 10), "a");
+        series.putValue(new Interval<>(20, 30), "b");
+        FrozenIntervalsSeries<Integer, String> frozen = series.freeze();
+        series.putValue(new Interval<>(10, 20), "c");
+        assertEquals("Bad method freeze - frozen series has been changed", 2, frozen.size());
+        assertEquals("Bad method getTotalLength - bad result", 20.0, frozen.getTotalLength(), 0.0);
+        assertEquals("Bad method getGaps - bad result", 1, frozen.getGaps().size());
+        assertEquals("Bad method getValueAt - bad result", "b", frozen.getValueAt(1));
+        assertEquals("Bad method toIntervalsSeries - bad result", frozen.getIntervalsSorted(), new ArrayList<>(frozen.toIntervalsSeries().getIntervalsSorted()));
+        assertNull("Bad method getTotalLength - bad result", new IntervalsSeries<Integer, String>().freeze().getTotalLength());
+    }
+}
@@ -26,6 +26,7 @@
  */
 package test.intervals;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -509,6 +510,27 @@ public class IntervalTest {
         assertFalse("Bad method hasInterval with no measurable type", dateInterval.hasLength());
     }
 
+    /**
+     * Test of hasLength method, of class Interval with edges that implement
+     * Measurable through superclass or other interface. Result is cached for
+     * class of edges, so it is tested twice.
+     */
+    @Test
+    public void testHasLengthInherited() {
+        Interval<Date> inheritedInterval = new Interval<Date>(new LateDateEdge(1000L), new LateDateEdge(1500L));
+        Interval<TickEdge> tickInterval = new Interval<>(new TickEdge(10), new TickEdge(25));
+        Interval<BigDecimal> decimalInterval = new Interval<>(BigDecimal.ONE, BigDecimal.TEN);
+        for (int i = 0; i < 2; i++) {
+            assertTrue("Bad method hasLength with measurable superclass", inheritedInterval.hasLength());
+            assertTrue("Bad method hasLength with measurable superinterface", tickInterval.hasLength());
+            assertTrue("Bad method hasLength with Number type", decimalInterval.hasLength());
+            assertFalse("Bad method hasLength with no measurable type", new Interval<>("a", "b").hasLength());
+        }
+        assertEquals("Bad method lengthAsLong with measurable superclass", 500L, inheritedInterval.lengthAsLong());
+        assertEquals("Bad method lengthAsDouble with measurable superinterface", 15.0, tickInterval.lengthAsDouble(), 0.0);
+        assertEquals("Bad method lengthAsDouble with Number type", 9.0, decimalInterval.lengthAsDouble(), 0.0);
+    }
+
     /**
      * Test of getLength method, of class Interval with valid type and not null
      * edges.
@@ -549,6 +571,35 @@ public class IntervalTest {
         fail("Bad method getLenght - no exception has been thrown for invalid edge type");
     }
 
+    /**
+     * Test of lengthAsDouble and lengthAsLong methods, of class Interval.
+     */
+    @Test
+    public void testPrimitiveLength() {
+        Interval<Long> longInterval = new Interval<>(1L, (1L << 60) + 1);
+        Interval<Date> measurableInterval = new Interval<Date>(new DateEdge(1000L), new DateEdge(1500L));
+        Interval<Double> doubleInterval = new Interval<>(0.5, 3.0);
+        assertEquals("Bad method lengthAsLong - long edges", 1L << 60, longInterval.lengthAsLong());
+        assertEquals("Bad method lengthAsDouble - long edges", (double) (1L << 60), longInterval.lengthAsDouble(), 0.0);
+        assertEquals("Bad method lengthAsLong - measurable edges", 500L, measurableInterval.lengthAsLong());
+        assertEquals("Bad method lengthAsDouble - measurable edges", 500.0, measurableInterval.lengthAsDouble(), 0.0);
+        assertEquals("Bad method lengthAsDouble - double edges", 2.5, doubleInterval.lengthAsDouble(), 0.0);
+        assertEquals("Bad method lengthAsLong - double edges", 2L, doubleInterval.lengthAsLong());
+        assertEquals("Bad method lengthAsLong - infinite edge", Long.MAX_VALUE, new Interval<>(1L, null).lengthAsLong());
+        assertEquals("Bad method lengthAsDouble - infinite edge", Double.POSITIVE_INFINITY, new Interval<>(null, 1L).lengthAsDouble(), 0.0);
+        assertEquals("Bad method lengthAsLong - overflow", Long.MAX_VALUE, new Interval<>(Long.MIN_VALUE + 1, Long.MAX_VALUE).lengthAsLong());
+        assertEquals("Bad method lengthAsLong - the longest length", Long.MAX_VALUE, new Interval<>(0L, Long.MAX_VALUE).lengthAsLong());
+        assertEquals("Bad method lengthAsLong - negative edges", 10L, new Interval<>(Long.MIN_VALUE, Long.MIN_VALUE + 10).lengthAsLong());
+    }
+
+    /**
+     * Test of lengthAsLong method, of class Interval with invalid type of edge.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPrimitiveLengthInvalidType() {
+        new Interval<>(createDate(2010, 2, 2), createDate(2011, 2, 2)).lengthAsLong();
+    }
+
     /**
      * Test of equals method, of class Interval.
      */
@@ -638,6 +689,37 @@ public class IntervalTest {
 
     }
 
+    private class LateDateEdge extends DateEdge {
+
+        private static final long serialVersionUID = 8120413947025368190L;
+
+        public LateDateEdge(long date) {
+            super(date);
+        }
+    }
+
+    private interface Tick extends Measurable {
+    }
+
+    private static class TickEdge implements Tick, Comparable<TickEdge> {
+
+        private final int tick;
+
+        public TickEdge(int tick) {
+            this.tick = tick;
+        }
+
+        @Override
+        public Double getMetrics() {
+            return (double) tick;
+        }
+
+        @Override
+        public int compareTo(TickEdge other) {
+            return Integer.compare(tick, other.tick);
+        }
+    }
+
     private class TwoInterval<V extends Interval<?>> {
 
         private final V interval01;
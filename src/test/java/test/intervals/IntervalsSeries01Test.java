@@ -27,12 +27,15 @@
 package test.intervals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import net.adamjak.intervals.ArgumentNullException;
 import net.adamjak.intervals.IllegalOvelapException;
 import net.adamjak.intervals.Interval;
@@ -235,6 +238,41 @@ public class IntervalsSeries01Test {
         TESTED_SERIES.putValue(newInterval, "abcd");
     }
 
+    /**
+     * Test of putValue method, of class IntervalsSeries. Put intervals with
+     * infinite edges in random order
+     */
+    @Test
+    public void testPutValue06() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(40, 50), "03");
+        series.putValue(new Interval<>(80, null), "05");
+        series.putValue(new Interval<>(null, 10), "01");
+        series.putValue(new Interval<>(20, 25), "02");
+        series.putValue(new Interval<>(50, 80), "04");
+        assertEquals("Bad putValue method - Bad size", 5, series.size());
+        assertEquals("Bad putValue method - Bad value", "01", series.getValue(new Interval<>(null, 10)));
+        assertEquals("Bad putValue method - Bad value", "05", series.getValue(new Interval<>(80, null)));
+        assertTrue("Bad putValue method - Overlap has not been detected", series.isOverlapWith(new Interval<>(5, 15), false));
+        assertTrue("Bad putValue method - Overlap has not been detected", series.isOverlapWith(new Interval<>(100, 200), false));
+        assertTrue("Bad putValue method - Overlap has not been detected", series.isOverlapWith(new Interval<>(15, 25), false));
+        assertFalse("Bad putValue method - Overlap has been detected", series.isOverlapWith(new Interval<>(10, 20), false));
+        assertFalse("Bad putValue method - Overlap has been detected", series.isOverlapWith(new Interval<>(25, 40), false));
+        assertTrue("Bad putValue method - Point has not been found", series.getIntervalByPoint(-1000, false).contains(new Interval<>(null, 10)));
+        assertTrue("Bad putValue method - Point has not been found", series.getIntervalByPoint(1000, false).contains(new Interval<>(80, null)));
+        assertTrue("Bad putValue method - Point has been found", series.getIntervalByPoint(30, true).isEmpty());
+        assertEquals("Bad putValue method - Bad number of intervals", 2, series.getIntervalByPoint(50, true).size());
+    }
+
+    /**
+     * Test of putValue method, of class IntervalsSeries. Put interval that
+     * overlaps more intervals
+     */
+    @Test(expected = IllegalOvelapException.class)
+    public void testPutValue07() {
+        TESTED_SERIES.putValue(new Interval<>(5, 100), "abcd");
+    }
+
     /**
      * Test of remove method, of class IntervalsSeries. Remove pair with existed
      * interval
@@ -461,6 +499,34 @@ public class IntervalsSeries01Test {
         TESTED_SERIES.getOverlapedWith(null, true);
     }
 
+    /**
+     * Test of getOverlapedWith method, of class IntervalsSeries. Infinite edges
+     */
+    @Test
+    public void testGetOverlapedWith04() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(null, 10), "01");
+        series.putValue(new Interval<>(10, 20), "02");
+        series.putValue(new Interval<>(30, null), "03");
+        List<Interval<Integer>> overlapedIntervals;
+        overlapedIntervals = series.getOverlapedWith(new Interval<>(null, null), false);
+        assertEquals("Bad method getOverlapedWith - bad size of returned list", 3, overlapedIntervals.size());
+        assertEquals("Bad method getOverlapedWith - intervals are not sorted", new Interval<>(null, 10), overlapedIntervals.get(0));
+        assertEquals("Bad method getOverlapedWith - intervals are not sorted", new Interval<>(30, null), overlapedIntervals.get(2));
+        overlapedIntervals = series.getOverlapedWith(new Interval<>(20, 30), false);
+        assertEquals("Bad method getOverlapedWith - bad size of returned list", 0, overlapedIntervals.size());
+        overlapedIntervals = series.getOverlapedWith(new Interval<>(20, 30), true);
+        assertEquals("Bad method getOverlapedWith - bad size of returned list", 2, overlapedIntervals.size());
+        assertTrue("Bad method getOverlapedWith - excepted interval has not been returned", overlapedIntervals.contains(new Interval<>(10, 20)));
+        assertTrue("Bad method getOverlapedWith - excepted interval has not been returned", overlapedIntervals.contains(new Interval<>(30, null)));
+        overlapedIntervals = series.getOverlapedWith(new Interval<>(null, 5), true);
+        assertEquals("Bad method getOverlapedWith - bad size of returned list", 1, overlapedIntervals.size());
+        overlapedIntervals = series.getOverlapedWith(new Interval<>(1000, null), false);
+        assertEquals("Bad method getOverlapedWith - bad size of returned list", 1, overlapedIntervals.size());
+        assertTrue("Bad method isOverlapWith - overlap has not been detected", series.isOverlapWith(new Interval<>(25, 30), true));
+        assertFalse("Bad method isOverlapWith - overlap has been detected", series.isOverlapWith(new Interval<>(25, 30), false));
+    }
+
     /**
      * Test of getIntervalsSorted method, of class IntervalsSeries.
      */
@@ -584,6 +650,112 @@ public class IntervalsSeries01Test {
         assertTrue("Bad method getIntervalByPoint - Test 09", twoIntervalsOutput.contains(new Interval<>(60, 70)));
     }
 
+    /**
+     * Test of getValueByPoint method, of class IntervalsSeries.
+     */
+    @Test
+    public void testGetValueByPoint() {
+        assertNull("Bad method getValueByPoint - Test 01", TESTED_SERIES.getValueByPoint(5, true));
+        assertNull("Bad method getValueByPoint - Test 02", TESTED_SERIES.getValueByPoint(10, false));
+        assertNull("Bad method getValueByPoint - Test 03", TESTED_SERIES.getValueByPoint(35, true));
+        assertEquals("Bad method getValueByPoint - Test 04", "First", TESTED_SERIES.getValueByPoint(10, true));
+        assertEquals("Bad method getValueByPoint - Test 05", "First", TESTED_SERIES.getValueByPoint(15, false));
+        assertEquals("Bad method getValueByPoint - Test 06", "First", TESTED_SERIES.getValueByPoint(20, true));
+        assertEquals("Bad method getValueByPoint - Test 07", "Second", TESTED_SERIES.getValueByPoint(21, false));
+        assertNull("Bad method getValueByPoint - Test 08", EMPTY_SERIES.getValueByPoint(21, false));
+    }
+
+    /**
+     * Test of getPointCursor method, of class IntervalsSeries.
+     */
+    @Test
+    public void testGetPointCursor() {
+        IntervalsSeries<Integer, String>.PointCursor cursor = TESTED_SERIES.getPointCursor(false);
+        for (int point = 0; point <= 90; point++) {
+            boolean found = cursor.seek(point);
+            assertEquals("Bad method seek - different result than getValueByPoint at " + point, TESTED_SERIES.getValueByPoint(point, false), cursor.getValue());
+            assertEquals("Bad method seek - bad result at " + point, cursor.getValue() != null, found);
+        }
+        assertTrue("Bad method seek - lower point has not been found", cursor.seek(45));
+        assertEquals("Bad method getInterval - bad interval", INTERVAL_IN_SERIES.get(2), cursor.getInterval());
+        TESTED_SERIES.insertNew(new Interval<>(44, 46), "New");
+        assertTrue("Bad method seek - point in changed series has not been found", cursor.seek(45));
+        assertEquals("Bad method getValue - bad value in changed series", "New", cursor.getValue());
+        IntervalsSeries<Integer, String>.PointCursor edgeCursor = TESTED_SERIES.getPointCursor(true);
+        for (int point = 0; point <= 90; point++) {
+            edgeCursor.seek(point);
+            assertEquals("Bad method seek - different result than getValueByPoint at " + point, TESTED_SERIES.getValueByPoint(point, true), edgeCursor.getValue());
+        }
+        assertFalse("Bad method seek - point in empty series has been found", EMPTY_SERIES.getPointCursor(true).seek(10));
+    }
+
+    /**
+     * Test of getValuesByPoints method, of class IntervalsSeries.
+     */
+    @Test
+    public void testGetValuesByPoints() {
+        List<Integer> points = new ArrayList<>();
+        for (int point = 90; point >= 0; point--) {
+            points.add(point);
+        }
+        for (boolean includeEdge : new boolean[]{false, true}) {
+            List<String> values = TESTED_SERIES.getValuesByPoints(points, includeEdge);
+            List<Interval<Integer>> intervals = TESTED_SERIES.getIntervalsByPoints(points, includeEdge);
+            for (int i = 0; i < points.size(); i++) {
+                assertEquals("Bad method getValuesByPoints - different result than getValueByPoint at " + points.get(i), TESTED_SERIES.getValueByPoint(points.get(i), includeEdge), values.get(i));
+                List<Interval<Integer>> found = TESTED_SERIES.getIntervalByPoint(points.get(i), includeEdge);
+                assertEquals("Bad method getIntervalsByPoints - bad result at " + points.get(i), found.isEmpty() ? null : found.get(0), intervals.get(i));
+            }
+        }
+        assertEquals("Bad method getValuesByPoints - empty series", Collections.singletonList(null), EMPTY_SERIES.getValuesByPoints(Collections.singletonList(10), true));
+        TESTED_SERIES.insertNew(new Interval<>(44, 46), "New");
+        assertEquals("Bad method getValuesByPoints - change of series is not visible", Arrays.asList("Third", "New"), TESTED_SERIES.getValuesByPoints(Arrays.asList(42, 45), false));
+    }
+
+    /**
+     * Test of getValuesByPoints method, of class IntervalsSeries. Large batch
+     * processed in pool.
+     */
+    @Test
+    public void testGetValuesByPointsInPool() {
+        Random random = new Random(16);
+        IntervalsSeries<Integer, Integer> series = new IntervalsSeries<>();
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(100000);
+            series.insertNew(new Interval<>(start, start + 1 + random.nextInt(60)), i);
+        }
+        for (Interval<Integer> gap : series.getGaps().subList(0, 50)) {
+            if (gap.getEnd() - gap.getStart() > 2) {
+                series.putValue(new Interval<>(gap.getStart() + 1, gap.getStart() + 1), -2);
+            }
+        }
+        series.insertNew(new Interval<>(null, -100), -1);
+        List<Integer> points = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            points.add(random.nextInt(100200) - 200);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean includeEdge : new boolean[]{false, true}) {
+                List<Integer> values = series.getValuesByPoints(points, includeEdge, pool);
+                for (int i = 0; i < points.size(); i++) {
+                    assertEquals("Bad method getValuesByPoints - different result than getValueByPoint at " + points.get(i), series.getValueByPoint(points.get(i), includeEdge), values.get(i));
+                }
+                assertEquals("Bad method getValuesByPoints - frozen series gives different result", values, series.freeze().getValuesByPoints(points, includeEdge, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test of getValuesByPoints method, of class IntervalsSeries. Null point
+     */
+    @Test(expected = ArgumentNullException.class)
+    public void testGetValuesByPointsNull() {
+        TESTED_SERIES.getValuesByPoints(Arrays.asList(10, null), true);
+    }
+
     /**
      * Test of getTotalLength method, of class IntervalsSeries.
      */
@@ -27,15 +27,32 @@
 package test.intervals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import net.adamjak.intervals.ArgumentNullException;
+import net.adamjak.intervals.IllegalOvelapException;
 import net.adamjak.intervals.Interval;
 import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.JoinConsumer;
+import net.adamjak.intervals.Monoid;
+import net.adamjak.intervals.RollupBucket;
 import org.junit.After;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -129,6 +146,99 @@ public class IntervalsSeries02Test {
         TESTED_SERIES.changeEdges(new Interval<>(0, 1), null);
     }
 
+    /**
+     * Test of getVersion method and cached views, of class IntervalsSeries.
+     */
+    @Test
+    public void testVersion01() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        long version = series.getVersion();
+        series.putValue(new Interval<>(10, 20), "01");
+        series.putValue(new Interval<>(30, 40), "02");
+        assertTrue("Bad method getVersion - version has not been changed by putValue", version != series.getVersion());
+        assertEquals("Bad method getGaps - bad gaps", 1, series.getGaps().size());
+        assertEquals("Bad method getExtent - bad extent", new Interval<>(10, 40), series.getExtent());
+        Set<Interval<Integer>> descending = series.getIntervalsSorted(IntervalsSeries.SortOrder.DESCENDING);
+        version = series.getVersion();
+        series.remove(new Interval<>(50, 60));
+        assertEquals("Bad method getVersion - version has been changed by remove of unknown interval", version, series.getVersion());
+        series.insertNew(new Interval<>(15, 50), "03");
+        assertTrue("Bad method getVersion - version has not been changed by insertNew", version != series.getVersion());
+        assertTrue("Bad method getGaps - gaps have not been updated", series.getGaps().isEmpty());
+        assertEquals("Bad method getExtent - extent has not been updated", new Interval<>(10, 50), series.getExtent());
+        assertEquals("Bad method getIntervalsSorted - view has not been updated", new Interval<>(15, 50), descending.iterator().next());
+        assertTrue("Bad method getIntervalsSorted - view is not reused", descending == series.getIntervalsSorted(IntervalsSeries.SortOrder.DESCENDING));
+    }
+
+    /**
+     * Test of putAll method, of class IntervalsSeries.
+     */
+    @Test
+    public void testPutAll01() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        Map<Interval<Integer>, String> pairs = new HashMap<>();
+        pairs.put(new Interval<>(50, 60), "03");
+        pairs.put(new Interval<>(null, 10), "01");
+        pairs.put(new Interval<>(70, null), "04");
+        pairs.put(new Interval<>(10, 20), "02");
+        series.putAll(pairs);
+        assertEquals("Bad method putAll - bad size", 4, series.size());
+        assertEquals("Bad method putAll - bad value", "01", series.getValue(new Interval<>(null, 10)));
+        assertEquals("Bad method putAll - bad value", "04", series.getValue(new Interval<>(70, null)));
+        assertEquals("Bad method putAll - bad order", new Interval<>(10, 20), series.getIntervalsSorted().toArray()[1]);
+        TESTED_SERIES.putAll(Collections.singletonMap(new Interval<>(100, 110), "New"));
+        assertEquals("Bad method putAll - bad value", "New", TESTED_SERIES.getValue(new Interval<>(100, 110)));
+        TESTED_SERIES.putAll(Collections.singletonMap(new Interval<>(10, 20), "New"));
+        assertEquals("Bad method putAll - value has not been replaced", "New", TESTED_SERIES.getValue(new Interval<>(10, 20)));
+    }
+
+    /**
+     * Test of putAll method, of class IntervalsSeries. Overlap among given
+     * intervals
+     */
+    @Test
+    public void testPutAll02() {
+        Map<Interval<Integer>, String> pairs = new HashMap<>();
+        pairs.put(new Interval<>(100, 120), "01");
+        pairs.put(new Interval<>(130, 140), "02");
+        pairs.put(new Interval<>(110, 125), "03");
+        try {
+            TESTED_SERIES.putAll(pairs);
+            fail("Bad method putAll - overlap has not been detected");
+        } catch (IllegalOvelapException ex) {
+            assertEquals("Bad method putAll - bad interval in exception", new Interval<>(110, 125), ex.getInterval());
+            assertEquals("Bad method putAll - bad interval in exception", new Interval<>(100, 120), ex.getOtherInterval());
+        }
+        assertEquals("Bad method putAll - series has been changed", INTERVAL_IN_SERIES.size(), TESTED_SERIES.size());
+    }
+
+    /**
+     * Test of putAll method, of class IntervalsSeries. Overlap with interval in
+     * series
+     */
+    @Test
+    public void testPutAll03() {
+        Map<Interval<Integer>, String> pairs = new HashMap<>();
+        pairs.put(new Interval<>(100, 120), "01");
+        pairs.put(new Interval<>(45, 55), "02");
+        try {
+            TESTED_SERIES.putAll(pairs);
+            fail("Bad method putAll - overlap has not been detected");
+        } catch (IllegalOvelapException ex) {
+            assertEquals("Bad method putAll - bad interval in exception", new Interval<>(45, 55), ex.getInterval());
+            assertEquals("Bad method putAll - bad interval in exception", new Interval<>(40, 50), ex.getOtherInterval());
+        }
+        assertFalse("Bad method putAll - series has been changed", TESTED_SERIES.containsInterval(new Interval<>(100, 120)));
+    }
+
+    /**
+     * Test of putAll method, of class IntervalsSeries. Null value
+     */
+    @Test(expected = ArgumentNullException.class)
+    public void testPutAll04() {
+        TESTED_SERIES.putAll(Collections.singletonMap(new Interval<>(100, 110), (String) null));
+    }
+
     /**
      * Test of insertNew method, of class IntervalsSeries.
      */
@@ -170,6 +280,83 @@ public class IntervalsSeries02Test {
 
     }
 
+    /**
+     * Test of insertNewAll method, of class IntervalsSeries. Result is compared
+     * with result of insertNew method
+     */
+    @Test
+    public void testInsertNewAll01() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(null, 10), "01");
+        series.putValue(new Interval<>(10, 20), "02");
+        series.putValue(new Interval<>(30, 40), "03");
+        series.putValue(new Interval<>(50, 60), "04");
+        series.putValue(new Interval<>(70, null), "05");
+        IntervalsSeries<Integer, String> expected = new IntervalsSeries<>();
+        expected.putAll(pairsOf(series));
+        Map<Interval<Integer>, String> pairs = new HashMap<>();
+        pairs.put(new Interval<>(0, 5), "06");
+        pairs.put(new Interval<>(15, 25), "07");
+        pairs.put(new Interval<>(28, 55), "08");
+        pairs.put(new Interval<>(55, 56), "09");
+        pairs.put(new Interval<>(61, 62), "10");
+        pairs.put(new Interval<>(75, 76), "11");
+        pairs.put(new Interval<>(100, 110), "12");
+        for (Map.Entry<Interval<Integer>, String> pair : pairs.entrySet()) {
+            expected.insertNew(pair.getKey(), pair.getValue());
+        }
+        series.insertNewAll(pairs);
+        assertEquals("Bad method insertNewAll - different result than insertNew", pairsOf(expected), pairsOf(series));
+        assertEquals("Bad method insertNewAll - bad value", "01", series.getValue(new Interval<>(5, 10)));
+        assertEquals("Bad method insertNewAll - bad value", "05", series.getValue(new Interval<>(110, null)));
+    }
+
+    /**
+     * Test of insertNewAll method, of class IntervalsSeries. Overlap among given
+     * intervals
+     */
+    @Test(expected = IllegalOvelapException.class)
+    public void testInsertNewAll02() {
+        Map<Interval<Integer>, String> pairs = new HashMap<>();
+        pairs.put(new Interval<>(0, 15), "01");
+        pairs.put(new Interval<>(12, 25), "02");
+        TESTED_SERIES.insertNewAll(pairs);
+    }
+
+    /**
+     * Test of eraseAll method, of class IntervalsSeries. Result is compared
+     * with result of erase method
+     */
+    @Test
+    public void testEraseAll01() {
+        IntervalsSeries<Integer, String> expected = new IntervalsSeries<>();
+        expected.putAll(pairsOf(TESTED_SERIES));
+        List<Interval<Integer>> eraseIntervals = new ArrayList<>();
+        eraseIntervals.add(new Interval<>(75, 85));
+        eraseIntervals.add(new Interval<>(0, 11));
+        eraseIntervals.add(new Interval<>(15, 16));
+        eraseIntervals.add(new Interval<>(25, 45));
+        eraseIntervals.add(new Interval<>(42, 43));
+        eraseIntervals.add(new Interval<>(60, 70));
+        eraseIntervals.add(new Interval<>(90, 100));
+        for (Interval<Integer> eraseInterval : eraseIntervals) {
+            expected.erase(eraseInterval);
+        }
+        TESTED_SERIES.eraseAll(eraseIntervals);
+        assertEquals("Bad method eraseAll - different result than erase", pairsOf(expected), pairsOf(TESTED_SERIES));
+        assertEquals("Bad method eraseAll - bad value", "First", TESTED_SERIES.getValue(new Interval<>(11, 15)));
+        TESTED_SERIES.eraseAll(Collections.singletonList(new Interval<Integer>(null, null)));
+        assertTrue("Bad method eraseAll - erase all series", TESTED_SERIES.isEmpty());
+    }
+
+    /**
+     * Test of eraseAll method, of class IntervalsSeries. Null interval
+     */
+    @Test(expected = ArgumentNullException.class)
+    public void testEraseAll02() {
+        TESTED_SERIES.eraseAll(Collections.singletonList((Interval<Integer>) null));
+    }
+
     /**
      * Test of insertNew method, of class IntervalsSeries. Null interval
      */
@@ -239,6 +426,262 @@ public class IntervalsSeries02Test {
         assertTrue("Bad method Erase - erase all series", TESTED_SERIES.isEmpty());
     }
 
-    
-    
+    /**
+     * Test of join method, of class IntervalsSeries. Result is compared with
+     * getOverlapedWith called for every interval.
+     */
+    @Test
+    public void testJoin() {
+        Random random = new Random(17);
+        IntervalsSeries<Integer, String> other = new IntervalsSeries<>();
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(3000);
+            other.insertNew(new Interval<>(start, start + 1 + random.nextInt(50)), "o" + i);
+        }
+        other.insertNew(new Interval<>(3100, null), "last");
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(3000);
+            series.insertNew(new Interval<>(start, start + 1 + random.nextInt(20)), "s" + i);
+        }
+        series.insertNew(new Interval<>(null, 10), "first");
+        for (boolean includeEdges : new boolean[]{false, true}) {
+            final List<String> joined = new ArrayList<>();
+            series.join(other, includeEdges, new JoinConsumer<Integer, String, String>() {
+                @Override
+                public void accept(Interval<Integer> interval, String value, Interval<Integer> otherInterval, String otherValue, Interval<Integer> overlap) {
+                    joined.add(interval + " " + value + " " + otherInterval + " " + otherValue + " " + overlap);
+                }
+            });
+            List<String> expected = new ArrayList<>();
+            for (Map.Entry<Interval<Integer>, String> pair : series.getPairs()) {
+                for (Interval<Integer> otherInterval : other.getOverlapedWith(pair.getKey(), includeEdges)) {
+                    Interval<Integer> overlap = pair.getKey().overlap(otherInterval);
+                    if (overlap == null) {
+                        Integer edge = pair.getKey().getEnd().equals(otherInterval.getStart()) ? otherInterval.getStart() : pair.getKey().getStart();
+                        overlap = new Interval<>(edge, edge);
+                    }
+                    expected.add(pair.getKey() + " " + pair.getValue() + " " + otherInterval + " " + other.getValue(otherInterval) + " " + overlap);
+                }
+            }
+            assertEquals("Bad method join - bad result", expected, joined);
+        }
+    }
+
+    /**
+     * Test of union, intersection and difference methods, of class
+     * IntervalsSeries. Values of results are compared at points between edges.
+     */
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(18);
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        IntervalsSeries<Integer, String> other = new IntervalsSeries<>();
+        for (int i = 0; i < 200; i++) {
+            int start = 2 * random.nextInt(1000);
+            series.insertNew(new Interval<>(start, start + 2 + 2 * random.nextInt(10)), "s" + i);
+            start = 2 * random.nextInt(1000);
+            other.insertNew(new Interval<>(start, start + 2 + 2 * random.nextInt(10)), "o" + i);
+        }
+        BiFunction<String, String, String> concat = new BiFunction<String, String, String>() {
+            @Override
+            public String apply(String value, String otherValue) {
+                return value + otherValue;
+            }
+        };
+        IntervalsSeries<Integer, String> union = series.union(other, concat);
+        IntervalsSeries<Integer, String> intersection = series.intersection(other, concat);
+        IntervalsSeries<Integer, String> difference = series.difference(other);
+        for (int point = -1; point < 2030; point += 2) {
+            String value = series.getValueByPoint(point, false);
+            String otherValue = other.getValueByPoint(point, false);
+            String both = (value == null || otherValue == null) ? null : value + otherValue;
+            assertEquals("Bad method intersection - bad value at " + point, both, intersection.getValueByPoint(point, false));
+            assertEquals("Bad method union - bad value at " + point, both != null ? both : (value != null ? value : otherValue), union.getValueByPoint(point, false));
+            assertEquals("Bad method difference - bad value at " + point, otherValue == null ? value : null, difference.getValueByPoint(point, false));
+        }
+        IntervalsSeries<Integer, String> a = new IntervalsSeries<>();
+        a.putValue(new Interval<>(0, 10), "a");
+        IntervalsSeries<Integer, String> b = new IntervalsSeries<>();
+        b.putValue(new Interval<>(5, 15), "b");
+        IntervalsSeries<Integer, String> ab = a.union(b, concat);
+        assertEquals("Bad method union - bad size", 3, ab.size());
+        assertEquals("Bad method union - bad overlap value", "ab", ab.getValue(new Interval<>(5, 10)));
+        assertEquals("Bad method union - bad value", "b", ab.getValue(new Interval<>(10, 15)));
+        IntervalsSeries<Integer, String> kept = a.union(b, new BiFunction<String, String, String>() {
+            @Override
+            public String apply(String value, String otherValue) {
+                return null;
+            }
+        });
+        assertEquals("Bad method union - overlap has been dropped", "a", kept.getValue(new Interval<>(5, 10)));
+        assertTrue("Bad method union - union has gaps", kept.getGaps().isEmpty());
+    }
+
+    /**
+     * Test of coalesce method, of class IntervalsSeries.
+     */
+    @Test
+    public void testCoalesce() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(0, 10), "A");
+        series.insertNew(new Interval<>(3, 5), "B");
+        series.insertNew(new Interval<>(3, 5), "A");
+        series.putValue(new Interval<>(10, 20), "A");
+        series.putValue(new Interval<>(20, 30), "C");
+        series.putValue(new Interval<>(40, 50), "C");
+        assertEquals("Bad method insertNew - fragments have not been created", 6, series.size());
+        assertEquals("Bad method coalesce - bad number of removed pairs", 3, series.coalesce());
+        assertEquals("Bad method coalesce - bad value", "A", series.getValue(new Interval<>(0, 20)));
+        assertEquals("Bad method coalesce - bad value", "C", series.getValue(new Interval<>(20, 30)));
+        assertEquals("Bad method coalesce - second call has removed pairs", 0, series.coalesce());
+    }
+
+    /**
+     * Test of auto coalesce, of class IntervalsSeries.
+     */
+    @Test
+    public void testAutoCoalesce() {
+        Random random = new Random(19);
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        IntervalsSeries<Integer, String> coalesced = new IntervalsSeries<>();
+        coalesced.setAutoCoalesce(true);
+        assertTrue("Bad method isAutoCoalesce - bad result", coalesced.isAutoCoalesce());
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(1000);
+            Interval<Integer> interval = new Interval<>(start, start + 1 + random.nextInt(30));
+            String value = String.valueOf(random.nextInt(2));
+            series.insertNew(interval, value);
+            coalesced.insertNew(interval, value);
+            if (i % 100 == 0) {
+                Map<Interval<Integer>, String> pairs = new HashMap<>();
+                pairs.put(new Interval<>(start + 50, start + 60), value);
+                series.insertNewAll(pairs);
+                coalesced.insertNewAll(pairs);
+            }
+        }
+        series.coalesce();
+        assertEquals("Bad method insertNew - auto coalesce gives different result than coalesce", pairsOf(series), pairsOf(coalesced));
+        assertEquals("Bad method coalesce - auto coalesced series has fragments", 0, coalesced.coalesce());
+    }
+
+    /**
+     * Test of subSeries method, of class IntervalsSeries.
+     */
+    @Test
+    public void testSubSeries() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(0, 10), "A");
+        series.putValue(new Interval<>(10, 20), "B");
+        series.putValue(new Interval<>(30, 40), "C");
+        series.putValue(new Interval<>(50, 60), "D");
+        IntervalsSeries<Integer, String>.SubSeries view = series.subSeries(new Interval<>(10, 55));
+        IntervalsSeries<Integer, String>.SubSeries clipped = series.subSeries(new Interval<>(15, 55), true);
+        assertEquals("Bad method size - bad result", 3, view.size());
+        assertEquals("Bad method iterator - bad first pair", new Interval<>(10, 20), view.iterator().next().getKey());
+        assertEquals("Bad method descendingIterator - bad first pair", new Interval<>(50, 60), view.descendingIterator().next().getKey());
+        assertEquals("Bad method getExtent - bad result", new Interval<>(10, 60), view.getExtent());
+        assertEquals("Bad method getExtent - bad clipped result", new Interval<>(15, 55), clipped.getExtent());
+        assertEquals("Bad method getTotalLength - bad result", 30.0, view.getTotalLength(), 0.0);
+        assertEquals("Bad method getTotalLength - bad clipped result", 20.0, clipped.getTotalLength(), 0.0);
+        assertEquals("Bad method getGaps - bad result", Arrays.asList(new Interval<>(20, 30), new Interval<>(40, 50)), clipped.getGaps());
+        series.putValue(new Interval<>(45, 48), "E");
+        assertEquals("Bad method size - view does not reflect change of series", 4, view.size());
+        assertTrue("Bad method isEmpty - bad result", series.subSeries(new Interval<>(20, 30)).isEmpty());
+        assertEquals("Bad method getExtent - empty view", new Interval<Integer>(null, null), series.subSeries(new Interval<>(20, 30)).getExtent());
+        assertEquals("Bad method getExtent - empty series", new IntervalsSeries<Integer, String>().getExtent(), series.subSeries(new Interval<>(20, 30)).getExtent());
+    }
+
+    /**
+     * Test of stream and parallelStream methods, of class IntervalsSeries.
+     */
+    @Test
+    public void testStream() {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        for (int i = 0; i < 10000; i++) {
+            series.putValue(new Interval<>(2 * i, 2 * i + 1), String.valueOf(i));
+        }
+        Spliterator<Map.Entry<Interval<Integer>, String>> spliterator = series.spliterator();
+        assertTrue("Bad method spliterator - bad characteristics", spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.SUBSIZED));
+        Spliterator<Map.Entry<Interval<Integer>, String>> prefix = spliterator.trySplit();
+        assertEquals("Bad method trySplit - parts are not balanced", 5000, prefix.estimateSize());
+        assertEquals("Bad method trySplit - parts are not balanced", 5000, spliterator.estimateSize());
+        assertTrue("Bad method trySplit - part has not known size", prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        try {
+            series.spliterator().tryAdvance(null);
+            fail("Bad method tryAdvance - null action has been accepted");
+        } catch (NullPointerException ex) {
+        }
+        try {
+            series.stream().iterator().next().setValue("X");
+            fail("Bad method stream - pair of series has been changed");
+        } catch (UnsupportedOperationException ex) {
+        }
+        List<Interval<Integer>> intervals = new ArrayList<>();
+        for (Map.Entry<Interval<Integer>, String> pair : series.parallelStream().collect(Collectors.<Map.Entry<Interval<Integer>, String>>toList())) {
+            intervals.add(pair.getKey());
+        }
+        assertEquals("Bad method parallelStream - pairs are not sorted", new ArrayList<>(series.getIntervalsSorted()), intervals);
+        assertEquals("Bad method stream - bad count", 10000, series.stream().count());
+        series.remove(new Interval<>(0, 1));
+        assertEquals("Bad method stream - change of series is not visible", 9999, series.stream().count());
+    }
+
+    /**
+     * Test of rollup method, of class IntervalsSeries. Result is compared with
+     * clipped subSeries of every bucket.
+     */
+    @Test
+    public void testRollup() {
+        Random random = new Random(23);
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(3000);
+            series.insertNew(new Interval<>(start, start + 1 + random.nextInt(80)), String.valueOf(i));
+        }
+        series.insertNew(new Interval<>(null, 5), "first");
+        List<RollupBucket<Integer, Integer>> buckets = series.rollup(0, 3050, new UnaryOperator<Integer>() {
+            @Override
+            public Integer apply(Integer edge) {
+                return edge + 100;
+            }
+        }, new Monoid<Integer>() {
+            @Override
+            public Integer identity() {
+                return 0;
+            }
+
+            @Override
+            public Integer combine(Integer first, Integer second) {
+                return first + second;
+            }
+        }, new Function<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return value.length();
+            }
+        });
+        assertEquals("Bad method rollup - bad number of buckets", 31, buckets.size());
+        assertEquals("Bad method rollup - bad last bucket", new Interval<>(3000, 3050), buckets.get(30).getInterval());
+        for (RollupBucket<Integer, Integer> bucket : buckets) {
+            IntervalsSeries<Integer, String>.SubSeries view = series.subSeries(bucket.getInterval(), true);
+            Double length = view.getTotalLength();
+            int total = 0;
+            for (Map.Entry<Interval<Integer>, String> pair : view) {
+                total += pair.getValue().length();
+            }
+            assertEquals("Bad method rollup - bad covered length of " + bucket, length == null ? 0.0 : length, bucket.getCoveredLength(), 1e-9);
+            assertEquals("Bad method rollup - bad count of " + bucket, view.size(), bucket.getCount());
+            assertEquals("Bad method rollup - bad value of " + bucket, Integer.valueOf(total), bucket.getValue());
+        }
+    }
+
+    private Map<Interval<Integer>, String> pairsOf(IntervalsSeries<Integer, String> series) {
+        Map<Interval<Integer>, String> output = new HashMap<>();
+        for (Map.Entry<Interval<Integer>, String> pair : series.getPairs()) {
+            output.put(pair.getKey(), pair.getValue());
+        }
+        return output;
+    }
+
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import net.adamjak.intervals.EdgeCodec;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.IntervalsSeriesCodec;
+import net.adamjak.intervals.ValueSerializer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class IntervalsSeriesCodecTest {
+
+    private static <T extends Comparable<T>, V> byte[] encode(IntervalsSeriesCodec<T, V> codec, IntervalsSeries<T, V> series) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.encode(series, Channels.newChannel(output));
+        return output.toByteArray();
+    }
+
+    private static <T extends Comparable<T>, V> IntervalsSeries<T, V> decode(IntervalsSeriesCodec<T, V> codec, byte[] bytes) throws IOException {
+        return codec.decode(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Test of encode and decode methods, of class IntervalsSeriesCodec.
+     *
+     * @throws IOException if stream can not be used
+     */
+    @Test
+    public void testEncodeDecode01() throws IOException {
+        IntervalsSeries<Long, String> series = new IntervalsSeries<>();
+        for (long i = 0; i < 1000; i++) {
+            series.putValue(new Interval<>(i * 10, i * 10 + ((i % 3 == 0) ? 5 : 10)), "V" + i);
+        }
+        IntervalsSeriesCodec<Long, String> codec = new IntervalsSeriesCodec<>(EdgeCodec.LONG, ValueSerializer.STRING, 64);
+        byte[] bytes = encode(codec, series);
+        assertTrue("Bad method encode - stream is not compact", bytes.length < 1000 * 8);
+        IntervalsSeries<Long, String> decoded = decode(codec, bytes);
+        assertEquals("Bad method decode - bad intervals", series.getIntervalsSorted(), decoded.getIntervalsSorted());
+        assertEquals("Bad method decode - bad value", "V500", decoded.getValue(new Interval<>(5000L, 5010L)));
+    }
+
+    /**
+     * Test of encode and decode methods with infinite edges and large values,
+     * of class IntervalsSeriesCodec.
+     *
+     * @throws IOException if stream can not be used
+     */
+    @Test
+    public void testEncodeDecode02() throws IOException {
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        String large = new String(chars);
+        IntervalsSeries<Double, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<Double>(null, -1.5), "Low");
+        series.putValue(new Interval<>(-1.5, 2.25), large);
+        series.putValue(new Interval<>(2.25, 2.25), "Point");
+        series.putValue(new Interval<Double>(10.0, null), "High");
+        IntervalsSeriesCodec<Double, String> codec = new IntervalsSeriesCodec<>(EdgeCodec.DOUBLE, ValueSerializer.STRING, 64);
+        IntervalsSeries<Double, String> decoded = decode(codec, encode(codec, series));
+        assertEquals("Bad method decode - bad intervals", series.getIntervalsSorted(), decoded.getIntervalsSorted());
+        assertEquals("Bad method decode - bad value", large, decoded.getValue(new Interval<>(-1.5, 2.25)));
+        assertEquals("Bad method decode - bad value", "High", decoded.getValueByPoint(1e100, false));
+        assertEquals("Bad method decode - bad size of empty series", 0, decode(codec, encode(codec, new IntervalsSeries<Double, String>())).size());
+    }
+
+    /**
+     * Test of decode method with bad stream, of class IntervalsSeriesCodec.
+     *
+     * @throws IOException if stream can not be used
+     */
+    @Test
+    public void testDecodeErrors() throws IOException {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(1, 2), "A");
+        IntervalsSeriesCodec<Integer, String> codec = new IntervalsSeriesCodec<>(EdgeCodec.INTEGER, ValueSerializer.STRING);
+        byte[] bytes = encode(codec, series);
+        try {
+            decode(codec, Arrays.copyOf(bytes, bytes.length - 1));
+            fail("Bad method decode - truncated stream has been accepted");
+        } catch (EOFException ex) {
+        }
+        try {
+            decode(new IntervalsSeriesCodec<>(EdgeCodec.LONG, ValueSerializer.STRING), bytes);
+            fail("Bad method decode - bad edge codec has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            decode(codec, new byte[]{1, 2, 3});
+            fail("Bad method decode - bad stream has been accepted");
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Test that encode and decode methods reject non-blocking channels, of
+     * class IntervalsSeriesCodec.
+     *
+     * @throws IOException if pipe can not be used
+     */
+    @Test
+    public void testNonBlockingChannel() throws IOException {
+        IntervalsSeries<Integer, String> series = new IntervalsSeries<>();
+        series.putValue(new Interval<>(1, 2), "A");
+        IntervalsSeriesCodec<Integer, String> codec = new IntervalsSeriesCodec<>(EdgeCodec.INTEGER, ValueSerializer.STRING);
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            pipe.sink().configureBlocking(false);
+            try {
+                codec.decode(pipe.source());
+                fail("Bad method decode - non-blocking channel has been accepted");
+            } catch (IllegalArgumentException ex) {
+            }
+            try {
+                codec.encode(series, pipe.sink());
+                fail("Bad method encode - non-blocking channel has been accepted");
+            } catch (IllegalArgumentException ex) {
+            }
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.List;
+import net.adamjak.intervals.ArgumentNullException;
+import net.adamjak.intervals.IllegalOvelapException;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.LongInterval;
+import net.adamjak.intervals.LongIntervalsSeries;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class LongIntervalsSeriesTest {
+
+    private LongIntervalsSeries<String> series;
+
+    @Before
+    public void setUp() {
+        series = new LongIntervalsSeries<>();
+        series.putValue(40, 50, "Third");
+        series.putValue(10, 20, "First");
+        series.putValue(70, 80, "Fifth");
+        series.putValue(20, 30, "Second");
+        series.putValue(60, 70, "Fourth");
+    }
+
+    /**
+     * Test of LongInterval class.
+     */
+    @Test
+    public void testLongInterval() {
+        LongInterval interval = new LongInterval(20, 10);
+        assertEquals("Bad LongInterval - edges have not been changed", 10, interval.getStart());
+        assertEquals("Bad LongInterval - bad length", 10, interval.getLength());
+        assertEquals("Bad LongInterval - bad infinite length", Long.MAX_VALUE, new LongInterval(LongInterval.INFINITE_START, 10).getLength());
+        assertEquals("Bad LongInterval - bad conversion", new Interval<Long>(null, 10L), new LongInterval(LongInterval.INFINITE_START, 10).toInterval());
+        assertEquals("Bad LongInterval - bad conversion", new LongInterval(5, LongInterval.INFINITE_END), LongInterval.fromInterval(new Interval<Long>(5L, null)));
+        assertEquals("Bad LongInterval - bad position", Interval.PositionAgainstInterval.AtEnd, interval.positionAgainstInterval(20));
+        assertTrue("Bad LongInterval - overlap has not been detected", interval.isOverlap(new LongInterval(15, 25)));
+        assertFalse("Bad LongInterval - overlap has been detected", interval.isOverlap(new LongInterval(20, 25)));
+    }
+
+    /**
+     * Test of putValue method, of class LongIntervalsSeries.
+     */
+    @Test
+    public void testPutValue01() {
+        assertEquals("Bad method putValue - bad size", 5, series.size());
+        assertEquals("Bad method putValue - bad order", 10, series.getStart(0));
+        assertEquals("Bad method putValue - bad order", 80, series.getEnd(4));
+        assertEquals("Bad method putValue - bad value", "Second", series.getValue(20, 30));
+        assertEquals("Bad method putValue - value has not been replaced", "Second", series.putValue(20, 30, "New"));
+        assertEquals("Bad method putValue - bad value", "New", series.getValue(20, 30));
+        assertNull("Bad method putValue - bad value", series.putValue(LongInterval.INFINITE_START, 10, "Zero"));
+        assertEquals("Bad method putValue - bad order", LongInterval.INFINITE_START, series.getStart(0));
+    }
+
+    /**
+     * Test of putValue method, of class LongIntervalsSeries. Overlap
+     */
+    @Test(expected = IllegalOvelapException.class)
+    public void testPutValue02() {
+        series.putValue(45, 55, "abc");
+    }
+
+    /**
+     * Test of putValue method, of class LongIntervalsSeries. Null value
+     */
+    @Test(expected = ArgumentNullException.class)
+    public void testPutValue03() {
+        series.putValue(100, 110, null);
+    }
+
+    /**
+     * Test of remove method, of class LongIntervalsSeries.
+     */
+    @Test
+    public void testRemove() {
+        assertEquals("Bad method remove - bad value", "Third", series.remove(40, 50));
+        assertNull("Bad method remove - bad value", series.remove(40, 50));
+        assertEquals("Bad method remove - bad size", 4, series.size());
+        assertFalse("Bad method remove - interval has been found", series.containsInterval(40, 50));
+    }
+
+    /**
+     * Test of overlap methods, of class LongIntervalsSeries.
+     */
+    @Test
+    public void testOverlapedWith() {
+        assertEquals("Bad method getOverlapedWith - bad size", 0, series.getOverlapedWith(new LongInterval(5, 10), false).size());
+        assertEquals("Bad method getOverlapedWith - bad size", 1, series.getOverlapedWith(new LongInterval(5, 10), true).size());
+        assertEquals("Bad method getOverlapedWith - bad size", 2, series.getOverlapedWith(new LongInterval(5, 21), false).size());
+        assertEquals("Bad method getOverlapedWith - bad size", 5, series.getOverlapedWith(new LongInterval(LongInterval.INFINITE_START, LongInterval.INFINITE_END), false).size());
+        assertTrue("Bad method isOverlapWith - overlap has not been detected", series.isOverlapWith(new LongInterval(30, 40), true));
+        assertFalse("Bad method isOverlapWith - overlap has been detected", series.isOverlapWith(new LongInterval(30, 40), false));
+    }
+
+    /**
+     * Test of point methods, of class LongIntervalsSeries.
+     */
+    @Test
+    public void testGetIntervalByPoint() {
+        assertTrue("Bad method getIntervalByPoint - Test 01", series.getIntervalByPoint(5, true).isEmpty());
+        assertTrue("Bad method getIntervalByPoint - Test 02", series.getIntervalByPoint(30, false).isEmpty());
+        assertEquals("Bad method getIntervalByPoint - Test 03", 1, series.getIntervalByPoint(30, true).size());
+        List<LongInterval> twoIntervalsOutput = series.getIntervalByPoint(70, true);
+        assertEquals("Bad method getIntervalByPoint - Test 04", 2, twoIntervalsOutput.size());
+        assertEquals("Bad method getIntervalByPoint - Test 05", new LongInterval(60, 70), twoIntervalsOutput.get(0));
+        assertEquals("Bad method getValueByPoint - Test 06", "Fourth", series.getValueByPoint(70, true));
+        assertNull("Bad method getValueByPoint - Test 07", series.getValueByPoint(70, false));
+        assertEquals("Bad method getValueByPoint - Test 08", "Fifth", series.getValueByPoint(71, false));
+        assertEquals("Bad method indexOfPoint - Test 09", 2, series.indexOfPoint(45, false));
+        assertEquals("Bad method indexOfPoint - Test 10", -1, series.indexOfPoint(55, true));
+    }
+
+    /**
+     * Test of getGaps, getExtent and getTotalLength methods, of class
+     * LongIntervalsSeries.
+     */
+    @Test
+    public void testGapsAndLength() {
+        List<LongInterval> gaps = series.getGaps();
+        assertEquals("Bad method getGaps - bad size", 2, gaps.size());
+        assertEquals("Bad method getGaps - bad gap", new LongInterval(30, 40), gaps.get(0));
+        assertEquals("Bad method getGaps - bad gap", new LongInterval(50, 60), gaps.get(1));
+        assertEquals("Bad method getExtent - bad extent", new LongInterval(10, 80), series.getExtent());
+        assertEquals("Bad method getTotalLength - bad length", 50, series.getTotalLength());
+        series.putValue(80, LongInterval.INFINITE_END, "Infinite");
+        assertEquals("Bad method getTotalLength - bad infinite length", Long.MAX_VALUE, series.getTotalLength());
+        assertEquals("Bad method getTotalLength - bad length of empty series", 0, new LongIntervalsSeries<String>().getTotalLength());
+    }
+
+    /**
+     * Test of insertNew and erase methods, of class LongIntervalsSeries.
+     * Result is compared with IntervalsSeries.
+     */
+    @Test
+    public void testInsertNewAndErase() {
+        IntervalsSeries<Long, String> expected = series.toIntervalsSeries();
+        series.insertNew(15, 25, "06");
+        expected.insertNew(new Interval<>(15L, 25L), "06");
+        series.insertNew(45, 46, "07");
+        expected.insertNew(new Interval<>(45L, 46L), "07");
+        series.erase(55, 75);
+        expected.erase(new Interval<>(55L, 75L));
+        series.insertNew(100, LongInterval.INFINITE_END, "08");
+        expected.insertNew(new Interval<>(100L, null), "08");
+        series.erase(LongInterval.INFINITE_START, 12);
+        expected.erase(new Interval<>(0L, 12L));
+        assertEquals("Bad methods insertNew and erase - different size", expected.size(), series.size());
+        assertEquals("Bad methods insertNew and erase - different pairs", expected.getPairs(), series.toIntervalsSeries().getPairs());
+        assertEquals("Bad method fromIntervalsSeries - different pairs", expected.getPairs(), LongIntervalsSeries.fromIntervalsSeries(expected).toIntervalsSeries().getPairs());
+    }
+
+    /**
+     * Test of changeEdges method, of class LongIntervalsSeries.
+     */
+    @Test
+    public void testChangeEdges() {
+        assertTrue("Bad method changeEdges - Test01", series.changeEdges(new LongInterval(40, 50), new LongInterval(35, 55)));
+        assertEquals("Bad method changeEdges - Test02", "Third", series.getValue(35, 55));
+        assertFalse("Bad method changeEdges - Test03", series.changeEdges(new LongInterval(35, 55), new LongInterval(25, 55)));
+        assertEquals("Bad method changeEdges - Test04", "Third", series.getValue(35, 55));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import net.adamjak.intervals.EdgeCodec;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.MappedIntervalsSeries;
+import net.adamjak.intervals.ValueCodec;
+import net.adamjak.intervals.ValueSerializer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class MappedIntervalsSeriesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private IntervalsSeries<Long, Long> series;
+
+    @Before
+    public void setUp() {
+        series = new IntervalsSeries<>();
+        for (long i = 0; i < 1000; i++) {
+            series.putValue(new Interval<>(i * 10, i * 10 + ((i % 3 == 0) ? 5 : 10)), i);
+        }
+    }
+
+    /**
+     * Test of write and open methods, of class MappedIntervalsSeries.
+     *
+     * @throws IOException if file can not be used
+     */
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        Path file = folder.newFile().toPath();
+        MappedIntervalsSeries.write(series, file, EdgeCodec.LONG, ValueCodec.LONG);
+        try (MappedIntervalsSeries<Long, Long> mapped = MappedIntervalsSeries.open(file, EdgeCodec.LONG, ValueCodec.LONG)) {
+            assertEquals("Bad method open - bad size", 1000, mapped.size());
+            for (long point = 0; point < 10000; point += 7) {
+                assertEquals("Bad method getIntervalByPoint - bad intervals for point " + point,
+                        series.getIntervalByPoint(point, true), mapped.getIntervalByPoint(point, true));
+                assertEquals("Bad method getValueByPoint - bad value for point " + point,
+                        series.getValueByPoint(point, false), mapped.getValueByPoint(point, false));
+            }
+            assertEquals("Bad method getOverlapedWith - bad intervals", series.getOverlapedWith(new Interval<>(635L, 1290L), false),
+                    mapped.getOverlapedWith(new Interval<>(635L, 1290L), false));
+            assertEquals("Bad method getOverlapedWith - bad intervals", series.getOverlapedWith(new Interval<>(640L, 650L), true),
+                    mapped.getOverlapedWith(new Interval<>(640L, 650L), true));
+            assertFalse("Bad method isOverlapWith - overlap has been detected", mapped.isOverlapWith(new Interval<>(5L, 10L), false));
+            assertTrue("Bad method isOverlapWith - overlap has not been detected", mapped.isOverlapWith(new Interval<>(5L, 10L), true));
+            assertEquals("Bad method getGaps - bad gaps", series.getGaps(), mapped.getGaps());
+            assertEquals("Bad method getExtent - bad extent", series.getExtent(), mapped.getExtent());
+            assertEquals("Bad method getValue - bad value", Long.valueOf(640), mapped.getValue(new Interval<>(6400L, 6410L)));
+            assertNull("Bad method getValue - value has been found", mapped.getValue(new Interval<>(6400L, 6405L)));
+            assertEquals("Bad method toIntervalsSeries - bad intervals", series.getIntervalsSorted(), mapped.toIntervalsSeries().getIntervalsSorted());
+        }
+    }
+
+    /**
+     * Test of write and open methods with values of variable length, of class
+     * MappedIntervalsSeries.
+     *
+     * @throws IOException if file can not be used
+     */
+    @Test
+    public void testValueSerializer() throws IOException {
+        IntervalsSeries<Integer, String> names = new IntervalsSeries<>();
+        names.putValue(new Interval<Integer>(null, 0), "negative");
+        names.putValue(new Interval<>(0, 10), "");
+        names.putValue(new Interval<>(20, 30), "dvadsať až tridsať");
+        names.putValue(new Interval<Integer>(30, null), "high");
+        Path file = folder.newFile().toPath();
+        MappedIntervalsSeries.write(names, file, EdgeCodec.INTEGER, ValueSerializer.STRING);
+        try (MappedIntervalsSeries<Integer, String> mapped = MappedIntervalsSeries.open(file, EdgeCodec.INTEGER, ValueSerializer.STRING)) {
+            assertEquals("Bad method getValueByPoint - bad value", "negative", mapped.getValueByPoint(-100, false));
+            assertEquals("Bad method getValueByPoint - bad value", "", mapped.getValueByPoint(5, false));
+            assertEquals("Bad method getValueByPoint - bad value", "dvadsať až tridsať", mapped.getValueByPoint(25, false));
+            assertEquals("Bad method getValueByPoint - bad value", "high", mapped.getValueByPoint(1000, false));
+            assertEquals("Bad method getGaps - bad gaps", Arrays.asList(new Interval<>(10, 20)), mapped.getGaps());
+            assertEquals("Bad method getExtent - bad extent", new Interval<Integer>(null, null), mapped.getExtent());
+        }
+    }
+
+    /**
+     * Test of open method with bad codecs, of class MappedIntervalsSeries.
+     *
+     * @throws IOException if file can not be used
+     */
+    @Test
+    public void testOpenErrors() throws IOException {
+        Path file = folder.newFile().toPath();
+        MappedIntervalsSeries.write(series, file, EdgeCodec.LONG, ValueCodec.LONG);
+        try {
+            MappedIntervalsSeries.open(file, EdgeCodec.INTEGER, ValueCodec.LONG);
+            fail("Bad method open - bad edge codec has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            MappedIntervalsSeries.open(file, EdgeCodec.LONG, ValueSerializer.STRING);
+            fail("Bad method open - bad value serializer has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            MappedIntervalsSeries.open(folder.newFile().toPath(), EdgeCodec.LONG, ValueCodec.LONG);
+            fail("Bad method open - empty file has been accepted");
+        } catch (IOException ex) {
+        }
+        Path badStride = folder.newFile().toPath();
+        MappedIntervalsSeries.write(series, badStride, EdgeCodec.LONG, ValueCodec.LONG);
+        try (FileChannel channel = FileChannel.open(badStride, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{16, 0, 0, 16}), 40);
+        }
+        try {
+            MappedIntervalsSeries.open(badStride, EdgeCodec.LONG, ValueCodec.LONG);
+            fail("Bad method open - file with bad index stride has been accepted");
+        } catch (IOException ex) {
+        }
+        Path empty = folder.newFile().toPath();
+        MappedIntervalsSeries.write(new IntervalsSeries<Long, Long>(), empty, EdgeCodec.LONG, ValueCodec.LONG);
+        try (MappedIntervalsSeries<Long, Long> mapped = MappedIntervalsSeries.open(empty, EdgeCodec.LONG, ValueCodec.LONG)) {
+            assertEquals("Bad method getExtent - bad extent of empty series", new Interval<Long>(null, null), mapped.getExtent());
+        }
+        try {
+            MappedIntervalsSeries.write(series, file, EdgeCodec.LONG, ValueCodec.<Long>dictionary());
+            fail("Bad method write - dictionary codec has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+}
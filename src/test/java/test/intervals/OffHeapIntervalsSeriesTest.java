@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.Arrays;
+import java.util.List;
+import net.adamjak.intervals.ArgumentNullException;
+import net.adamjak.intervals.EdgeCodec;
+import net.adamjak.intervals.IllegalOvelapException;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.OffHeapIntervalsSeries;
+import net.adamjak.intervals.ValueCodec;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class OffHeapIntervalsSeriesTest {
+
+    private OffHeapIntervalsSeries<Integer, String> series;
+
+    @Before
+    public void setUp() {
+        series = new OffHeapIntervalsSeries<>(EdgeCodec.INTEGER, ValueCodec.<String>dictionary(), 2);
+        series.putValue(new Interval<>(40, 50), "Third");
+        series.putValue(new Interval<>(10, 20), "First");
+        series.putValue(new Interval<>(70, 80), "Fifth");
+        series.putValue(new Interval<>(20, 30), "Second");
+        series.putValue(new Interval<>(60, 70), "Fourth");
+    }
+
+    /**
+     * Test of EdgeCodec class.
+     */
+    @Test
+    public void testEdgeCodec() {
+        double[] edges = {-Double.MAX_VALUE, -1e10, -1.5, -0.0, 1e-300, 2.5, Double.MAX_VALUE};
+        for (int i = 1; i < edges.length; i++) {
+            assertTrue("Bad EdgeCodec - order has not been preserved", EdgeCodec.DOUBLE.encode(edges[i - 1]) < EdgeCodec.DOUBLE.encode(edges[i]));
+        }
+        assertEquals("Bad EdgeCodec - bad decoded edge", Double.valueOf(-1.5), EdgeCodec.DOUBLE.decodeStart(EdgeCodec.DOUBLE.encode(-1.5)));
+        assertNull("Bad EdgeCodec - infinite edge has not been decoded", EdgeCodec.LONG.decodeEnd(EdgeCodec.LONG.encodeEnd(null)));
+        try {
+            EdgeCodec.INTEGER.encode(Integer.MAX_VALUE);
+            fail("Bad EdgeCodec - reserved edge has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            EdgeCodec.DOUBLE.encode(Double.NaN);
+            fail("Bad EdgeCodec - NaN has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        try {
+            EdgeCodec.DOUBLE.encode(Double.POSITIVE_INFINITY);
+            fail("Bad EdgeCodec - infinity has been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+        assertTrue("Bad EdgeCodec - finite edge is not higher than infinite start",
+                EdgeCodec.DOUBLE.encodeStart(null) < EdgeCodec.DOUBLE.encode(-Double.MAX_VALUE));
+        assertTrue("Bad EdgeCodec - finite edge is not lower than infinite end",
+                EdgeCodec.DOUBLE.encode(Double.MAX_VALUE) < EdgeCodec.DOUBLE.encodeEnd(null));
+    }
+
+    /**
+     * Test of putValue method, of class OffHeapIntervalsSeries.
+     */
+    @Test
+    public void testPutValue01() {
+        assertEquals("Bad method putValue - bad size", 5, series.size());
+        assertEquals("Bad method putValue - bad order",
+                Arrays.asList(new Interval<>(10, 20), new Interval<>(20, 30), new Interval<>(40, 50), new Interval<>(60, 70), new Interval<>(70, 80)),
+                series.getIntervals());
+        assertEquals("Bad method putValue - value has not been replaced", "Second", series.putValue(new Interval<>(20, 30), "Second2"));
+        assertEquals("Bad method putValue - bad value", "Second2", series.getValue(new Interval<>(20, 30)));
+        assertEquals("Bad method putValue - bad size", 5, series.size());
+    }
+
+    /**
+     * Test of putValue method, of class OffHeapIntervalsSeries.
+     */
+    @Test
+    public void testPutValue02() {
+        try {
+            series.putValue(new Interval<>(25, 35), "X");
+            fail("Bad method putValue - overlap has not been detected");
+        } catch (IllegalOvelapException ex) {
+            assertEquals("Bad method putValue - bad overlaped interval", new Interval<>(20, 30), ex.getOtherInterval());
+        }
+        try {
+            series.putValue(new Interval<>(0, 5), null);
+            fail("Bad method putValue - null value has been accepted");
+        } catch (ArgumentNullException ex) {
+        }
+        series.putValue(new Interval<Integer>(null, 10), "Low");
+        series.putValue(new Interval<Integer>(80, null), "High");
+        assertEquals("Bad method putValue - bad size", 7, series.size());
+        assertEquals("Bad method getExtent - bad extent", new Interval<Integer>(null, null), series.getExtent());
+        assertEquals("Bad method getValueByPoint - bad value", "Low", series.getValueByPoint(-1000, false));
+        assertEquals("Bad method getValueByPoint - bad value", "High", series.getValueByPoint(1000, false));
+    }
+
+    /**
+     * Test of remove and clear methods, of class OffHeapIntervalsSeries.
+     */
+    @Test
+    public void testRemove() {
+        assertEquals("Bad method remove - bad value", "Third", series.remove(new Interval<>(40, 50)));
+        assertNull("Bad method remove - value has been returned", series.remove(new Interval<>(40, 50)));
+        assertEquals("Bad method remove - bad size", 4, series.size());
+        assertEquals("Bad method remove - bad value", "Fourth", series.getValueAt(2));
+        long version = series.getVersion();
+        series.clear();
+        assertTrue("Bad method clear - series is not empty", series.isEmpty());
+        assertTrue("Bad method clear - version has not been changed", series.getVersion() > version);
+        assertEquals("Bad method getExtent - bad extent of empty series", new Interval<Integer>(null, null), series.getExtent());
+    }
+
+    /**
+     * Test of point lookup methods, of class OffHeapIntervalsSeries.
+     */
+    @Test
+    public void testGetByPoint() {
+        assertEquals("Bad method getIntervalByPoint - bad size", 2, series.getIntervalByPoint(20, true).size());
+        assertEquals("Bad method getIntervalByPoint - bad size", 0, series.getIntervalByPoint(20, false).size());
+        assertEquals("Bad method getValueByPoint - bad value", "Third", series.getValueByPoint(45, false));
+        assertEquals("Bad method getValueByPoint - bad value", "Fourth", series.getValueByPoint(70, true));
+        assertNull("Bad method getValueByPoint - value has been found", series.getValueByPoint(35, true));
+        assertEquals("Bad method indexOfPoint - bad index", -1, series.indexOfPoint(90, true));
+    }
+
+    /**
+     * Test of overlap, gaps and extent methods, of class OffHeapIntervalsSeries.
+     */
+    @Test
+    public void testGetOverlapedWith() {
+        List<Interval<Integer>> overlaped = series.getOverlapedWith(new Interval<>(20, 60), false);
+        assertEquals("Bad method getOverlapedWith - bad size", 2, overlaped.size());
+        assertEquals("Bad method getOverlapedWith - bad size", 4, series.getOverlapedWith(new Interval<>(20, 60), true).size());
+        assertTrue("Bad method isOverlapWith - overlap has not been detected", series.isOverlapWith(new Interval<>(50, 60), true));
+        assertFalse("Bad method isOverlapWith - overlap has been detected", series.isOverlapWith(new Interval<>(50, 60), false));
+        assertEquals("Bad method getGaps - bad gaps", Arrays.asList(new Interval<>(30, 40), new Interval<>(50, 60)), series.getGaps());
+        assertEquals("Bad method getExtent - bad extent", new Interval<>(10, 80), series.getExtent());
+        assertEquals("Bad method getEndMinimum - bad edge", Integer.valueOf(20), series.getEndMinimum());
+        assertEquals("Bad method getStartMaximum - bad edge", Integer.valueOf(70), series.getStartMaximum());
+    }
+
+    /**
+     * Test of conversion methods, of class OffHeapIntervalsSeries.
+     */
+    @Test
+    public void testConversion() {
+        IntervalsSeries<Integer, String> converted = series.toIntervalsSeries();
+        assertEquals("Bad method toIntervalsSeries - bad size", 5, converted.size());
+        assertEquals("Bad method toIntervalsSeries - bad value", "Fifth", converted.getValue(new Interval<>(70, 80)));
+        OffHeapIntervalsSeries<Integer, String> back = OffHeapIntervalsSeries.fromIntervalsSeries(converted, EdgeCodec.INTEGER,
+                ValueCodec.<String>dictionary());
+        assertEquals("Bad method fromIntervalsSeries - bad intervals", series.getIntervals(), back.getIntervals());
+        assertEquals("Bad method fromIntervalsSeries - bad value", "Second", back.getValueByPoint(25, false));
+
+        OffHeapIntervalsSeries<Double, Long> numbers = new OffHeapIntervalsSeries<>(EdgeCodec.DOUBLE, ValueCodec.LONG);
+        numbers.putValue(new Interval<>(-2.5, -0.5), 1L);
+        numbers.putValue(new Interval<>(-0.5, 3.0), 2L);
+        assertEquals("Bad method getValueByPoint - bad value", Long.valueOf(2), numbers.getValueByPoint(0.0, false));
+        assertEquals("Bad method getAllocatedBytes - bad size", 16L * 24, numbers.getAllocatedBytes());
+    }
+}
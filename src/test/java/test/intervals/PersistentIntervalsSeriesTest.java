@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import net.adamjak.intervals.IllegalOvelapException;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.PersistentIntervalsSeries;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class PersistentIntervalsSeriesTest {
+
+    /**
+     * Test that every snapshot keeps its version while series is changed and
+     * unchanged parts of tree are shared, of class PersistentIntervalsSeries.
+     */
+    @Test
+    public void testSnapshotVersions() {
+        PersistentIntervalsSeries<Integer, Integer> series = new PersistentIntervalsSeries<>();
+        List<PersistentIntervalsSeries<Integer, Integer>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            series.putValue(new Interval<>(i * 10, i * 10 + 10), i);
+            snapshots.add(series.snapshot());
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals("Bad method remove - bad value", Integer.valueOf(i), series.remove(new Interval<>(i * 10, i * 10 + 10)));
+        }
+        series.insertNew(new Interval<>(455, 545), -1);
+        assertEquals("Bad method insertNew - bad size", 47, series.size());
+        for (int i = 0; i < 100; i++) {
+            PersistentIntervalsSeries<Integer, Integer> snapshot = snapshots.get(i);
+            assertEquals("Bad method snapshot - bad size", i + 1, snapshot.size());
+            assertEquals("Bad method snapshot - bad value", Integer.valueOf(i), snapshot.getValue(new Interval<>(i * 10, i * 10 + 10)));
+            assertEquals("Bad method snapshot - bad value", Integer.valueOf(i / 2), snapshot.getValueByPoint(i / 2 * 10 + 5, false));
+            assertEquals("Bad method snapshot - bad gaps", 0, snapshot.getGaps().size());
+        }
+    }
+
+    /**
+     * Test of remove method on nodes with two children, of class
+     * PersistentIntervalsSeries. Removed node is replaced by the in-order
+     * successor.
+     */
+    @Test
+    public void testRemoveInnerNode() {
+        PersistentIntervalsSeries<Integer, Integer> series = new PersistentIntervalsSeries<>();
+        List<Interval<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            Interval<Integer> interval = new Interval<>(i * 10, i * 10 + 5);
+            series.putValue(interval, i);
+            expected.add(interval);
+        }
+        for (int i : Arrays.asList(7, 3, 11, 8, 1, 13, 5, 9)) {
+            Interval<Integer> interval = new Interval<>(i * 10, i * 10 + 5);
+            assertEquals("Bad method remove - bad value", Integer.valueOf(i), series.remove(interval));
+            expected.remove(interval);
+            assertEquals("Bad method remove - bad intervals", expected, series.getIntervalsSorted());
+            assertNull("Bad method remove - interval is still found", series.getValueByPoint(i * 10 + 2, false));
+            for (Interval<Integer> other : expected) {
+                assertEquals("Bad method remove - bad value", Integer.valueOf(other.getStart() / 10), series.getValue(other));
+            }
+        }
+        assertEquals("Bad method remove - bad extent", new Interval<>(0, 145), series.getExtent());
+    }
+
+    /**
+     * Test of snapshot method, of class PersistentIntervalsSeries.
+     */
+    @Test
+    public void testSnapshot() {
+        PersistentIntervalsSeries<Integer, String> series = new PersistentIntervalsSeries<>();
+        series.putValue(new Interval<>(10, 20), "First");
+        series.putValue(new Interval<>(20, 30), "Second");
+        PersistentIntervalsSeries<Integer, String> snapshot = series.snapshot();
+        series.insertNew(new Interval<>(15, 25), "New");
+        series.remove(new Interval<>(10, 15));
+        assertEquals("Bad method snapshot - snapshot has been changed",
+                Arrays.asList(new Interval<>(10, 20), new Interval<>(20, 30)), snapshot.getIntervalsSorted());
+        assertEquals("Bad method snapshot - bad value", "First", snapshot.getValueByPoint(17, false));
+        assertEquals("Bad method insertNew - bad value", "New", series.getValueByPoint(17, false));
+        snapshot.clear();
+        assertTrue("Bad method clear - snapshot is not empty", snapshot.isEmpty());
+        assertEquals("Bad method clear - series has been changed", 2, series.size());
+        try {
+            series.putValue(new Interval<>(24, 26), "X");
+            fail("Bad method putValue - overlap has not been detected");
+        } catch (IllegalOvelapException ex) {
+            assertEquals("Bad method putValue - bad overlaped interval", new Interval<>(15, 25), ex.getOtherInterval());
+        }
+    }
+
+    /**
+     * Test of erase method on infinite intervals, of class PersistentIntervalsSeries.
+     */
+    @Test
+    public void testEraseInfinite() {
+        PersistentIntervalsSeries<Integer, String> series = new PersistentIntervalsSeries<>();
+        series.putValue(new Interval<Integer>(null, null), "All");
+        series.erase(new Interval<Integer>(null, null));
+        assertTrue("Bad method erase - infinite interval has not been erased", series.isEmpty());
+        series.putValue(new Interval<Integer>(null, null), "All");
+        series.erase(new Interval<>(10, 20));
+        assertEquals("Bad method erase - bad intervals",
+                Arrays.asList(new Interval<Integer>(null, 10), new Interval<Integer>(20, null)), series.getIntervalsSorted());
+        series.erase(new Interval<>(5, 5));
+        assertEquals("Bad method erase - zero length interval has erased something", 2, series.size());
+    }
+
+    /**
+     * Test that readers of snapshot are not affected by concurrent writer.
+     *
+     * @throws InterruptedException if test is interrupted
+     */
+    @Test
+    public void testConcurrentSnapshots() throws InterruptedException {
+        final PersistentIntervalsSeries<Integer, Integer> series = new PersistentIntervalsSeries<>();
+        series.putValue(new Interval<>(0, 1000), 0);
+        final List<Integer> misses = new ArrayList<>();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(3);
+                for (int i = 1; i < 3000; i++) {
+                    int start = random.nextInt(990);
+                    series.insertNew(new Interval<>(start, start + 1 + random.nextInt(10)), i);
+                }
+            }
+        });
+        writer.start();
+        Random random = new Random(5);
+        while (writer.isAlive()) {
+            PersistentIntervalsSeries<Integer, Integer> snapshot = series.snapshot();
+            if (snapshot.getGaps().isEmpty() == false || snapshot.getValueByPoint(random.nextInt(1001), true) == null) {
+                misses.add(snapshot.size());
+            }
+        }
+        writer.join();
+        assertTrue("Bad method snapshot - inconsistent snapshot has been seen", misses.isEmpty());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2015, Marian Adamjak
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package test.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.adamjak.intervals.IllegalOvelapException;
+import net.adamjak.intervals.Interval;
+import net.adamjak.intervals.IntervalsSeries;
+import net.adamjak.intervals.ShardedIntervalsSeries;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author madamjak
+ */
+public class ShardedIntervalsSeriesTest {
+
+    /**
+     * Test of intervals touching shard boundaries, of class
+     * ShardedIntervalsSeries.
+     */
+    @Test
+    public void testBoundaryTouching() {
+        ShardedIntervalsSeries<Integer, String> series = new ShardedIntervalsSeries<>(Arrays.asList(10, 20, 30));
+        IntervalsSeries<Integer, String> expected = new IntervalsSeries<>();
+        expected.putValue(new Interval<>(5, 10), "A");
+        expected.putValue(new Interval<>(10, 15), "B");
+        expected.putValue(new Interval<>(15, 20), "C");
+        expected.putValue(new Interval<>(20, 30), "D");
+        series.putValue(new Interval<>(5, 10), "A");
+        series.putValue(new Interval<>(10, 15), "B");
+        series.putValue(new Interval<>(15, 20), "C");
+        series.putValue(new Interval<>(20, 30), "D");
+        assertEquals("Bad method size - bad size", 4, series.size());
+        assertEquals("Bad method getIntervalsSorted - bad intervals", new ArrayList<>(expected.getIntervalsSorted()), series.getIntervalsSorted());
+        assertEquals("Bad method getGaps - bad gaps", 0, series.getGaps().size());
+        for (int point : Arrays.asList(10, 20, 30)) {
+            assertEquals("Bad method getIntervalByPoint - bad intervals", expected.getIntervalByPoint(point, true), series.getIntervalByPoint(point, true));
+            assertEquals("Bad method getIntervalByPoint - bad intervals", expected.getIntervalByPoint(point, false), series.getIntervalByPoint(point, false));
+            assertEquals("Bad method getValueByPoint - bad value", expected.getValueByPoint(point, true), series.getValueByPoint(point, true));
+        }
+        assertEquals("Bad method getOverlapedWith - bad intervals",
+                Arrays.asList(new Interval<>(10, 15), new Interval<>(15, 20)), series.getOverlapedWith(new Interval<>(10, 20), false));
+        assertEquals("Bad method getOverlapedWith - bad intervals",
+                new ArrayList<>(expected.getIntervalsSorted()), series.getOverlapedWith(new Interval<>(10, 20), true));
+        try {
+            series.putValue(new Interval<>(9, 11), "Overlap");
+            fail("Bad method putValue - overlap across boundary has not been detected");
+        } catch (IllegalOvelapException ex) {
+        }
+        series.remove(new Interval<>(10, 15));
+        assertEquals("Bad method remove - bad gaps", Arrays.asList(new Interval<>(10, 15)), series.getGaps());
+    }
+
+    /**
+     * Test of interval spanning more than two shards, of class
+     * ShardedIntervalsSeries. Spanning interval has to be counted only once.
+     */
+    @Test
+    public void testSpanningAcrossShards() {
+        ShardedIntervalsSeries<Integer, String> series = new ShardedIntervalsSeries<>(Arrays.asList(10, 20, 30, 40));
+        series.putValue(new Interval<>(1, 5), "Low");
+        series.putValue(new Interval<>(5, 35), "Spanning");
+        series.putValue(new Interval<>(35, 40), "Local");
+        series.putValue(new Interval<>(40, 50), "High");
+        assertEquals("Bad method size - bad size", 4, series.size());
+        assertEquals("Bad method getIntervalsSorted - bad intervals",
+                Arrays.asList(new Interval<>(1, 5), new Interval<>(5, 35), new Interval<>(35, 40), new Interval<>(40, 50)),
+                series.getIntervalsSorted());
+        assertEquals("Bad method getOverlapedWith - bad intervals",
+                Arrays.asList(new Interval<>(5, 35)), series.getOverlapedWith(new Interval<>(12, 28), true));
+        assertEquals("Bad method getOverlapedWith - bad intervals",
+                Arrays.asList(new Interval<>(5, 35), new Interval<>(35, 40)), series.getOverlapedWith(new Interval<>(20, 40), false));
+        assertEquals("Bad method getIntervalByPoint - bad intervals", Arrays.asList(new Interval<>(5, 35)), series.getIntervalByPoint(20, true));
+        assertEquals("Bad method getValueByPoint - bad value", "Spanning", series.getValueByPoint(25, true));
+        assertEquals("Bad method getValue - bad value", "Spanning", series.getValue(new Interval<>(5, 35)));
+        assertEquals("Bad method getExtent - bad extent", new Interval<>(1, 50), series.getExtent());
+        assertEquals("Bad method toIntervalsSeries - bad size", 4, series.toIntervalsSeries().size());
+        assertEquals("Bad method remove - bad value", "Spanning", series.remove(new Interval<>(5, 35)));
+        assertEquals("Bad method remove - bad size", 3, series.size());
+        assertEquals("Bad method remove - bad gaps", Arrays.asList(new Interval<>(5, 35)), series.getGaps());
+        assertNull("Bad method remove - interval is still found", series.getValueByPoint(15, true));
+    }
+
+    /**
+     * Test of write in one shard which touches spanning interval. Write has
+     * to extend locked shards to all shards of the spanning interval.
+     */
+    @Test
+    public void testWriteIntoSpanning() {
+        ShardedIntervalsSeries<Integer, String> series = new ShardedIntervalsSeries<>(Arrays.asList(10, 20, 30, 40));
+        series.putValue(new Interval<>(5, 35), "Spanning");
+        try {
+            series.putValue(new Interval<>(24, 26), "Overlap");
+            fail("Bad method putValue - overlap with spanning interval has not been detected");
+        } catch (IllegalOvelapException ex) {
+        }
+        series.erase(new Interval<>(24, 26));
+        assertEquals("Bad method erase - bad intervals",
+                Arrays.asList(new Interval<>(5, 24), new Interval<>(26, 35)), series.getIntervalsSorted());
+        assertEquals("Bad method erase - bad value", "Spanning", series.getValueByPoint(7, true));
+        assertEquals("Bad method erase - bad value", "Spanning", series.getValueByPoint(33, true));
+        assertNull("Bad method erase - gap is not empty", series.getValueByPoint(25, false));
+        series.insertNew(new Interval<>(22, 28), "Middle");
+        assertEquals("Bad method insertNew - bad intervals",
+                Arrays.asList(new Interval<>(5, 22), new Interval<>(22, 28), new Interval<>(28, 35)), series.getIntervalsSorted());
+        assertEquals("Bad method insertNew - bad value", "Middle", series.getValue(new Interval<>(22, 28)));
+        assertTrue("Bad method changeEdges - edges have not been changed",
+                series.changeEdges(new Interval<>(5, 22), new Interval<>(2, 22)));
+        assertEquals("Bad method changeEdges - bad extent", new Interval<>(2, 35), series.getExtent());
+        assertEquals("Bad method size - bad size", 3, series.size());
+    }
+
+    /**
+     * Test of putAll and infinite edges, of class ShardedIntervalsSeries.
+     */
+    @Test
+    public void testPutAll() {
+        ShardedIntervalsSeries<Integer, String> series = new ShardedIntervalsSeries<>(Arrays.asList(10, 20));
+        Map<Interval<Integer>, String> pairs = new HashMap<>();
+        pairs.put(new Interval<Integer>(null, 5), "Low");
+        pairs.put(new Interval<>(5, 10), "First");
+        pairs.put(new Interval<>(10, 25), "Spanning");
+        pairs.put(new Interval<Integer>(25, null), "High");
+        series.putAll(pairs);
+        assertEquals("Bad method putAll - bad size", 4, series.size());
+        assertEquals("Bad method getValue - bad value", "Spanning", series.getValue(new Interval<>(10, 25)));
+        assertEquals("Bad method getIntervalByPoint - bad intervals",
+                Arrays.asList(new Interval<>(5, 10), new Interval<>(10, 25)), series.getIntervalByPoint(10, true));
+        assertEquals("Bad method getExtent - bad extent", new Interval<Integer>(null, null), series.getExtent());
+        series.erase(new Interval<>(8, 22));
+        assertEquals("Bad method erase - bad intervals",
+                Arrays.asList(new Interval<Integer>(null, 5), new Interval<>(5, 8), new Interval<>(22, 25), new Interval<Integer>(25, null)),
+                series.getIntervalsSorted());
+        series.clear();
+        assertTrue("Bad method clear - series is not empty", series.isEmpty());
+        try {
+            new ShardedIntervalsSeries<>(Arrays.asList(20, 10));
+            fail("Bad constructor - unsorted boundaries have been accepted");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+
+    /**
+     * Test of parallel writers in different shards.
+     *
+     * @throws InterruptedException if test is interrupted
+     */
+    @Test
+    public void testParallelWriters() throws InterruptedException {
+        final List<Integer> boundaries = Arrays.asList(1000, 2000, 3000);
+        final ShardedIntervalsSeries<Integer, Integer> series = new ShardedIntervalsSeries<>(boundaries);
+        series.putValue(new Interval<>(0, 4000), -1);
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            final int offset = w * 1000;
+            final Random random = new Random(w);
+            Thread writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 2000; i++) {
+                        int start = offset + random.nextInt(1000);
+                        series.insertNew(new Interval<>(start, Math.min(start + 1 + random.nextInt(100), 4000)), i);
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals("Bad method insertNew - series has gaps", 0, series.getGaps().size());
+        assertEquals("Bad method insertNew - bad extent", new Interval<>(0, 4000), series.getExtent());
+    }
+}